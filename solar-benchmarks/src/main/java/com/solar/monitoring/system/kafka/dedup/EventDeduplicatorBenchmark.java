@@ -0,0 +1,118 @@
+package com.solar.monitoring.system.kafka.dedup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-event cost of {@link EventDeduplicator} without Redis: claiming the eventId of a new event, and of an
+ * event delivered again.
+ *
+ * <p>New ids cycle through a pool of 2^20 UUIDs under a different listener each pass, so every claim is new to the
+ * set, which runs full and rotates early as it would under sustained load. Redelivered ids were claimed in the setup.
+ *
+ * <p>The setup prints the memory reserved per million ids of capacity, and for comparison the heap a
+ * {@code ConcurrentHashMap} key set of the id strings retains per million ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventDeduplicatorBenchmark {
+
+    private static final int POOL_BITS = 20;
+    private static final int POOL_SIZE = 1 << POOL_BITS;
+    private static final int LISTENERS = 64;
+    private static final String REDELIVERED = "redelivered";
+
+    @Param({"1000000"})
+    private int maxIds;
+
+    private EventDeduplicator deduplicator;
+    private String[] eventIds;
+    private String[] listeners;
+    private long seed;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        eventIds = new String[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            eventIds[i] = UUID.randomUUID().toString();
+        }
+        listeners = new String[LISTENERS];
+        for (int i = 0; i < LISTENERS; i++) {
+            listeners[i] = "listener-" + i;
+        }
+        seed = UUID.randomUUID().getMostSignificantBits();
+
+        deduplicator = new EventDeduplicator(new SimpleMeterRegistry(), null, maxIds, Duration.ofHours(1),
+                false, "dedup:event:");
+        for (String eventId : eventIds) {
+            deduplicator.claim(REDELIVERED, eventId);
+        }
+
+        long reserved = new RotatingFingerprintSet(maxIds, Duration.ofHours(1)).memoryBytes();
+        System.out.printf("%nRotatingFingerprintSet, max-ids %d: %.1f MiB per million ids of capacity "
+                + "(both generations)%n", maxIds, reserved * 1e6 / maxIds / (1 << 20));
+        System.out.printf("ConcurrentHashMap key set of UUID strings: %.1f MiB per million ids%n",
+                stringSetBytes(POOL_SIZE) * 1e6 / POOL_SIZE / (1 << 20));
+    }
+
+    @Benchmark
+    public boolean claimNew() {
+        int n = next++;
+        return deduplicator.claim(listeners[(n >>> POOL_BITS) & (LISTENERS - 1)], eventIds[n & (POOL_SIZE - 1)]);
+    }
+
+    @Benchmark
+    public boolean claimRedelivered() {
+        return deduplicator.claim(REDELIVERED, eventIds[next++ & (POOL_SIZE - 1)]);
+    }
+
+    @Benchmark
+    public long fingerprint() {
+        return EventDeduplicator.fingerprint(seed, eventIds[next++ & (POOL_SIZE - 1)]);
+    }
+
+    /**
+     * Measures the heap retained by a set of fresh id strings, as a string-based cache would hold them.
+     *
+     * @param ids the number of ids
+     * @return the retained bytes, approximately
+     */
+    private static long stringSetBytes(int ids) {
+        long before = usedHeap();
+        Set<String> set = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < ids; i++) {
+            set.add(UUID.randomUUID().toString());
+        }
+        long retained = usedHeap() - before;
+        return set.size() == ids ? retained : -1;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
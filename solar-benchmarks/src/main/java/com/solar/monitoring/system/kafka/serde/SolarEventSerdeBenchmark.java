@@ -0,0 +1,103 @@
+package com.solar.monitoring.system.kafka.serde;
+
+import com.solar.monitoring.system.kafka.config.WireFormat;
+import com.solar.monitoring.system.kafka.model.SolarEvent;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SolarEvent record values in each {@link WireFormat}: serializing on the producer, deserializing on the consumer.
+ *
+ * <p>The setup prints the bytes per record, value plus headers, as Kafka stores them before batch compression.
+ * The JSON path writes a {@code __TypeId__} header, the binary path none.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolarEventSerdeBenchmark {
+
+    private static final String TOPIC = "external-solar-events";
+
+    @Param({"JSON", "BINARY"})
+    private WireFormat format;
+
+    private SolarEvent event;
+    private Serializer<SolarEvent> serializer;
+    private Deserializer<SolarEvent> deserializer;
+    private byte[] value;
+    private Headers headers;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("powerOutput", 4.875);
+        data.put("voltage", 231.4);
+        data.put("current", 21.07);
+        data.put("temperature", 46.2);
+        data.put("efficiency", 0.187);
+        data.put("status", "ONLINE");
+        event = SolarEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType("REALTIME_METRICS")
+                .machineId("machine-00042")
+                .timestamp(LocalDateTime.of(2024, 6, 1, 12, 30, 15))
+                .data(data)
+                .source("benchmark")
+                .createdAt(LocalDateTime.of(2024, 6, 1, 12, 30, 15, 250_000_000))
+                .build();
+
+        JsonDeserializer<SolarEvent> jsonDeserializer = new JsonDeserializer<>(SolarEvent.class);
+        jsonDeserializer.addTrustedPackages("com.solar.monitoring.system.*");
+        if (format == WireFormat.BINARY) {
+            LocalSchemaRegistry schemaRegistry = new LocalSchemaRegistry();
+            serializer = new BinarySolarEventSerializer(schemaRegistry);
+            deserializer = new BinarySolarEventDeserializer(schemaRegistry, jsonDeserializer);
+        } else {
+            serializer = new JsonSerializer<>();
+            deserializer = jsonDeserializer;
+        }
+
+        headers = new RecordHeaders();
+        value = serializer.serialize(TOPIC, headers, event);
+        int headerBytes = 0;
+        for (Header header : headers) {
+            headerBytes += header.key().length() + header.value().length;
+        }
+        System.out.printf("%n%s: %d value bytes + %d header bytes per record%n", format, value.length, headerBytes);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public SolarEvent deserialize() {
+        return deserializer.deserialize(TOPIC, headers, value);
+    }
+}
@@ -0,0 +1,223 @@
+package com.solar.monitoring.system.kafka.streams;
+
+import com.solar.monitoring.system.kafka.config.WireFormat;
+import com.solar.monitoring.system.kafka.dto.EnergyRollupDto;
+import com.solar.monitoring.system.kafka.model.SolarEvent;
+import com.solar.monitoring.system.kafka.serde.BinarySolarEventDeserializer;
+import com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer;
+import com.solar.monitoring.system.kafka.serde.LocalSchemaRegistry;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyConfig;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerde;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link EnergyRollupTopology} driven end to end by {@link TopologyTestDriver}: telemetry in, closed 15-minute
+ * tumbling and 1-hour/15-minute hopping windows out.
+ *
+ * <p>An operation is one telemetry record. {@code machines} machines report every 10 seconds of event time, so
+ * windows close and are published as the benchmark runs.
+ *
+ * <p>The driver commits, and so flushes every store, after each record; with RocksDB that writes a new SST file per
+ * record and measures the disk. The stores are therefore in-memory window stores here, without record caches,
+ * which a per-record flush would defeat anyway. Each record also pays for the driver's commit, so the numbers
+ * bound the topology's cost per record from above.
+ *
+ * <p>The setup prints the rollups of one machine reporting a constant 5 kW for a full tumbling window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnergyRollupTopologyBenchmark {
+
+    private static final String INPUT_TOPIC = "external-solar-events";
+    private static final String ROLLUP_TOPIC = "solar-energy-rollups";
+    private static final int RECORDS_PER_INVOCATION = 10_000;
+    private static final long SAMPLE_INTERVAL_MILLIS = 10_000;
+
+    @Param({"JSON", "BINARY"})
+    private WireFormat format;
+
+    @Param({"1000"})
+    private int machines;
+
+    private Path stateDir;
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, SolarEvent> input;
+    private TestOutputTopic<String, EnergyRollupDto> rollups;
+    private List<TestOutputTopic<byte[], byte[]>> changelogs;
+    private SolarEvent[] events;
+    private long sequence;
+    private long startMillis;
+    private long published;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stateDir = Files.createTempDirectory("energy-rollup-benchmark");
+        startMillis = Instant.parse("2024-06-01T00:00:00Z").toEpochMilli();
+
+        events = new SolarEvent[machines];
+        for (int i = 0; i < machines; i++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("powerOutput", 4.0 + (i % 20) * 0.1);
+            data.put("voltage", 231.4);
+            data.put("current", 21.07);
+            data.put("temperature", 46.2);
+            data.put("efficiency", 0.187);
+            events[i] = SolarEvent.builder()
+                    .eventId(UUID.randomUUID().toString())
+                    .eventType("REALTIME_METRICS")
+                    .machineId(String.format("machine-%05d", i))
+                    .data(data)
+                    .source("benchmark")
+                    .build();
+        }
+
+        printConstantPowerRollups();
+        driver = createDriver("trial");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        driver.close();
+        System.out.printf("%n%s: %d records, %d rollups published%n", format, sequence, published);
+        try (Stream<Path> paths = Files.walk(stateDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS_PER_INVOCATION)
+    public long pipeTelemetry() {
+        for (int i = 0; i < RECORDS_PER_INVOCATION; i++) {
+            long n = sequence++;
+            SolarEvent event = events[(int) (n % machines)];
+            event.setTimestamp(toDateTime(startMillis + n / machines * SAMPLE_INTERVAL_MILLIS));
+            input.pipeInput(event.getMachineId(), event);
+        }
+        long closed = rollups.getQueueSize();
+        published += closed;
+        drain(rollups);
+        // the driver keeps every record written to a topic until it is read
+        changelogs.forEach(EnergyRollupTopologyBenchmark::drain);
+        return closed;
+    }
+
+    /**
+     * Pipes 17 minutes of 5 kW samples for one machine, past the first tumbling window's grace period, and prints
+     * the closed tumbling window: 90 samples integrating to 5 kW * 890 s = 1.236 kWh.
+     */
+    private void printConstantPowerRollups() {
+        try (TopologyTestDriver check = createDriver("check")) {
+            SolarEvent event = events[0];
+            Object power = event.getData().put("powerOutput", 5.0);
+            for (long t = 0; t <= Duration.ofMinutes(17).toMillis(); t += SAMPLE_INTERVAL_MILLIS) {
+                event.setTimestamp(toDateTime(startMillis + t));
+                input.pipeInput(event.getMachineId(), event);
+            }
+            event.getData().put("powerOutput", power);
+            List<EnergyRollupDto> closed = rollups.readValuesToList();
+            closed.forEach(rollup -> System.out.printf("%n%s%n", rollup));
+        }
+    }
+
+    /**
+     * Creates a driver running the topology with the given wire format, and points the topics at it.
+     *
+     * @param name the name of the driver's state directory
+     * @return the driver
+     */
+    private TopologyTestDriver createDriver(String name) {
+        JsonDeserializer<SolarEvent> jsonDeserializer = new JsonDeserializer<>(SolarEvent.class);
+        jsonDeserializer.addTrustedPackages("com.solar.monitoring.system.*");
+        Serializer<SolarEvent> serializer;
+        Deserializer<SolarEvent> deserializer;
+        if (format == WireFormat.BINARY) {
+            LocalSchemaRegistry schemaRegistry = new LocalSchemaRegistry();
+            serializer = new BinarySolarEventSerializer(schemaRegistry);
+            deserializer = new BinarySolarEventDeserializer(schemaRegistry, jsonDeserializer);
+        } else {
+            serializer = new JsonSerializer<>();
+            deserializer = jsonDeserializer;
+        }
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "energy-rollup-benchmark");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.resolve(name).toString());
+        props.put(StreamsConfig.DEFAULT_DSL_STORE_CONFIG, StreamsConfig.IN_MEMORY);
+        props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, 0);
+
+        EnergyRollupTopology topology = new EnergyRollupTopology(INPUT_TOPIC, ROLLUP_TOPIC,
+                Serdes.serdeFrom(serializer, deserializer), Duration.ofMinutes(15), Duration.ofHours(1),
+                Duration.ofMinutes(15), Duration.ofMinutes(1), Duration.ofMinutes(5));
+        StreamsBuilder builder = new StreamsBuilder(new TopologyConfig(new StreamsConfig(props)));
+        topology.build(builder);
+
+        TopologyTestDriver testDriver = new TopologyTestDriver(builder.build(), props);
+
+        input = testDriver.createInputTopic(INPUT_TOPIC, new StringSerializer(), serializer);
+        rollups = testDriver.createOutputTopic(ROLLUP_TOPIC, new StringDeserializer(),
+                new JsonSerde<>(EnergyRollupDto.class).deserializer());
+        changelogs = Stream.of(RollupWindow.values())
+                .flatMap(window -> Stream.of(window.getStoreName(), window.getStoreName() + "-closed-store"))
+                .map(store -> testDriver.createOutputTopic("energy-rollup-benchmark-" + store + "-changelog",
+                        new ByteArrayDeserializer(), new ByteArrayDeserializer()))
+                .toList();
+        return testDriver;
+    }
+
+    private static void drain(TestOutputTopic<?, ?> topic) {
+        for (long i = topic.getQueueSize(); i > 0; i--) {
+            topic.readRecord();
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,53 @@
+package com.solar.monitoring.system.kafka.util;
+
+import com.solar.monitoring.system.kafka.dto.EventDto;
+import com.solar.monitoring.system.kafka.model.SolarEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-event work of {@link MessageUtil} on the Kafka publish path: building the {@link SolarEvent} envelope
+ * and its record key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageUtilBenchmark {
+
+    private EventDto event;
+
+    @Setup
+    public void setUp() {
+        event = EventDto.builder()
+                .eventType("REALTIME_METRICS")
+                .machineId("machine-00042")
+                .timestamp(LocalDateTime.of(2024, 6, 1, 12, 30, 15))
+                .data(Map.of("powerOutput", 4.875, "voltage", 231.4, "temperature", 46.2))
+                .build();
+    }
+
+    @Benchmark
+    public SolarEvent createSolarEvent() {
+        return MessageUtil.createSolarEvent(event, "benchmark");
+    }
+
+    @Benchmark
+    public String generateEventKey() {
+        return MessageUtil.generateEventKey(event.getMachineId(), event.getEventType());
+    }
+}
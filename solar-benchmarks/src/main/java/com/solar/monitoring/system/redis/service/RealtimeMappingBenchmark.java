@@ -0,0 +1,121 @@
+package com.solar.monitoring.system.redis.service;
+
+import com.solar.monitoring.system.redis.config.CompactHashValueSerializer;
+import com.solar.monitoring.system.redis.config.HashCodec;
+import com.solar.monitoring.system.redis.config.TimestampFormat;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.metrics.RedisOperationMetrics;
+import com.solar.monitoring.system.redis.model.RealtimeMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-sample CPU work of {@link RealtimeServiceImpl} around a Redis round trip, without Redis.
+ *
+ * <ul>
+ *     <li>{@code serializeHash}: the realtime hash of a sample, encoded by the hash serializers;</li>
+ *     <li>{@code deserializeHash}: a stored hash decoded by the hash serializers;</li>
+ *     <li>{@code mapHash}: decoded fields to {@link RealtimeMetrics}, the {@code parseDouble} and
+ *     {@code parseLocalDateTime} conversions;</li>
+ *     <li>{@code readSample}: the whole read of {@code getRealtimeMetrics}, raw hash to {@link RealtimeDataDto}.</li>
+ * </ul>
+ * The template carries the serializers {@code RedisConfig} configures for the given {@link HashCodec}, and
+ * timestamps are stored in the given {@link TimestampFormat}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RealtimeMappingBenchmark {
+
+    @Param({"JSON", "COMPACT"})
+    public HashCodec codec;
+
+    @Param({"ISO", "EPOCH_MILLIS"})
+    public TimestampFormat format;
+
+    private RealtimeServiceImpl service;
+    private RealtimeDataDto sample;
+    private Map<byte[], byte[]> rawHash;
+    private Map<Object, Object> hash;
+
+    @Setup
+    public void setUp() {
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(jsonSerializer);
+        template.setHashValueSerializer(codec == HashCodec.COMPACT
+                ? new CompactHashValueSerializer(jsonSerializer) : jsonSerializer);
+
+        // only the mapping code runs, so the Redis-facing collaborators are left out
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new RealtimeServiceImpl(template, Optional.empty(), null, null, null, null, null, null, null, List.of(),
+                new RedisOperationMetrics(meterRegistry), meterRegistry);
+        setField("hashCodec", codec);
+        setField("timestampFormat", format);
+
+        sample = RealtimeDataDto.builder()
+                .machineId("machine-00042")
+                .timestamp(LocalDateTime.of(2024, 6, 1, 12, 30, 15, 123_000_000))
+                .powerOutput(4.875)
+                .voltage(231.4)
+                .current(21.07)
+                .temperature(46.2)
+                .efficiency(0.187)
+                .build();
+        rawHash = service.rawHash(service.toHash(sample));
+        hash = service.deserializeHash(rawHash);
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(RealtimeServiceImpl.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, service, value);
+    }
+
+    @Benchmark
+    public Map<byte[], byte[]> serializeHash() {
+        return service.rawHash(service.toHash(sample));
+    }
+
+    @Benchmark
+    public Map<Object, Object> deserializeHash() {
+        return service.deserializeHash(rawHash);
+    }
+
+    @Benchmark
+    public RealtimeMetrics mapHash() {
+        return service.toRealtimeMetrics(hash);
+    }
+
+    @Benchmark
+    public RealtimeDataDto readSample() {
+        return service.toDto(service.toRealtimeMetrics(service.deserializeHash(rawHash)));
+    }
+}
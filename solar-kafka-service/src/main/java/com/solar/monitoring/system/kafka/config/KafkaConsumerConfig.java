@@ -1,7 +1,15 @@
 package com.solar.monitoring.system.kafka.config;
 
 import com.solar.monitoring.system.kafka.model.SolarEvent;
+import com.solar.monitoring.system.kafka.serde.BinarySolarEventDeserializer;
+import com.solar.monitoring.system.kafka.serde.ISchemaRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -9,48 +17,126 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Configuration
 public class KafkaConsumerConfig {
 
+    private static final Duration PARTITION_LOOKUP_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * Suffix of the dead-letter topics, as named by the retry topics of the single-record listeners.
+     */
+    public static final String DLT_SUFFIX = "-dlt";
+
+    private final KafkaAdmin kafkaAdmin;
+    private final ISchemaRegistry schemaRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${solar.kafka.wire-format:JSON}")
+    private WireFormat wireFormat;
+
+    @Value("${solar.kafka.consumer.concurrency:0}")
+    private int concurrency;
+
+    @Value("${solar.kafka.consumer.batch.max-poll-records:2000}")
+    private int batchMaxPollRecords;
+
+    @Value("${solar.kafka.consumer.batch.fetch-min-bytes:65536}")
+    private int batchFetchMinBytes;
+
+    @Value("${solar.kafka.consumer.batch.fetch-max-wait:100ms}")
+    private Duration batchFetchMaxWait;
+
+    @Value("${solar.kafka.consumer.batch.max-partition-fetch-bytes:4194304}")
+    private int batchMaxPartitionFetchBytes;
+
+    @Value("${solar.kafka.consumer.keyed.max-poll-records:2000}")
+    private int keyedMaxPollRecords;
+
+    @Value("${solar.kafka.consumer.retry.replay.group-id:solar-kafka-service-dlt-replay}")
+    private String replayGroupId;
+
+    @Value("${solar.kafka.consumer.retry.replay.max-poll-records:500}")
+    private int replayMaxPollRecords;
+
+    /**
+     * Creates the consumer configuration.
+     *
+     * @param kafkaAdmin     the auto-configured admin, used to look up the partition count of the listened topics
+     * @param schemaRegistry resolves the schemas of binary records
+     */
+    public KafkaConsumerConfig(KafkaAdmin kafkaAdmin, ISchemaRegistry schemaRegistry) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.schemaRegistry = schemaRegistry;
+    }
+
     /**
      * Creates a ConsumerFactory for consuming SolarEvent messages from Kafka.
      *
      * Configures bootstrap servers, consumer group id, key and value deserializers
      * (String for keys, JSON for SolarEvent values), sets the trusted package for
      * JSON deserialization to "com.solar.monitoring.system.*" and sets offset reset
-     * to "earliest".
+     * to "earliest". With {@code solar.kafka.wire-format} set to {@link WireFormat#BINARY}, values are read by
+     * {@link BinarySolarEventDeserializer}, which still reads JSON records. The value deserializer is wrapped in an
+     * ErrorHandlingDeserializer, so a record that cannot be deserialized reaches the listener's error handling
+     * instead of failing every poll.
      *
      * @return a configured ConsumerFactory<String, SolarEvent>
      */
     @Bean
     public ConsumerFactory<String, SolarEvent> consumerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.solar.monitoring.system.*");
-        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return consumerFactory(consumerProperties());
+    }
 
-        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
-                new JsonDeserializer<>(SolarEvent.class));
+    /**
+     * Creates the ConsumerFactory of the batch listeners.
+     *
+     * Same as {@link #consumerFactory()}, with polls of up to {@code solar.kafka.consumer.batch.max-poll-records}
+     * records and fetches that wait for {@code fetch-min-bytes} (at most {@code fetch-max-wait}) and return up to
+     * {@code max-partition-fetch-bytes} per partition, so each poll delivers a large batch.
+     *
+     * @return a configured ConsumerFactory<String, SolarEvent> for batch consumption
+     */
+    @Bean
+    public ConsumerFactory<String, SolarEvent> batchConsumerFactory() {
+        Map<String, Object> configProps = consumerProperties();
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords);
+        configProps.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batchFetchMinBytes);
+        configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) batchFetchMaxWait.toMillis());
+        configProps.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, batchMaxPartitionFetchBytes);
+
+        return consumerFactory(configProps);
     }
 
     /**
      * Spring bean that creates a ConcurrentKafkaListenerContainerFactory for consuming SolarEvent messages.
      *
-     * The returned factory is configured to use this class's ConsumerFactory<String, SolarEvent> for consumer instances.
+     * The returned factory is configured to use this class's ConsumerFactory<String, SolarEvent> for consumer
+     * instances, with the concurrency of {@link #matchConcurrency}.
      *
      * @return a configured ConcurrentKafkaListenerContainerFactory for String keys and SolarEvent values
      */
@@ -59,6 +145,177 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, SolarEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setContainerCustomizer(this::matchConcurrency);
+        return factory;
+    }
+
+    /**
+     * Creates the container factory of the batch listeners, which receive every record of a poll in one call.
+     *
+     * @return a ConcurrentKafkaListenerContainerFactory delivering {@code List<ConsumerRecord<String, SolarEvent>>}
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, SolarEvent> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, SolarEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setContainerCustomizer(this::matchConcurrency);
         return factory;
     }
+
+    /**
+     * Creates the container factory of the keyed listeners, which hand each record to another thread and
+     * acknowledge it from there once handled.
+     *
+     * Acknowledgements may arrive out of order: the container commits a partition's offset only up to the lowest
+     * record not yet acknowledged, and pauses the consumer until every record of the previous poll is acknowledged.
+     * A poll of up to {@code solar.kafka.consumer.keyed.max-poll-records} records is thus the most work in flight
+     * per consumer. Records that cannot be deserialized never reach the listener; they are parked in the dead-letter
+     * topic by the container's error handler.
+     *
+     * @param deadLetterPublishingRecoverer parks the records that cannot be deserialized
+     * @return a ConcurrentKafkaListenerContainerFactory with manual, out-of-order acknowledgement
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, SolarEvent> keyedKafkaListenerContainerFactory(
+            DeadLetterPublishingRecoverer deadLetterPublishingRecoverer) {
+        Map<String, Object> configProps = consumerProperties();
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, keyedMaxPollRecords);
+
+        ConcurrentKafkaListenerContainerFactory<String, SolarEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory(configProps));
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(deadLetterPublishingRecoverer, new FixedBackOff(0L, 0L)));
+        factory.setContainerCustomizer(this::matchConcurrency);
+        return factory;
+    }
+
+    /**
+     * Creates the ConsumerFactory that reads dead letters for replay.
+     *
+     * Values are read as raw bytes, so records are replayed exactly as they were consumed, readable or not. The
+     * consumers belong to {@code solar.kafka.consumer.retry.replay.group-id}, whose committed offsets mark the dead
+     * letters already replayed; offsets are committed only once replayed records are acknowledged.
+     *
+     * @return a ConsumerFactory<String, byte[]> for the dead-letter topics
+     */
+    @Bean
+    public ConsumerFactory<String, byte[]> dltReplayConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, replayGroupId);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, false);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, replayMaxPollRecords);
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    /**
+     * Creates the recoverer the batch and keyed listeners hand failed records to.
+     *
+     * Those listeners cannot use the retry topics of the single-record listeners without holding back their
+     * partition, so a failed record goes straight to the dead-letter topic of its topic ({@code <topic>-dlt}), on a
+     * partition chosen by the producer, with the same headers as records that went through the retry topics:
+     * the original topic, partition, offset and headers, the exception, and {@code retry_topic-attempts} of 2, the
+     * attempt the record would be delivered as. Records that could not be deserialized are published with their
+     * original bytes.
+     *
+     * @param retryKafkaTemplate the template writing SolarEvent and byte[] values
+     * @return the recoverer
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer(
+            KafkaTemplate<String, Object> retryKafkaTemplate) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(retryKafkaTemplate,
+                (record, exception) -> new TopicPartition(record.topic() + DLT_SUFFIX, -1));
+        recoverer.setHeaderNamesSupplier(() -> DeadLetterPublishingRecoverer.HeaderNames.Builder
+                .original()
+                .offsetHeader(KafkaHeaders.ORIGINAL_OFFSET)
+                .timestampHeader(KafkaHeaders.ORIGINAL_TIMESTAMP)
+                .timestampTypeHeader(KafkaHeaders.ORIGINAL_TIMESTAMP_TYPE)
+                .topicHeader(KafkaHeaders.ORIGINAL_TOPIC)
+                .partitionHeader(KafkaHeaders.ORIGINAL_PARTITION)
+                .consumerGroupHeader(KafkaHeaders.ORIGINAL_CONSUMER_GROUP)
+                .exception()
+                .keyExceptionFqcn(KafkaHeaders.KEY_EXCEPTION_FQCN)
+                .exceptionFqcn(KafkaHeaders.EXCEPTION_FQCN)
+                .exceptionCauseFqcn(KafkaHeaders.EXCEPTION_CAUSE_FQCN)
+                .keyExceptionMessage(KafkaHeaders.KEY_EXCEPTION_MESSAGE)
+                .exceptionMessage(KafkaHeaders.EXCEPTION_MESSAGE)
+                .keyExceptionStacktrace(KafkaHeaders.KEY_EXCEPTION_STACKTRACE)
+                .exceptionStacktrace(KafkaHeaders.EXCEPTION_STACKTRACE)
+                .build());
+        recoverer.setHeadersFunction((record, exception) -> new RecordHeaders().add(
+                RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, ByteBuffer.allocate(Integer.BYTES).putInt(2).array()));
+        return recoverer;
+    }
+
+    /**
+     * Builds the consumer properties shared by all consumer factories.
+     *
+     * @return a mutable map of consumer properties
+     */
+    private Map<String, Object> consumerProperties() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.solar.monitoring.system.*");
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return configProps;
+    }
+
+    /**
+     * Creates a consumer factory with String keys and SolarEvent values.
+     *
+     * @param configProps the consumer properties
+     * @return the consumer factory
+     */
+    private ConsumerFactory<String, SolarEvent> consumerFactory(Map<String, Object> configProps) {
+        Deserializer<SolarEvent> valueDeserializer = new JsonDeserializer<>(SolarEvent.class);
+        if (wireFormat == WireFormat.BINARY) {
+            valueDeserializer = new BinarySolarEventDeserializer(schemaRegistry, valueDeserializer);
+        }
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(valueDeserializer));
+    }
+
+    /**
+     * Sets a listener container's concurrency to {@code solar.kafka.consumer.concurrency}, or, when that is 0, to
+     * the partition count of its topics, so every partition gets its own consumer thread.
+     *
+     * @param container the listener container
+     */
+    private void matchConcurrency(ConcurrentMessageListenerContainer<String, SolarEvent> container) {
+        String[] topics = container.getContainerProperties().getTopics();
+        int consumers = concurrency > 0 || topics == null ? Math.max(concurrency, 1) : partitionCount(topics);
+        container.setConcurrency(consumers);
+        log.info("Listener {} on {} runs {} consumers", container.getListenerId(), Arrays.toString(topics), consumers);
+    }
+
+    /**
+     * Looks up the largest partition count among the given topics.
+     *
+     * @param topics the topic names
+     * @return the partition count, or 1 if a topic does not exist yet or the brokers cannot be reached
+     */
+    private int partitionCount(String[] topics) {
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            return admin.describeTopics(Arrays.asList(topics)).allTopicNames()
+                    .get(PARTITION_LOOKUP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                    .values().stream()
+                    .mapToInt(description -> description.partitions().size())
+                    .max()
+                    .orElse(1);
+        } catch (Exception e) {
+            log.warn("Could not look up the partitions of {}, using one consumer: {}",
+                    Arrays.toString(topics), e.getMessage());
+            return 1;
+        }
+    }
 }
@@ -1,6 +1,11 @@
 package com.solar.monitoring.system.kafka.config;
 import com.solar.monitoring.system.kafka.model.SolarEvent;
+import com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer;
+import com.solar.monitoring.system.kafka.serde.ISchemaRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -8,28 +13,81 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+@Slf4j
 @Configuration
 public class KafkaProducerConfig {
 
+    /**
+     * The most in-flight requests per connection the idempotent producer keeps ordered.
+     */
+    private static final int MAX_IDEMPOTENT_IN_FLIGHT_REQUESTS = 5;
+
+    private final ISchemaRegistry schemaRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${solar.kafka.wire-format:JSON}")
+    private WireFormat wireFormat;
+
+    @Value("${solar.kafka.producer.profile:DEFAULT}")
+    private ProducerProfile profile;
+
+    @Value("${solar.kafka.producer.batch-size:#{null}}")
+    private Integer batchSize;
+
+    @Value("${solar.kafka.producer.linger:#{null}}")
+    private Duration linger;
+
+    @Value("${solar.kafka.producer.compression-type:#{null}}")
+    private String compressionType;
+
+    @Value("${solar.kafka.producer.buffer-memory:#{null}}")
+    private Long bufferMemory;
+
+    @Value("${solar.kafka.producer.max-in-flight-requests:5}")
+    private int maxInFlightRequests;
+
+    /**
+     * Creates the producer configuration.
+     *
+     * @param schemaRegistry resolves the schema binary records are written with
+     */
+    public KafkaProducerConfig(ISchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
     /**
-     * Creates a ProducerFactory configured for producing String-keyed, JSON-serialized SolarEvent messages to Kafka.
+     * Creates a ProducerFactory configured for producing String-keyed SolarEvent messages to Kafka.
      *
      * <p>The factory is configured with the bootstrap servers from the application's
-     * {@code spring.kafka.bootstrap-servers} property, String key serializer, JSON value serializer,
+     * {@code spring.kafka.bootstrap-servers} property, String key serializer, a value serializer following
+     * {@code solar.kafka.wire-format} (JSON, or {@link BinarySolarEventSerializer} for {@link WireFormat#BINARY}),
      * and delivery reliability settings (acks = "all", retries = 3, idempotence enabled).</p>
      *
+     * <p>Batching and compression follow {@code solar.kafka.producer.profile}, see {@link ProducerProfile}, with
+     * {@code batch-size}, {@code linger}, {@code compression-type} and {@code buffer-memory} overriding the profile
+     * one by one. {@code max-in-flight-requests} is limited to 5, beyond which idempotence no longer guarantees
+     * ordering and Kafka rejects the configuration.</p>
+     *
      * @return a ProducerFactory<String, SolarEvent> ready for use by a KafkaTemplate
+     * @throws IllegalStateException if {@code solar.kafka.producer.max-in-flight-requests} is not between 1 and 5
      */
     @Bean
     public ProducerFactory<String, SolarEvent> producerFactory() {
+        if (maxInFlightRequests < 1 || maxInFlightRequests > MAX_IDEMPOTENT_IN_FLIGHT_REQUESTS) {
+            throw new IllegalStateException("solar.kafka.producer.max-in-flight-requests must be between 1 and "
+                    + MAX_IDEMPOTENT_IN_FLIGHT_REQUESTS + " with idempotence enabled, was " + maxInFlightRequests);
+        }
+
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
@@ -37,15 +95,31 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlightRequests);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize != null ? batchSize : profile.getBatchSize());
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, linger != null ? linger.toMillis() : profile.getLingerMs());
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG,
+                compressionType != null ? compressionType : profile.getCompressionType());
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG,
+                bufferMemory != null ? bufferMemory : profile.getBufferMemory());
+        log.info("Producer profile {}: batch.size={}, linger.ms={}, compression.type={}, buffer.memory={}, "
+                        + "max.in.flight.requests.per.connection={}", profile,
+                configProps.get(ProducerConfig.BATCH_SIZE_CONFIG), configProps.get(ProducerConfig.LINGER_MS_CONFIG),
+                configProps.get(ProducerConfig.COMPRESSION_TYPE_CONFIG),
+                configProps.get(ProducerConfig.BUFFER_MEMORY_CONFIG), maxInFlightRequests);
 
+        if (wireFormat == WireFormat.BINARY) {
+            return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(),
+                    new BinarySolarEventSerializer(schemaRegistry));
+        }
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
     /**
-     * Creates a KafkaTemplate for sending String-keyed, JSON-serialized SolarEvent messages.
+     * Creates a KafkaTemplate for sending String-keyed SolarEvent messages.
      *
      * <p>The template is constructed from the {@link #producerFactory()} bean and is configured
-     * to produce messages with String keys and {@code SolarEvent} values serialized as JSON.
+     * to produce messages with String keys and {@code SolarEvent} values in the configured wire format.
      *
      * @return a configured {@code KafkaTemplate<String, SolarEvent>} for publishing events to Kafka
      */
@@ -53,4 +127,31 @@ public class KafkaProducerConfig {
     public KafkaTemplate<String, SolarEvent> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the KafkaTemplate that forwards failed records to the retry and dead-letter topics, and replays
+     * dead letters.
+     *
+     * <p>Values are {@code SolarEvent}s, written in the configured wire format, or the raw bytes of records that
+     * could not be deserialized or are replayed, written as they are. Delivery settings match
+     * {@link #producerFactory()} (acks = "all", idempotence enabled) with Kafka's default batching, as failed
+     * records are few.
+     *
+     * @return a {@code KafkaTemplate<String, Object>} for SolarEvent and byte[] values
+     */
+    @Bean
+    public KafkaTemplate<String, Object> retryKafkaTemplate() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+
+        Map<Class<?>, Serializer<?>> valueSerializers = new LinkedHashMap<>();
+        valueSerializers.put(byte[].class, new ByteArraySerializer());
+        valueSerializers.put(SolarEvent.class, wireFormat == WireFormat.BINARY
+                ? new BinarySolarEventSerializer(schemaRegistry) : new JsonSerializer<SolarEvent>());
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(),
+                new DelegatingByTypeSerializer(valueSerializers)));
+    }
+}
@@ -0,0 +1,39 @@
+package com.solar.monitoring.system.kafka.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Configures the retry topics of the listeners annotated with {@code @RetryableTopic}.
+ */
+@Configuration
+public class KafkaRetryTopicConfig extends RetryTopicConfigurationSupport {
+
+    /**
+     * Creates the scheduler that resumes the partitions of the retry topics once a record's back-off has passed,
+     * kept apart from any application scheduler.
+     *
+     * @return the wrapped single-threaded scheduler
+     */
+    @Bean
+    public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("kafka-retry-");
+        return new RetryTopicSchedulerWrapper(scheduler);
+    }
+
+    /**
+     * Hands the records polled after a failed one straight to the listener once the failed record is forwarded to
+     * the next retry topic, instead of seeking back and fetching them again, so a poison message costs one extra
+     * send rather than a re-fetch of the rest of the poll.
+     *
+     * @param customizersConfigurer the customizers of the retry topic components
+     */
+    @Override
+    protected void configureCustomizers(CustomizersConfigurer customizersConfigurer) {
+        customizersConfigurer.customizeErrorHandler(errorHandler -> errorHandler.setSeekAfterError(false));
+    }
+}
@@ -0,0 +1,143 @@
+package com.solar.monitoring.system.kafka.config;
+
+import com.solar.monitoring.system.kafka.model.SolarEvent;
+import com.solar.monitoring.system.kafka.serde.BinarySolarEventDeserializer;
+import com.solar.monitoring.system.kafka.serde.ISchemaRegistry;
+import com.solar.monitoring.system.kafka.streams.EnergyRollupTopology;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.config.KafkaStreamsInfrastructureCustomizer;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.streams.KafkaStreamsMicrometerListener;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the {@link EnergyRollupTopology} when {@code solar.kafka.streams.enabled} is set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "solar.kafka.streams.enabled", havingValue = "true")
+public class KafkaStreamsConfig {
+
+    private final ISchemaRegistry schemaRegistry;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${solar.kafka.wire-format:JSON}")
+    private WireFormat wireFormat;
+
+    @Value("${solar.kafka.streams.application-id:solar-kafka-service-rollups}")
+    private String applicationId;
+
+    @Value("${solar.kafka.streams.application-server:}")
+    private String applicationServer;
+
+    @Value("${solar.kafka.streams.state-dir:#{null}}")
+    private String stateDir;
+
+    @Value("${solar.kafka.streams.threads:1}")
+    private int threads;
+
+    @Value("${solar.kafka.streams.rollup.input-topic:external-solar-events}")
+    private String inputTopic;
+
+    @Value("${solar.kafka.streams.rollup.topic:solar-energy-rollups}")
+    private String rollupTopic;
+
+    @Value("${solar.kafka.streams.rollup.tumbling.size:PT15M}")
+    private Duration tumblingSize;
+
+    @Value("${solar.kafka.streams.rollup.hopping.size:PT1H}")
+    private Duration hoppingSize;
+
+    @Value("${solar.kafka.streams.rollup.hopping.advance:PT15M}")
+    private Duration hoppingAdvance;
+
+    @Value("${solar.kafka.streams.rollup.grace:PT1M}")
+    private Duration grace;
+
+    @Value("${solar.kafka.streams.rollup.max-sample-gap:PT5M}")
+    private Duration maxSampleGap;
+
+    /**
+     * Creates the streams configuration.
+     *
+     * @param schemaRegistry resolves the schemas of binary records
+     * @param meterRegistry  registry the Kafka Streams client metrics are bound to
+     */
+    public KafkaStreamsConfig(ISchemaRegistry schemaRegistry, MeterRegistry meterRegistry) {
+        this.schemaRegistry = schemaRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Defines the rollup topology from the {@code solar.kafka.streams.rollup.*} properties.
+     *
+     * Telemetry values are read in the configured {@code solar.kafka.wire-format}, as the listeners read them.
+     *
+     * @return the topology definition
+     */
+    @Bean
+    public EnergyRollupTopology energyRollupTopology() {
+        JsonDeserializer<SolarEvent> jsonDeserializer = new JsonDeserializer<>(SolarEvent.class);
+        jsonDeserializer.addTrustedPackages("com.solar.monitoring.system.*");
+        Deserializer<SolarEvent> valueDeserializer = jsonDeserializer;
+        if (wireFormat == WireFormat.BINARY) {
+            valueDeserializer = new BinarySolarEventDeserializer(schemaRegistry, jsonDeserializer);
+        }
+        return new EnergyRollupTopology(inputTopic, rollupTopic,
+                Serdes.serdeFrom(new JsonSerializer<>(), valueDeserializer),
+                tumblingSize, hoppingSize, hoppingAdvance, grace, maxSampleGap);
+    }
+
+    /**
+     * Creates the Kafka Streams application running the rollup topology, started with the context.
+     *
+     * Records that cannot be deserialized are logged and skipped instead of stopping the application, and the client
+     * metrics are published as {@code kafka.stream.*} meters. With {@code solar.kafka.streams.application-server}
+     * set (host:port of this instance's HTTP endpoint), instances learn which of them holds a machine's windows.
+     *
+     * @param energyRollupTopology the topology definition
+     * @return the factory bean owning the KafkaStreams instance
+     */
+    @Bean
+    public StreamsBuilderFactoryBean energyRollupStreams(EnergyRollupTopology energyRollupTopology) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
+        configProps.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, threads);
+        configProps.put(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG,
+                LogAndContinueExceptionHandler.class);
+        if (!applicationServer.isBlank()) {
+            configProps.put(StreamsConfig.APPLICATION_SERVER_CONFIG, applicationServer);
+        }
+        if (stateDir != null) {
+            configProps.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
+        }
+
+        StreamsBuilderFactoryBean factoryBean = new StreamsBuilderFactoryBean(new KafkaStreamsConfiguration(configProps));
+        factoryBean.setInfrastructureCustomizer(new KafkaStreamsInfrastructureCustomizer() {
+            @Override
+            public void configureBuilder(StreamsBuilder builder) {
+                energyRollupTopology.build(builder);
+            }
+        });
+        factoryBean.addListener(new KafkaStreamsMicrometerListener(meterRegistry));
+        return factoryBean;
+    }
+}
@@ -0,0 +1,59 @@
+package com.solar.monitoring.system.kafka.config;
+
+/**
+ * Producer batching and compression presets, selected with {@code solar.kafka.producer.profile}.
+ *
+ * <p>Each setting can still be overridden on its own under {@code solar.kafka.producer.*}.
+ */
+public enum ProducerProfile {
+    /**
+     * Kafka's defaults: 16 KiB batches sent as soon as the sender is free, uncompressed.
+     */
+    DEFAULT(16_384, 0, "none", 33_554_432L),
+
+    /**
+     * 256 KiB lz4-compressed batches, waiting up to 20 ms to fill them, with a 64 MiB send buffer.
+     * Trades a few milliseconds of latency for far fewer, larger requests.
+     */
+    THROUGHPUT(262_144, 20, "lz4", 67_108_864L);
+
+    private final int batchSize;
+    private final long lingerMs;
+    private final String compressionType;
+    private final long bufferMemory;
+
+    ProducerProfile(int batchSize, long lingerMs, String compressionType, long bufferMemory) {
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.compressionType = compressionType;
+        this.bufferMemory = bufferMemory;
+    }
+
+    /**
+     * @return the {@code batch.size}, in bytes
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the {@code linger.ms}
+     */
+    public long getLingerMs() {
+        return lingerMs;
+    }
+
+    /**
+     * @return the {@code compression.type}
+     */
+    public String getCompressionType() {
+        return compressionType;
+    }
+
+    /**
+     * @return the {@code buffer.memory}, in bytes
+     */
+    public long getBufferMemory() {
+        return bufferMemory;
+    }
+}
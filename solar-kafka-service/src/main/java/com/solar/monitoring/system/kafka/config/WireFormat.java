@@ -0,0 +1,20 @@
+package com.solar.monitoring.system.kafka.config;
+
+import com.solar.monitoring.system.kafka.serde.BinarySolarEventDeserializer;
+import com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer;
+
+/**
+ * How SolarEvent record values are encoded, selected with {@code solar.kafka.wire-format}.
+ */
+public enum WireFormat {
+    /**
+     * Values are JSON documents written by Spring's {@code JsonSerializer}, with a type header on every record.
+     */
+    JSON,
+
+    /**
+     * Values use the schema-based binary layout of {@link BinarySolarEventSerializer}. Consumers in this mode
+     * still read JSON records, see {@link BinarySolarEventDeserializer}.
+     */
+    BINARY
+}
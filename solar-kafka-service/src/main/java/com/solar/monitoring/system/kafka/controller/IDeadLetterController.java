@@ -0,0 +1,15 @@
+package com.solar.monitoring.system.kafka.controller;
+
+import com.solar.monitoring.system.kafka.dto.ReplayResultDto;
+import org.springframework.http.ResponseEntity;
+
+public interface IDeadLetterController {
+    /**
+     * Re-publishes the records parked in a dead-letter topic to the topics they failed on.
+     *
+     * @param topic the dead-letter topic, or the topic whose dead letters to replay
+     * @param max   the most records to replay
+     * @return a ResponseEntity whose body counts the replayed and remaining records
+     */
+    ResponseEntity<ReplayResultDto> replay(String topic, int max);
+}
@@ -0,0 +1,18 @@
+package com.solar.monitoring.system.kafka.controller;
+
+import com.solar.monitoring.system.kafka.dto.EnergyRollupDto;
+import com.solar.monitoring.system.kafka.streams.RollupWindow;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+public interface IRollupController {
+    /**
+     * Returns the energy and power rollups of a machine's windows that are still open.
+     *
+     * @param machineId the machine identifier
+     * @param window    the kind of window
+     * @return a ResponseEntity whose body lists the open windows, oldest first
+     */
+    ResponseEntity<List<EnergyRollupDto>> getOpenRollups(String machineId, RollupWindow window);
+}
@@ -0,0 +1,37 @@
+package com.solar.monitoring.system.kafka.controller.impl;
+
+import com.solar.monitoring.system.kafka.controller.IDeadLetterController;
+import com.solar.monitoring.system.kafka.dto.ReplayResultDto;
+import com.solar.monitoring.system.kafka.service.IDeadLetterService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/dead-letters")
+public class DeadLetterControllerImpl implements IDeadLetterController {
+
+    private final IDeadLetterService deadLetterService;
+
+    public DeadLetterControllerImpl(IDeadLetterService deadLetterService) {
+        this.deadLetterService = deadLetterService;
+    }
+
+    /**
+     * Replays dead letters, e.g. {@code POST /api/dead-letters/external-solar-events/replay?max=5000} once the cause of
+     * the failures is fixed. Records that fail again are parked again.
+     *
+     * @param topic the dead-letter topic, or the topic whose dead letters to replay
+     * @param max   the most records to replay (default 1000); call again while records remain
+     * @return ResponseEntity with the replayed and remaining counts (HTTP 200)
+     */
+    @PostMapping("/{topic}/replay")
+    @Override
+    public ResponseEntity<ReplayResultDto> replay(@PathVariable String topic,
+                                                  @RequestParam(defaultValue = "1000") int max) {
+        return ResponseEntity.ok(deadLetterService.replay(topic, max));
+    }
+}
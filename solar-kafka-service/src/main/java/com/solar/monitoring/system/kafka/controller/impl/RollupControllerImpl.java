@@ -0,0 +1,42 @@
+package com.solar.monitoring.system.kafka.controller.impl;
+
+import com.solar.monitoring.system.kafka.controller.IRollupController;
+import com.solar.monitoring.system.kafka.dto.EnergyRollupDto;
+import com.solar.monitoring.system.kafka.service.IEnergyRollupService;
+import com.solar.monitoring.system.kafka.streams.RollupWindow;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/rollups")
+@ConditionalOnProperty(name = "solar.kafka.streams.enabled", havingValue = "true")
+public class RollupControllerImpl implements IRollupController {
+
+    private final IEnergyRollupService energyRollupService;
+
+    public RollupControllerImpl(IEnergyRollupService energyRollupService) {
+        this.energyRollupService = energyRollupService;
+    }
+
+    /**
+     * Returns the open windows of a machine, e.g. {@code GET /api/rollups/m1?window=HOPPING}.
+     *
+     * @param machineId the machine identifier
+     * @param window    {@code TUMBLING} (default) or {@code HOPPING}
+     * @return ResponseEntity with the open windows (HTTP 200)
+     */
+    @GetMapping("/{machineId}")
+    @Override
+    public ResponseEntity<List<EnergyRollupDto>> getOpenRollups(
+            @PathVariable String machineId,
+            @RequestParam(defaultValue = "TUMBLING") RollupWindow window) {
+        return ResponseEntity.ok(energyRollupService.getOpenWindows(machineId, window));
+    }
+}
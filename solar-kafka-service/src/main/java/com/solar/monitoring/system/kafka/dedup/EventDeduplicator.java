@@ -0,0 +1,295 @@
+package com.solar.monitoring.system.kafka.dedup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recognizes events delivered more than once, by {@code SolarEvent.eventId}, so the listeners handle each event once.
+ *
+ * <p>Rebalances, redelivery of uncommitted offsets and producer retries deliver events again. Each listener claims
+ * an event's id before handling it; a claim fails if the same listener claimed the id within the last
+ * {@code solar.kafka.consumer.dedup.window}. Ids are remembered as 64-bit fingerprints in a
+ * {@link RotatingFingerprintSet} holding {@code max-ids} per window, so memory is fixed at startup (about 21 bytes
+ * per id); when more ids arrive within a window, the oldest are forgotten early. Two different ids share a
+ * fingerprint with a probability around 10^-13 per lookup at full capacity.
+ *
+ * <p>With {@code solar.kafka.consumer.dedup.redis.enabled}, ids new to this instance are also claimed in Redis with
+ * {@code SET NX} and a TTL of one window, so instances of a group, or an instance after a restart, recognize events
+ * another one already claimed. If Redis cannot be reached, events are handled rather than dropped.
+ *
+ * <p>Publishes {@code kafka.consumer.dedup.events}, tagged {@code listener} and {@code outcome} ({@code unique},
+ * {@code duplicate}, or {@code untracked} for events without an id), from which the duplicate rate follows;
+ * {@code kafka.consumer.dedup.ids} and {@code kafka.consumer.dedup.memory}, the ids remembered and the bytes
+ * reserved for them; {@code kafka.consumer.dedup.early.rotations}; and {@code kafka.consumer.dedup.redis.errors}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "solar.kafka.consumer.dedup.enabled", havingValue = "true")
+public class EventDeduplicator {
+
+    private static final byte[] CLAIMED = {'1'};
+    private static final long K1 = 0x9E3779B97F4A7C15L;
+    private static final long K2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final MeterRegistry meterRegistry;
+    private final RotatingFingerprintSet seen;
+    private final StringRedisTemplate redisTemplate;
+    private final String redisKeyPrefix;
+    private final Duration window;
+    private final Counter redisErrors;
+    private final Map<String, Scope> scopes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the de-duplication state and its meters.
+     *
+     * @param meterRegistry  registry the de-duplication meters are bound to
+     * @param redisTemplate  the auto-configured template, used when {@code redisEnabled}
+     * @param maxIds         ids remembered per window before the oldest are forgotten early
+     * @param window         how long ids are remembered at least, and the TTL of their Redis keys
+     * @param redisEnabled   whether ids are also claimed in Redis
+     * @param redisKeyPrefix prefix of the Redis keys, followed by the listener and the eventId
+     */
+    public EventDeduplicator(MeterRegistry meterRegistry, StringRedisTemplate redisTemplate,
+                             @Value("${solar.kafka.consumer.dedup.max-ids:1000000}") int maxIds,
+                             @Value("${solar.kafka.consumer.dedup.window:PT10M}") Duration window,
+                             @Value("${solar.kafka.consumer.dedup.redis.enabled:false}") boolean redisEnabled,
+                             @Value("${solar.kafka.consumer.dedup.redis.key-prefix:dedup:event:}")
+                             String redisKeyPrefix) {
+        this.meterRegistry = meterRegistry;
+        this.seen = new RotatingFingerprintSet(maxIds, window);
+        this.redisTemplate = redisEnabled ? redisTemplate : null;
+        this.redisKeyPrefix = redisKeyPrefix;
+        this.window = window;
+
+        Gauge.builder("kafka.consumer.dedup.ids", seen, RotatingFingerprintSet::size)
+                .description("Event ids remembered for de-duplication")
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.dedup.memory", seen, RotatingFingerprintSet::memoryBytes)
+                .description("Memory reserved for the remembered event ids")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("kafka.consumer.dedup.early.rotations", seen,
+                        RotatingFingerprintSet::getEarlyRotations)
+                .description("Id generations forgotten before the window passed because max-ids was reached")
+                .register(meterRegistry);
+        this.redisErrors = Counter.builder("kafka.consumer.dedup.redis.errors")
+                .description("Redis claims and releases that failed")
+                .register(meterRegistry);
+        log.info("Event de-duplication remembers up to {} ids per {} in {} MiB{}", maxIds, window,
+                seen.memoryBytes() >> 20, this.redisTemplate != null ? ", shared through Redis" : "");
+    }
+
+    /**
+     * Claims an event for a listener.
+     *
+     * @param listener the listener's event category (e.g., "external", "data-processed")
+     * @param eventId  the event's id (may be null)
+     * @return true if the event should be handled: its id is new, or it has none
+     */
+    public boolean claim(String listener, String eventId) {
+        Scope scope = scope(listener);
+        if (eventId == null) {
+            scope.untracked().increment();
+            return true;
+        }
+        if (!seen.add(fingerprint(scope.seed(), eventId))) {
+            scope.duplicate().increment();
+            return false;
+        }
+        if (redisTemplate != null && !claimInRedis(listener, eventId)) {
+            scope.duplicate().increment();
+            return false;
+        }
+        scope.unique().increment();
+        return true;
+    }
+
+    /**
+     * Claims the events of a batch for a listener, with one Redis round trip for all of them.
+     *
+     * @param listener the listener's event category
+     * @param eventIds the events' ids (elements may be null)
+     * @return for each id, whether the event should be handled; duplicates within the batch are recognized too
+     */
+    public boolean[] claim(String listener, List<String> eventIds) {
+        Scope scope = scope(listener);
+        boolean[] claimed = new boolean[eventIds.size()];
+        List<Integer> pending = new ArrayList<>();
+        long untracked = 0;
+        long duplicates = 0;
+        for (int i = 0; i < claimed.length; i++) {
+            String eventId = eventIds.get(i);
+            if (eventId == null) {
+                untracked++;
+                claimed[i] = true;
+            } else if (!seen.add(fingerprint(scope.seed(), eventId))) {
+                duplicates++;
+            } else if (redisTemplate != null) {
+                pending.add(i);
+            } else {
+                claimed[i] = true;
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            List<Object> results = claimInRedis(listener, eventIds, pending);
+            for (int j = 0; j < pending.size(); j++) {
+                if (results == null || !Boolean.FALSE.equals(results.get(j))) {
+                    claimed[pending.get(j)] = true;
+                } else {
+                    duplicates++;
+                }
+            }
+        }
+
+        scope.untracked().increment(untracked);
+        scope.duplicate().increment(duplicates);
+        scope.unique().increment(claimed.length - untracked - duplicates);
+        return claimed;
+    }
+
+    /**
+     * Gives up a listener's claim on an event that could not be handled, so a redelivery is handled again.
+     *
+     * @param listener the listener's event category
+     * @param eventId  the event's id (may be null)
+     */
+    public void release(String listener, String eventId) {
+        if (eventId == null) {
+            return;
+        }
+        seen.remove(fingerprint(scope(listener).seed(), eventId));
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.delete(redisKey(listener, eventId));
+            } catch (RuntimeException e) {
+                redisErrors.increment();
+                log.warn("Could not release {} event {} in Redis: {}", listener, eventId,
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+
+    /**
+     * Claims an id in Redis.
+     *
+     * @param listener the listener's event category
+     * @param eventId  the event's id
+     * @return false if another claim holds the id; true if claimed, or if Redis failed
+     */
+    private boolean claimInRedis(String listener, String eventId) {
+        try {
+            return !Boolean.FALSE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(redisKey(listener, eventId), "1", window));
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.warn("Could not claim {} event {} in Redis, handling it: {}", listener, eventId,
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Claims ids in Redis in one pipeline.
+     *
+     * @param listener the listener's event category
+     * @param eventIds the batch's ids
+     * @param pending  the indexes of the ids to claim
+     * @return per pending id, whether it was claimed; null if Redis failed
+     */
+    private List<Object> claimInRedis(String listener, List<String> eventIds, List<Integer> pending) {
+        Expiration expiration = Expiration.from(window);
+        try {
+            return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i : pending) {
+                    byte[] key = redisKey(listener, eventIds.get(i)).getBytes(StandardCharsets.UTF_8);
+                    connection.stringCommands().set(key, CLAIMED, expiration,
+                            RedisStringCommands.SetOption.ifAbsent());
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.warn("Could not claim {} {} events in Redis, handling them: {}", pending.size(), listener,
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            return null;
+        }
+    }
+
+    private String redisKey(String listener, String eventId) {
+        return redisKeyPrefix + listener + ":" + eventId;
+    }
+
+    /**
+     * Returns the hash seed and outcome counters of a listener.
+     *
+     * @param listener the listener's event category
+     * @return the listener's scope
+     */
+    private Scope scope(String listener) {
+        Scope scope = scopes.get(listener);
+        if (scope != null) {
+            return scope;
+        }
+        return scopes.computeIfAbsent(listener, name -> new Scope(fingerprint(K2, name),
+                outcomeCounter(name, "unique"), outcomeCounter(name, "duplicate"), outcomeCounter(name, "untracked")));
+    }
+
+    private Counter outcomeCounter(String listener, String outcome) {
+        return Counter.builder("kafka.consumer.dedup.events")
+                .description("Events checked for de-duplication")
+                .tag("listener", listener)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hashes an id to 64 bits, four characters per multiplication, seeded per listener so each listener claims ids
+     * on its own.
+     *
+     * @param seed    the listener's seed
+     * @param eventId the id
+     * @return the fingerprint
+     */
+    static long fingerprint(long seed, String eventId) {
+        long h = seed;
+        int length = eventId.length();
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long block = eventId.charAt(i) | (long) eventId.charAt(i + 1) << 16
+                    | (long) eventId.charAt(i + 2) << 32 | (long) eventId.charAt(i + 3) << 48;
+            h = Long.rotateLeft(h ^ block * K1, 31) * K2;
+        }
+        for (; i < length; i++) {
+            h = (h ^ eventId.charAt(i)) * K1;
+        }
+        h ^= length;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * A listener's hash seed and outcome counters.
+     */
+    private record Scope(long seed, Counter unique, Counter duplicate, Counter untracked) {
+    }
+}
@@ -0,0 +1,257 @@
+package com.solar.monitoring.system.kafka.dedup;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers 64-bit fingerprints for a time window, in memory fixed when the set is created.
+ *
+ * <p>Fingerprints are held in two generations of open-addressing tables of primitive longs (linear probing, no
+ * per-entry objects): the current generation, which takes new fingerprints, and the previous one. The current
+ * generation becomes the previous one once it is older than the window, so a fingerprint is remembered for at least
+ * one window and about two at most; the age is checked every 64 additions rather than on each. A generation that
+ * fills up with {@code capacity} fingerprints within a window rotates early instead of growing, shortening how long
+ * fingerprints are remembered; {@link #getEarlyRotations()} counts those. Each generation's table has
+ * {@code capacity / 0.75} slots of 8 bytes.
+ *
+ * <p>Large sets are split into segments by the fingerprint's high bits, each with its own lock and generations, so
+ * concurrent consumers rarely wait for each other. Thread-safe.
+ */
+public class RotatingFingerprintSet {
+
+    private static final double LOAD_FACTOR = 0.75;
+    private static final int SEGMENT_BITS = 4;
+    private static final int MIN_SEGMENT_CAPACITY = 1024;
+    private static final int CLOCK_CHECK_INTERVAL = 64;
+    private static final long EMPTY = 0L;
+
+    private final Segment[] segments;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private final LongAdder earlyRotations = new LongAdder();
+
+    /**
+     * Creates a set on the system's monotonic clock.
+     *
+     * @param capacity fingerprints each generation holds, i.e. remembered per window before rotating early
+     * @param window   how long a generation takes fingerprints
+     */
+    public RotatingFingerprintSet(int capacity, Duration window) {
+        this(capacity, window, System::nanoTime);
+    }
+
+    /**
+     * Creates a set.
+     *
+     * @param capacity  fingerprints each generation holds, i.e. remembered per window before rotating early
+     * @param window    how long a generation takes fingerprints
+     * @param nanoClock monotonic time in nanoseconds
+     */
+    public RotatingFingerprintSet(int capacity, Duration window, LongSupplier nanoClock) {
+        if (capacity < 1 || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Capacity and window must be positive, were " + capacity
+                    + " and " + window);
+        }
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+
+        int segmentCount = capacity >= MIN_SEGMENT_CAPACITY << SEGMENT_BITS ? 1 << SEGMENT_BITS : 1;
+        int segmentCapacity = (capacity + segmentCount - 1) / segmentCount;
+        long now = nanoClock.getAsLong();
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity, now);
+        }
+    }
+
+    /**
+     * Adds a fingerprint unless it is already remembered.
+     *
+     * @param fingerprint the fingerprint
+     * @return true if it was added, false if it was already remembered
+     */
+    public boolean add(long fingerprint) {
+        return segmentOf(fingerprint).add(normalize(fingerprint));
+    }
+
+    /**
+     * Forgets a fingerprint, so adding it again succeeds.
+     *
+     * @param fingerprint the fingerprint
+     * @return true if it was remembered
+     */
+    public boolean remove(long fingerprint) {
+        return segmentOf(fingerprint).remove(normalize(fingerprint));
+    }
+
+    /**
+     * Counts the fingerprints remembered across both generations.
+     *
+     * @return the number of fingerprints
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the memory taken by the tables, which does not change after creation.
+     *
+     * @return the table size in bytes
+     */
+    public long memoryBytes() {
+        long slots = 0;
+        for (Segment segment : segments) {
+            slots += 2L * segment.length;
+        }
+        return slots * Long.BYTES;
+    }
+
+    /**
+     * Counts the generations rotated because they filled up before the window passed.
+     *
+     * @return the number of early rotations
+     */
+    public long getEarlyRotations() {
+        return earlyRotations.sum();
+    }
+
+    private Segment segmentOf(long fingerprint) {
+        return segments[segments.length == 1 ? 0 : (int) (fingerprint >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    private static long normalize(long fingerprint) {
+        return fingerprint == EMPTY ? 1L : fingerprint;
+    }
+
+    /**
+     * The two generations of one range of fingerprints.
+     */
+    private final class Segment {
+
+        private final int capacity;
+        private final int length;
+        private long[] current;
+        private long[] previous;
+        private int currentSize;
+        private int previousSize;
+        private long generationStart;
+        private int untilClockCheck;
+
+        Segment(int capacity, long now) {
+            this.capacity = capacity;
+            this.length = (int) Math.ceil(capacity / LOAD_FACTOR) + 1;
+            this.current = new long[length];
+            this.previous = new long[length];
+            this.generationStart = now;
+        }
+
+        synchronized boolean add(long fingerprint) {
+            if (--untilClockCheck <= 0) {
+                untilClockCheck = CLOCK_CHECK_INTERVAL;
+                long now = nanoClock.getAsLong();
+                long age = now - generationStart;
+                if (age >= 2 * windowNanos) {
+                    clear(now);
+                } else if (age >= windowNanos) {
+                    rotate(now);
+                }
+            }
+
+            if (indexOf(current, fingerprint) >= 0 || indexOf(previous, fingerprint) >= 0) {
+                return false;
+            }
+            if (currentSize == capacity) {
+                rotate(nanoClock.getAsLong());
+                earlyRotations.increment();
+            }
+            int i = home(fingerprint);
+            while (current[i] != EMPTY) {
+                i = next(i);
+            }
+            current[i] = fingerprint;
+            currentSize++;
+            return true;
+        }
+
+        synchronized boolean remove(long fingerprint) {
+            int i = indexOf(current, fingerprint);
+            if (i >= 0) {
+                delete(current, i);
+                currentSize--;
+                return true;
+            }
+            i = indexOf(previous, fingerprint);
+            if (i >= 0) {
+                delete(previous, i);
+                previousSize--;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized int size() {
+            return currentSize + previousSize;
+        }
+
+        /**
+         * Makes the current generation the previous one, reusing the previous table for the new current one.
+         */
+        private void rotate(long now) {
+            long[] table = previous;
+            Arrays.fill(table, EMPTY);
+            previous = current;
+            previousSize = currentSize;
+            current = table;
+            currentSize = 0;
+            generationStart = now;
+        }
+
+        private void clear(long now) {
+            Arrays.fill(current, EMPTY);
+            Arrays.fill(previous, EMPTY);
+            currentSize = 0;
+            previousSize = 0;
+            generationStart = now;
+        }
+
+        private int indexOf(long[] table, long fingerprint) {
+            for (int i = home(fingerprint); table[i] != EMPTY; i = next(i)) {
+                if (table[i] == fingerprint) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Empties a slot, moving later entries of its probe run back so lookups need no tombstones.
+         */
+        private void delete(long[] table, int hole) {
+            for (int i = next(hole); table[i] != EMPTY; i = next(i)) {
+                if (distance(home(table[i]), i) >= distance(hole, i)) {
+                    table[hole] = table[i];
+                    hole = i;
+                }
+            }
+            table[hole] = EMPTY;
+        }
+
+        private int home(long fingerprint) {
+            return (int) (((fingerprint & 0xFFFFFFFFL) * length) >>> 32);
+        }
+
+        private int next(int i) {
+            return i + 1 == length ? 0 : i + 1;
+        }
+
+        private int distance(int from, int to) {
+            return to >= from ? to - from : to - from + length;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.solar.monitoring.system.kafka.dto;
+
+import com.solar.monitoring.system.kafka.streams.EnergyRollup;
+import com.solar.monitoring.system.kafka.streams.RollupWindow;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnergyRollupDto {
+    private String machineId;
+    private RollupWindow window;
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+    private long sampleCount;
+    private double minPower;
+    private double maxPower;
+    private double avgPower;
+    private double energyKwh;
+
+    /**
+     * Creates the published form of a window's aggregate.
+     *
+     * @param machineId   the machine identifier
+     * @param window      the kind of window
+     * @param startMillis the window start in epoch millis, inclusive
+     * @param endMillis   the window end in epoch millis, exclusive
+     * @param rollup      the window's aggregate
+     * @return the rollup, with window bounds in UTC as the event timestamps are read
+     */
+    public static EnergyRollupDto of(String machineId, RollupWindow window, long startMillis, long endMillis,
+                                     EnergyRollup rollup) {
+        return EnergyRollupDto.builder()
+                .machineId(machineId)
+                .window(window)
+                .windowStart(LocalDateTime.ofInstant(Instant.ofEpochMilli(startMillis), ZoneOffset.UTC))
+                .windowEnd(LocalDateTime.ofInstant(Instant.ofEpochMilli(endMillis), ZoneOffset.UTC))
+                .sampleCount(rollup.getSampleCount())
+                .minPower(rollup.getMinPower())
+                .maxPower(rollup.getMaxPower())
+                .avgPower(rollup.getAvgPower())
+                .energyKwh(rollup.getEnergyKwh())
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.solar.monitoring.system.kafka.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublishResultDto {
+    private String eventId;
+    private String machineId;
+    private boolean success;
+    private Integer partition;
+    private Long offset;
+    private String error;
+
+    /**
+     * Creates a result for an event the brokers acknowledged.
+     *
+     * @param eventId   the eventId assigned to the published SolarEvent
+     * @param machineId the machine identifier of the event
+     * @param partition the partition the event was written to
+     * @param offset    the offset of the event in its partition
+     * @return a successful result
+     */
+    public static PublishResultDto success(String eventId, String machineId, int partition, long offset) {
+        return PublishResultDto.builder()
+                .eventId(eventId)
+                .machineId(machineId)
+                .success(true)
+                .partition(partition)
+                .offset(offset)
+                .build();
+    }
+
+    /**
+     * Creates a result for an event that was not delivered.
+     *
+     * @param eventId   the eventId assigned to the SolarEvent (null if it was never built)
+     * @param machineId the machine identifier of the event (may be null if the event carried none)
+     * @param error     a short description of the failure
+     * @return a failed result
+     */
+    public static PublishResultDto failure(String eventId, String machineId, String error) {
+        return PublishResultDto.builder()
+                .eventId(eventId)
+                .machineId(machineId)
+                .success(false)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.solar.monitoring.system.kafka.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayResultDto {
+    private String deadLetterTopic;
+    private long replayed;
+    private long remaining;
+
+    /**
+     * Creates the result of a replay.
+     *
+     * @param deadLetterTopic the dead-letter topic the records were read from
+     * @param replayed        the records re-published to their original topic
+     * @param remaining       the records left in the dead-letter topic when the replay started that were not replayed
+     * @return the result
+     */
+    public static ReplayResultDto of(String deadLetterTopic, long replayed, long remaining) {
+        return ReplayResultDto.builder()
+                .deadLetterTopic(deadLetterTopic)
+                .replayed(replayed)
+                .remaining(remaining)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.solar.monitoring.system.kafka.executor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks on a fixed set of single-threaded stripes, choosing the stripe from a key.
+ *
+ * <p>Tasks with the same key always run on the same stripe, one after the other in submission order, while tasks
+ * with keys on different stripes run in parallel. The stripe count, {@code solar.kafka.consumer.keyed.stripes},
+ * bounds the parallelism; it can be far larger than the partition count since blocked stripe threads cost no CPU.
+ * Queues are unbounded: the keyed listeners bound them by pausing the consumer until a poll is fully handled.
+ *
+ * <p>Publishes {@code kafka.consumer.keyed.queued}, the tasks waiting across all stripes.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "solar.kafka.consumer.keyed.enabled", havingValue = "true")
+public class KeyedExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor[] stripes;
+    private final Duration shutdownTimeout;
+
+    /**
+     * Creates the stripes and their threads.
+     *
+     * @param meterRegistry   registry the queue gauge is bound to
+     * @param stripeCount     number of stripes, each with its own thread
+     * @param shutdownTimeout how long shutdown waits for queued tasks
+     */
+    public KeyedExecutor(MeterRegistry meterRegistry,
+                         @Value("${solar.kafka.consumer.keyed.stripes:64}") int stripeCount,
+                         @Value("${solar.kafka.consumer.keyed.shutdown-timeout:PT10S}") Duration shutdownTimeout) {
+        if (stripeCount < 1) {
+            throw new IllegalStateException("solar.kafka.consumer.keyed.stripes must be positive, was " + stripeCount);
+        }
+        this.shutdownTimeout = shutdownTimeout;
+        this.stripes = new ThreadPoolExecutor[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            String name = "keyed-" + i;
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    task -> {
+                        Thread thread = new Thread(task, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+
+        Gauge.builder("kafka.consumer.keyed.queued", this, KeyedExecutor::queuedTasks)
+                .description("Keyed listener tasks waiting for their stripe")
+                .register(meterRegistry);
+        log.info("Keyed execution runs {} stripes", stripeCount);
+    }
+
+    /**
+     * Runs a task after every task previously submitted with a key on the same stripe.
+     *
+     * @param key  the ordering key; null keys share one stripe
+     * @param task the task
+     * @throws java.util.concurrent.RejectedExecutionException if the executor is shut down
+     */
+    public void execute(String key, Runnable task) {
+        stripes[stripeOf(key)].execute(task);
+    }
+
+    /**
+     * Stops accepting tasks and waits up to the shutdown timeout for queued ones.
+     *
+     * Records whose tasks did not run were not acknowledged, so they are delivered again after a restart.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdown();
+        }
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        for (ThreadPoolExecutor stripe : stripes) {
+            if (!stripe.awaitTermination(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+                log.warn("Keyed execution stopped with {} tasks queued", stripe.shutdownNow().size());
+            }
+        }
+    }
+
+    /**
+     * Maps a key to its stripe.
+     *
+     * @param key the ordering key (may be null)
+     * @return the stripe index
+     */
+    private int stripeOf(String key) {
+        if (key == null) {
+            return 0;
+        }
+        return Math.floorMod(key.hashCode(), stripes.length);
+    }
+
+    /**
+     * Counts the tasks waiting across all stripes.
+     *
+     * @return the number of queued tasks
+     */
+    private double queuedTasks() {
+        long queued = 0;
+        for (ThreadPoolExecutor stripe : stripes) {
+            queued += stripe.getQueue().size();
+        }
+        return queued;
+    }
+}
@@ -0,0 +1,225 @@
+package com.solar.monitoring.system.kafka.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.solar.monitoring.system.kafka.model.SolarEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.DOUBLE;
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.FALSE;
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.FLAG_CREATED_AT;
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.FLAG_DATA;
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.FLAG_TIMESTAMP;
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.FLAG_UUID_EVENT_ID;
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.JSON;
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.LONG;
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.MAGIC;
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.NULL;
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.STRING;
+import static com.solar.monitoring.system.kafka.serde.BinarySolarEventSerializer.TRUE;
+
+/**
+ * Deserializer reading {@link SolarEvent}s written by {@link BinarySolarEventSerializer}, resolving the writer
+ * schema by the id in front of each record.
+ *
+ * <p>A record that does not start with the magic byte (JSON always starts with a printable character) is handed
+ * to the JSON fallback, so topics written before producers switched to the binary format stay readable.
+ */
+public class BinarySolarEventDeserializer implements Deserializer<SolarEvent> {
+
+    private final ISchemaRegistry schemaRegistry;
+    private final Deserializer<SolarEvent> fallback;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates a deserializer.
+     *
+     * @param schemaRegistry resolves writer schemas
+     * @param fallback       reads records that are not in the binary format
+     */
+    public BinarySolarEventDeserializer(ISchemaRegistry schemaRegistry, Deserializer<SolarEvent> fallback) {
+        this(schemaRegistry, fallback, JacksonUtils.enhancedObjectMapper());
+    }
+
+    /**
+     * Creates a deserializer.
+     *
+     * @param schemaRegistry resolves writer schemas
+     * @param fallback       reads records that are not in the binary format
+     * @param objectMapper   reads {@code data} values that were written as JSON
+     */
+    public BinarySolarEventDeserializer(ISchemaRegistry schemaRegistry, Deserializer<SolarEvent> fallback,
+                                        ObjectMapper objectMapper) {
+        this.schemaRegistry = schemaRegistry;
+        this.fallback = fallback;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Configures the fallback deserializer.
+     *
+     * @param configs the consumer configuration
+     * @param isKey   whether this deserializes keys
+     */
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        fallback.configure(configs, isKey);
+    }
+
+    @Override
+    public SolarEvent deserialize(String topic, byte[] bytes) {
+        return deserialize(topic, null, bytes);
+    }
+
+    /**
+     * Decodes an event.
+     *
+     * @param topic   the record's topic
+     * @param headers the record's headers, passed to the fallback
+     * @param bytes   the record's value (may be null)
+     * @return the event; null for null
+     * @throws SerializationException if the schema id is unknown or the record is corrupt
+     */
+    @Override
+    public SolarEvent deserialize(String topic, Headers headers, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length == 0 || bytes[0] != MAGIC) {
+            return headers == null ? fallback.deserialize(topic, bytes) : fallback.deserialize(topic, headers, bytes);
+        }
+
+        WireInput in = new WireInput(bytes, 1);
+        try {
+            int schemaId = in.readVarInt();
+            SolarEventSchema schema = schemaRegistry.getSchema(schemaId);
+            if (schema == null) {
+                throw new SerializationException("Unknown SolarEvent schema id " + schemaId + " on topic " + topic);
+            }
+            return read(in, schema);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (RuntimeException | IOException e) {
+            throw new SerializationException("Corrupt binary SolarEvent on topic " + topic + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Closes the fallback deserializer.
+     */
+    @Override
+    public void close() {
+        fallback.close();
+    }
+
+    /**
+     * Reads the fields that follow the schema id.
+     *
+     * @param in     the record, positioned after the schema id
+     * @param schema the writer schema
+     * @return the event
+     * @throws IOException if a JSON-encoded data value cannot be read
+     */
+    private SolarEvent read(WireInput in, SolarEventSchema schema) throws IOException {
+        int flags = in.readByte();
+        SolarEvent event = new SolarEvent();
+        if ((flags & FLAG_UUID_EVENT_ID) != 0) {
+            event.setEventId(new UUID(in.readLong(), in.readLong()).toString());
+        } else {
+            event.setEventId(in.readString());
+        }
+        event.setEventType(in.readString());
+        event.setMachineId(in.readString());
+        event.setSource(in.readString());
+        if ((flags & FLAG_TIMESTAMP) != 0) {
+            event.setTimestamp(toLocalDateTime(in.readZigZagLong()));
+        }
+        if ((flags & FLAG_CREATED_AT) != 0) {
+            event.setCreatedAt(toLocalDateTime(in.readZigZagLong()));
+        }
+        if ((flags & FLAG_DATA) != 0) {
+            event.setData(readData(in, schema));
+        }
+        if (in.hasRemaining()) {
+            throw new SerializationException("Trailing bytes after SolarEvent " + event.getEventId());
+        }
+        return event;
+    }
+
+    /**
+     * Reads the telemetry fields of the schema and the remaining data entries.
+     *
+     * @param in     the record, positioned at the telemetry mask
+     * @param schema the writer schema
+     * @return the data, in wire order
+     * @throws IOException if a JSON-encoded value cannot be read
+     */
+    private Map<String, Object> readData(WireInput in, SolarEventSchema schema) throws IOException {
+        List<String> fields = schema.getTelemetryFields();
+        long mask = in.readVarLong();
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            if ((mask & (1L << i)) != 0) {
+                data.put(fields.get(i), in.readDouble());
+            }
+        }
+
+        int others = in.readVarInt();
+        for (int i = 0; i < others; i++) {
+            String key = in.readString();
+            data.put(key, readValue(in));
+        }
+        return data;
+    }
+
+    /**
+     * Reads a tagged data value.
+     *
+     * @param in the record, positioned at the tag
+     * @return the value; integral values that fit an int are read as Integer, as JSON reads them
+     * @throws IOException if a JSON-encoded value cannot be read
+     */
+    private Object readValue(WireInput in) throws IOException {
+        int tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case DOUBLE:
+                return in.readDouble();
+            case LONG:
+                long value = in.readZigZagLong();
+                return value == (int) value ? Integer.valueOf((int) value) : Long.valueOf(value);
+            case STRING:
+                return in.readString();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case JSON:
+                return objectMapper.readValue(in.readBytes(), Object.class);
+            default:
+                throw new SerializationException("Unknown data value tag " + tag);
+        }
+    }
+
+    /**
+     * Converts UTC epoch millis to a LocalDateTime.
+     *
+     * @param epochMillis milliseconds since the epoch
+     * @return the corresponding LocalDateTime in UTC
+     */
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,226 @@
+package com.solar.monitoring.system.kafka.serde;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.solar.monitoring.system.kafka.model.SolarEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Serializer writing {@link SolarEvent}s in a compact, schema-based binary layout instead of JSON.
+ *
+ * <p>Layout:
+ * <ul>
+ *   <li>magic byte {@code 0x00}, then the varint id of the writer schema in the {@link ISchemaRegistry}</li>
+ *   <li>a flags byte telling which of eventId-as-UUID, timestamp, createdAt and data are present</li>
+ *   <li>eventId as 16 bytes when it is a canonical UUID, otherwise as a string; then eventType, machineId
+ *       and source as strings</li>
+ *   <li>timestamp and createdAt as zigzag varint epoch millis, read as UTC</li>
+ *   <li>data: a varint mask of the schema's telemetry fields present as numbers, their values as 8-byte doubles
+ *       in schema order, then a varint count of the remaining entries, each a key string and a tagged value</li>
+ * </ul>
+ * Tagged values are null, 8-byte double (Double, Float), zigzag varint (Long, Integer, Short, Byte), string,
+ * boolean, or the JSON bytes of anything else. There are no field names or type headers on the wire.
+ *
+ * <p>Compared with the JSON path, timestamps are truncated to milliseconds and telemetry values are read back
+ * as Doubles; JSON reads {@code 5} as an Integer.
+ */
+public class BinarySolarEventSerializer implements Serializer<SolarEvent> {
+
+    static final byte MAGIC = 0x00;
+
+    static final int FLAG_UUID_EVENT_ID = 1;
+    static final int FLAG_TIMESTAMP = 1 << 1;
+    static final int FLAG_CREATED_AT = 1 << 2;
+    static final int FLAG_DATA = 1 << 3;
+
+    static final byte NULL = 0;
+    static final byte DOUBLE = 1;
+    static final byte LONG = 2;
+    static final byte STRING = 3;
+    static final byte TRUE = 4;
+    static final byte FALSE = 5;
+    static final byte JSON = 6;
+
+    private static final int UUID_LENGTH = 36;
+
+    private final ISchemaRegistry schemaRegistry;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates a serializer writing with the registry's latest schema.
+     *
+     * @param schemaRegistry resolves the writer schema
+     */
+    public BinarySolarEventSerializer(ISchemaRegistry schemaRegistry) {
+        this(schemaRegistry, JacksonUtils.enhancedObjectMapper());
+    }
+
+    /**
+     * Creates a serializer writing with the registry's latest schema.
+     *
+     * @param schemaRegistry resolves the writer schema
+     * @param objectMapper   writes {@code data} values that have no binary encoding, such as nested maps
+     */
+    public BinarySolarEventSerializer(ISchemaRegistry schemaRegistry, ObjectMapper objectMapper) {
+        this.schemaRegistry = schemaRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Encodes an event.
+     *
+     * @param topic the record's topic
+     * @param event the event (may be null)
+     * @return the encoded bytes; null for null
+     * @throws SerializationException if a {@code data} value cannot be written as JSON
+     */
+    @Override
+    public byte[] serialize(String topic, SolarEvent event) {
+        if (event == null) {
+            return null;
+        }
+        SolarEventSchema schema = schemaRegistry.getLatestSchema();
+        UUID eventUuid = canonicalUuid(event.getEventId());
+        Map<String, Object> data = event.getData();
+
+        WireOutput out = new WireOutput(256);
+        out.writeByte(MAGIC);
+        out.writeVarLong(schema.getId());
+        out.writeByte((eventUuid != null ? FLAG_UUID_EVENT_ID : 0)
+                | (event.getTimestamp() != null ? FLAG_TIMESTAMP : 0)
+                | (event.getCreatedAt() != null ? FLAG_CREATED_AT : 0)
+                | (data != null ? FLAG_DATA : 0));
+
+        if (eventUuid != null) {
+            out.writeLong(eventUuid.getMostSignificantBits());
+            out.writeLong(eventUuid.getLeastSignificantBits());
+        } else {
+            out.writeString(event.getEventId());
+        }
+        out.writeString(event.getEventType());
+        out.writeString(event.getMachineId());
+        out.writeString(event.getSource());
+        if (event.getTimestamp() != null) {
+            out.writeZigZagLong(toEpochMillis(event.getTimestamp()));
+        }
+        if (event.getCreatedAt() != null) {
+            out.writeZigZagLong(toEpochMillis(event.getCreatedAt()));
+        }
+        if (data != null) {
+            writeData(out, schema, data);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the telemetry fields of the schema, then every other entry of {@code data}.
+     *
+     * @param out    the buffer
+     * @param schema the writer schema
+     * @param data   the event's data
+     */
+    private void writeData(WireOutput out, SolarEventSchema schema, Map<String, Object> data) {
+        List<String> fields = schema.getTelemetryFields();
+        long mask = 0;
+        int typed = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            if (isTelemetryValue(data.get(fields.get(i)))) {
+                mask |= 1L << i;
+                typed++;
+            }
+        }
+
+        out.writeVarLong(mask);
+        for (int i = 0; i < fields.size(); i++) {
+            if ((mask & (1L << i)) != 0) {
+                out.writeDouble(((Number) data.get(fields.get(i))).doubleValue());
+            }
+        }
+
+        out.writeVarLong(data.size() - typed);
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            int position = schema.positionOf(entry.getKey());
+            if (position < 0 || (mask & (1L << position)) == 0) {
+                out.writeString(entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Writes a tagged {@code data} value.
+     *
+     * @param out   the buffer
+     * @param value the value (may be null)
+     */
+    private void writeValue(WireOutput out, Object value) {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            out.writeByte(LONG);
+            out.writeZigZagLong(((Number) value).longValue());
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            out.writeString(s);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(b ? TRUE : FALSE);
+        } else {
+            try {
+                out.writeByte(JSON);
+                out.writeBytes(objectMapper.writeValueAsBytes(value));
+            } catch (JsonProcessingException e) {
+                throw new SerializationException("Cannot write data value of type " + value.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a value is written as a typed telemetry field.
+     *
+     * @param value the {@code data} value of a telemetry key
+     * @return true for Double, Float and Integer values
+     */
+    private static boolean isTelemetryValue(Object value) {
+        return value instanceof Double || value instanceof Float || value instanceof Integer;
+    }
+
+    /**
+     * Parses an eventId that is a canonical, lower-case UUID, as {@link UUID#toString()} writes it.
+     *
+     * @param eventId the eventId (may be null)
+     * @return the UUID, or null if the eventId would not read back identically from 16 bytes
+     */
+    private static UUID canonicalUuid(String eventId) {
+        if (eventId == null || eventId.length() != UUID_LENGTH) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(eventId);
+            return uuid.toString().equals(eventId) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts a LocalDateTime, read as UTC, to epoch millis.
+     *
+     * @param dateTime the date-time
+     * @return milliseconds since the epoch
+     */
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,32 @@
+package com.solar.monitoring.system.kafka.serde;
+
+import java.util.List;
+
+/**
+ * Resolves the schema ids written in front of binary SolarEvent records.
+ */
+public interface ISchemaRegistry {
+
+    /**
+     * Registers a schema with the given telemetry fields, or returns the registered schema that already has them.
+     *
+     * @param telemetryFields the typed {@code data} keys, in wire order
+     * @return the schema, with its id
+     */
+    SolarEventSchema register(List<String> telemetryFields);
+
+    /**
+     * Looks up a schema by id.
+     *
+     * @param id the schema id read from a record
+     * @return the schema, or null if the id is unknown
+     */
+    SolarEventSchema getSchema(int id);
+
+    /**
+     * Returns the schema new records are written with.
+     *
+     * @return the schema with the highest id
+     */
+    SolarEventSchema getLatestSchema();
+}
@@ -0,0 +1,82 @@
+package com.solar.monitoring.system.kafka.serde;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process schema registry, a stand-in for an external one such as Confluent Schema Registry.
+ *
+ * <p>It starts with the built-in schemas, so producers and consumers of the same build agree on every id without a
+ * registry service. A schema registered at runtime is only known to this process; a new layout meant for other
+ * services must be added as a built-in schema and rolled out to consumers before producers.
+ */
+@Slf4j
+@Component
+public class LocalSchemaRegistry implements ISchemaRegistry {
+
+    private final Map<Integer, SolarEventSchema> schemas = new ConcurrentHashMap<>();
+    private volatile SolarEventSchema latest;
+
+    /**
+     * Creates a registry holding the built-in schemas.
+     */
+    public LocalSchemaRegistry() {
+        add(SolarEventSchema.TELEMETRY_V1);
+    }
+
+    /**
+     * Registers a schema with the given telemetry fields, or returns the registered schema that already has them.
+     *
+     * @param telemetryFields the typed {@code data} keys, in wire order
+     * @return the schema, with its id
+     */
+    @Override
+    public synchronized SolarEventSchema register(List<String> telemetryFields) {
+        for (SolarEventSchema schema : schemas.values()) {
+            if (schema.getTelemetryFields().equals(telemetryFields)) {
+                return schema;
+            }
+        }
+        SolarEventSchema schema = new SolarEventSchema(latest.getId() + 1, telemetryFields);
+        add(schema);
+        log.info("Registered {}", schema);
+        return schema;
+    }
+
+    /**
+     * Looks up a schema by id.
+     *
+     * @param id the schema id read from a record
+     * @return the schema, or null if the id is unknown
+     */
+    @Override
+    public SolarEventSchema getSchema(int id) {
+        return schemas.get(id);
+    }
+
+    /**
+     * Returns the schema new records are written with.
+     *
+     * @return the schema with the highest id
+     */
+    @Override
+    public SolarEventSchema getLatestSchema() {
+        return latest;
+    }
+
+    /**
+     * Adds a schema and makes it the latest one if its id is the highest.
+     *
+     * @param schema the schema
+     */
+    private void add(SolarEventSchema schema) {
+        schemas.put(schema.getId(), schema);
+        if (latest == null || schema.getId() > latest.getId()) {
+            latest = schema;
+        }
+    }
+}
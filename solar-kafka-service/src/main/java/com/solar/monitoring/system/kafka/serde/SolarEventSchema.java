@@ -0,0 +1,85 @@
+package com.solar.monitoring.system.kafka.serde;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A version of the binary {@link com.solar.monitoring.system.kafka.model.SolarEvent} layout: the {@code data}
+ * entries that are written as typed telemetry fields, in wire order.
+ *
+ * <p>Telemetry fields hold numbers and are written as 8-byte doubles; every other {@code data} entry is written
+ * as a tagged key/value pair, see {@link BinarySolarEventSerializer}.
+ */
+public final class SolarEventSchema {
+
+    /**
+     * Maximum number of telemetry fields, as their presence is written as a 64-bit mask.
+     */
+    public static final int MAX_TELEMETRY_FIELDS = 64;
+
+    /**
+     * The built-in schema, covering the realtime metrics of a machine.
+     */
+    public static final SolarEventSchema TELEMETRY_V1 = new SolarEventSchema(1,
+            List.of("powerOutput", "voltage", "current", "temperature", "efficiency"));
+
+    private final int id;
+    private final List<String> telemetryFields;
+    private final Map<String, Integer> positions;
+
+    /**
+     * Creates a schema.
+     *
+     * @param id              the id written in front of every record
+     * @param telemetryFields the typed {@code data} keys, in wire order
+     * @throws IllegalArgumentException if the id is not positive, or the fields are too many or repeated
+     */
+    public SolarEventSchema(int id, List<String> telemetryFields) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Schema id must be positive: " + id);
+        }
+        if (telemetryFields.size() > MAX_TELEMETRY_FIELDS
+                || new HashSet<>(telemetryFields).size() != telemetryFields.size()) {
+            throw new IllegalArgumentException("Telemetry fields must be at most " + MAX_TELEMETRY_FIELDS
+                    + " distinct keys: " + telemetryFields);
+        }
+        this.id = id;
+        this.telemetryFields = List.copyOf(telemetryFields);
+        this.positions = new HashMap<>();
+        for (int i = 0; i < this.telemetryFields.size(); i++) {
+            positions.put(this.telemetryFields.get(i), i);
+        }
+    }
+
+    /**
+     * @return the id written in front of every record
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return the typed {@code data} keys, in wire order
+     */
+    public List<String> getTelemetryFields() {
+        return telemetryFields;
+    }
+
+    /**
+     * Returns the wire position of a typed {@code data} key.
+     *
+     * @param key the {@code data} key
+     * @return its position, or -1 if the key is not a telemetry field of this schema
+     */
+    public int positionOf(String key) {
+        Integer position = positions.get(key);
+        return position == null ? -1 : position;
+    }
+
+    @Override
+    public String toString() {
+        return "SolarEventSchema{id=" + id + ", telemetryFields=" + telemetryFields + "}";
+    }
+}
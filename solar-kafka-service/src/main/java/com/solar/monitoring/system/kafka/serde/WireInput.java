@@ -0,0 +1,90 @@
+package com.solar.monitoring.system.kafka.serde;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the encodings written by {@link WireOutput}.
+ *
+ * <p>Reading past the end of the record throws an {@link ArrayIndexOutOfBoundsException}, which the
+ * deserializer reports as a corrupt record.
+ */
+final class WireInput {
+
+    private final byte[] buffer;
+    private int position;
+
+    WireInput(byte[] buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    int readByte() {
+        return buffer[position++] & 0xFF;
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint at offset " + position);
+    }
+
+    int readVarInt() {
+        return Math.toIntExact(readVarLong());
+    }
+
+    long readZigZagLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    String readString() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        checkAvailable(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    byte[] readBytes() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        checkAvailable(length);
+        byte[] value = new byte[length];
+        System.arraycopy(buffer, position, value, 0, length);
+        position += length;
+        return value;
+    }
+
+    boolean hasRemaining() {
+        return position < buffer.length;
+    }
+
+    private void checkAvailable(int length) {
+        if (length > buffer.length - position) {
+            throw new ArrayIndexOutOfBoundsException("Length " + length + " exceeds the record at offset " + position);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.solar.monitoring.system.kafka.service;
+
+import com.solar.monitoring.system.kafka.dto.ReplayResultDto;
+
+public interface IDeadLetterService {
+    /**
+     * Re-publishes the records parked in a dead-letter topic to the topics they failed on, oldest first per
+     * partition, and remembers how far it got so the next replay continues after them.
+     *
+     * @param topic      the dead-letter topic, or the topic whose dead letters to replay
+     * @param maxRecords the most records to replay
+     * @return how many records were replayed and how many remain
+     */
+    ReplayResultDto replay(String topic, int maxRecords);
+}
@@ -0,0 +1,17 @@
+package com.solar.monitoring.system.kafka.service;
+
+import com.solar.monitoring.system.kafka.dto.EnergyRollupDto;
+import com.solar.monitoring.system.kafka.streams.RollupWindow;
+
+import java.util.List;
+
+public interface IEnergyRollupService {
+    /**
+     * Returns a machine's windows that are still open, read from this instance's rollup state stores.
+     *
+     * @param machineId the machine identifier
+     * @param window    the kind of window
+     * @return the open windows, oldest first; empty if the machine has no samples in them
+     */
+    List<EnergyRollupDto> getOpenWindows(String machineId, RollupWindow window);
+}
@@ -1,6 +1,10 @@
 package com.solar.monitoring.system.kafka.service;
 
 import com.solar.monitoring.system.kafka.model.SolarEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
 
 public interface IKafkaConsumerService {
     /**
@@ -22,4 +26,51 @@ void handleExternalEvent(SolarEvent event);
  * @param event the processed solar event carrying aggregated or transformed data and associated metadata
  */
 void handleDataProcessedEvent(SolarEvent event);
+
+    /**
+     * Handle a batch of externally sourced events, as delivered by one poll.
+     *
+     * Implementations should handle each record on its own, so one failing record does not fail the batch.
+     *
+     * @param records the records of the poll
+     */
+    void handleExternalEvents(List<ConsumerRecord<String, SolarEvent>> records);
+
+    /**
+     * Handle a batch of data-processed events, as delivered by one poll.
+     *
+     * Implementations should handle each record on its own, so one failing record does not fail the batch.
+     *
+     * @param records the records of the poll
+     */
+    void handleDataProcessedEvents(List<ConsumerRecord<String, SolarEvent>> records);
+
+    /**
+     * Handle an externally sourced event on a thread chosen by its machineId, acknowledging it once handled.
+     *
+     * Implementations must keep the events of one machine in order and acknowledge every record, including
+     * failed ones, so the partition's committed offset can move past it.
+     *
+     * @param record         the record
+     * @param acknowledgment acknowledges the record
+     */
+    void handleExternalEventKeyed(ConsumerRecord<String, SolarEvent> record, Acknowledgment acknowledgment);
+
+    /**
+     * Handle a data-processed event on a thread chosen by its machineId, acknowledging it once handled.
+     *
+     * @param record         the record
+     * @param acknowledgment acknowledges the record
+     * @see #handleExternalEventKeyed(ConsumerRecord, Acknowledgment)
+     */
+    void handleDataProcessedEventKeyed(ConsumerRecord<String, SolarEvent> record, Acknowledgment acknowledgment);
+
+    /**
+     * Handle an event parked in a dead-letter topic because it could not be handled.
+     *
+     * Implementations should only report the event; it stays in the dead-letter topic to be replayed.
+     *
+     * @param record the dead-letter record, whose headers name the original topic, the exception and the attempts
+     */
+    void handleDeadLetter(ConsumerRecord<String, SolarEvent> record);
 }
@@ -1,5 +1,10 @@
 package com.solar.monitoring.system.kafka.service;
 import com.solar.monitoring.system.kafka.dto.EventDto;
+import com.solar.monitoring.system.kafka.dto.PublishResultDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface IKafkaProducerService {
     /**
@@ -20,4 +25,25 @@ void publishEvent(String topic, EventDto event);
  * @param event the EventDto describing the processed data (must not be null)
  */
 void publishDataProcessedEvent(EventDto event);
+
+    /**
+     * Publish a collection of events to the given Kafka topic without waiting for the brokers.
+     *
+     * The returned future completes once every event has been acknowledged or has failed; it does not
+     * complete exceptionally for individual failures, which are reported in the event's result instead.
+     *
+     * @param topic  the Kafka topic name to publish the events to
+     * @param events the events to publish
+     * @return a future of one result per event, in the iteration order of {@code events}
+     */
+    CompletableFuture<List<PublishResultDto>> publishEventsAsync(String topic, Collection<EventDto> events);
+
+    /**
+     * Publish a collection of processed events to the "data-processed" topic without waiting for the brokers.
+     *
+     * @param events the processed events to publish
+     * @return a future of one result per event, in the iteration order of {@code events}
+     * @see #publishEventsAsync(String, Collection)
+     */
+    CompletableFuture<List<PublishResultDto>> publishEventsAsync(Collection<EventDto> events);
 }
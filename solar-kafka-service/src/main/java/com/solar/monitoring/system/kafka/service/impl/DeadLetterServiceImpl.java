@@ -0,0 +1,217 @@
+package com.solar.monitoring.system.kafka.service.impl;
+
+import com.solar.monitoring.system.kafka.config.KafkaConsumerConfig;
+import com.solar.monitoring.system.kafka.dto.ReplayResultDto;
+import com.solar.monitoring.system.kafka.exception.KafkaException;
+import com.solar.monitoring.system.kafka.service.IDeadLetterService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@Service
+public class DeadLetterServiceImpl implements IDeadLetterService {
+
+    /**
+     * Header naming the dead-letter topic a replayed record was read from.
+     */
+    public static final String REPLAYED_FROM_HEADER = "solar_replayed-from";
+
+    /**
+     * Prefixes of the headers describing a record's failure, which a replayed record starts without.
+     */
+    private static final String[] FAILURE_HEADER_PREFIXES = {KafkaHeaders.PREFIX + "original-",
+            KafkaHeaders.PREFIX + "exception-", KafkaHeaders.PREFIX + "key-exception-", KafkaHeaders.PREFIX + "dlt-",
+            "retry_topic-", SerializationUtils.DESERIALIZER_EXCEPTION_HEADER_PREFIX, REPLAYED_FROM_HEADER};
+
+    private final ConsumerFactory<String, byte[]> dltReplayConsumerFactory;
+    private final KafkaTemplate<String, Object> retryKafkaTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${solar.kafka.consumer.retry.replay.poll-timeout:5s}")
+    private Duration pollTimeout;
+
+    @Value("${solar.kafka.consumer.retry.replay.send-timeout:30s}")
+    private Duration sendTimeout;
+
+    /**
+     * Creates the replay service.
+     *
+     * @param dltReplayConsumerFactory creates the consumers reading the dead-letter topics as raw bytes
+     * @param retryKafkaTemplate       re-publishes the raw bytes to the original topics
+     * @param meterRegistry            registry the replay counter is bound to
+     */
+    public DeadLetterServiceImpl(ConsumerFactory<String, byte[]> dltReplayConsumerFactory,
+                                 KafkaTemplate<String, Object> retryKafkaTemplate, MeterRegistry meterRegistry) {
+        this.dltReplayConsumerFactory = dltReplayConsumerFactory;
+        this.retryKafkaTemplate = retryKafkaTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Replays dead letters with a consumer of the replay group assigned to every partition of the dead-letter topic.
+     *
+     * Reading starts at the group's committed offsets (the beginning for the first replay) and stops at the end
+     * offsets found when the replay started, or after {@code maxRecords}. Each record is published to the topic named
+     * by its {@code kafka_original-topic} header with its original key, value bytes and headers, without the
+     * failure headers, and with {@code solar_replayed-from}; the key picks the partition, as for the original record.
+     * The group's offsets are committed once every replayed record is acknowledged, so a replay that fails is
+     * repeated in full by the next one (at-least-once). Replays run one at a time and are counted as
+     * {@code kafka.consumer.dead.letters.replayed}, tagged with the original {@code topic}.
+     *
+     * @param topic      the dead-letter topic ({@code <topic>-dlt}), or the topic whose dead letters to replay
+     * @param maxRecords the most records to replay, at least 1
+     * @return how many records were replayed and how many of those present at the start remain
+     * @throws KafkaException if {@code maxRecords} is not positive, the dead-letter topic does not exist, or a record
+     *                        could not be re-published
+     */
+    @Override
+    public synchronized ReplayResultDto replay(String topic, int maxRecords) {
+        if (maxRecords < 1) {
+            throw new KafkaException("At least one record must be replayed, was " + maxRecords);
+        }
+        String suffix = KafkaConsumerConfig.DLT_SUFFIX;
+        String dltTopic = topic.endsWith(suffix) ? topic : topic + suffix;
+        String defaultTarget = dltTopic.substring(0, dltTopic.length() - suffix.length());
+
+        try (Consumer<String, byte[]> consumer = dltReplayConsumerFactory.createConsumer()) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(dltTopic, pollTimeout);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                throw new KafkaException("Dead-letter topic " + dltTopic + " does not exist");
+            }
+            List<TopicPartition> partitions = partitionInfos.stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions, pollTimeout);
+            Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                nextOffsets.put(partition, consumer.position(partition, pollTimeout));
+            }
+
+            List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>();
+            Map<String, Integer> replayedPerTopic = new HashMap<>();
+            while (sends.size() < maxRecords && !caughtUp(nextOffsets, endOffsets)) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(pollTimeout);
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (sends.size() == maxRecords || record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+                    ProducerRecord<String, Object> replay = toReplay(record, dltTopic, defaultTarget);
+                    sends.add(retryKafkaTemplate.send(replay));
+                    replayedPerTopic.merge(replay.topic(), 1, Integer::sum);
+                    nextOffsets.put(partition, record.offset() + 1);
+                }
+            }
+
+            awaitSends(dltTopic, sends);
+            Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+            nextOffsets.forEach((partition, offset) -> commits.put(partition, new OffsetAndMetadata(offset)));
+            consumer.commitSync(commits, pollTimeout);
+
+            replayedPerTopic.forEach((target, count) -> Counter.builder("kafka.consumer.dead.letters.replayed")
+                    .description("Dead letters re-published to their original topic")
+                    .tag("topic", target)
+                    .register(meterRegistry)
+                    .increment(count));
+            long remaining = partitions.stream()
+                    .mapToLong(partition -> Math.max(0, endOffsets.get(partition) - nextOffsets.get(partition)))
+                    .sum();
+            log.info("Replayed {} dead letters from {} to {}, {} remaining", sends.size(), dltTopic,
+                    replayedPerTopic.keySet(), remaining);
+            return ReplayResultDto.of(dltTopic, sends.size(), remaining);
+        } catch (org.apache.kafka.common.KafkaException e) {
+            throw new KafkaException("Failed to replay dead letters from " + dltTopic + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds the record re-publishing a dead letter.
+     *
+     * @param record        the dead letter
+     * @param dltTopic      the dead-letter topic
+     * @param defaultTarget the topic to publish to if the record does not name its original topic
+     * @return the record for the original topic
+     */
+    private ProducerRecord<String, Object> toReplay(ConsumerRecord<String, byte[]> record, String dltTopic,
+                                                    String defaultTarget) {
+        String target = null;
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (target == null && KafkaHeaders.ORIGINAL_TOPIC.equals(header.key())) {
+                target = new String(header.value(), StandardCharsets.UTF_8);
+            }
+            if (!isFailureHeader(header.key())) {
+                headers.add(header);
+            }
+        }
+        headers.add(REPLAYED_FROM_HEADER, dltTopic.getBytes(StandardCharsets.UTF_8));
+        return new ProducerRecord<>(target != null ? target : defaultTarget, null, record.key(), record.value(),
+                headers);
+    }
+
+    private static boolean isFailureHeader(String name) {
+        for (String prefix : FAILURE_HEADER_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean caughtUp(Map<TopicPartition, Long> nextOffsets, Map<TopicPartition, Long> endOffsets) {
+        return nextOffsets.entrySet().stream().allMatch(next -> next.getValue() >= endOffsets.get(next.getKey()));
+    }
+
+    /**
+     * Waits until the brokers acknowledged every replayed record.
+     *
+     * @param dltTopic the dead-letter topic, for the error message
+     * @param sends    the pending sends
+     * @throws KafkaException if a send failed or was not acknowledged within
+     *                        {@code solar.kafka.consumer.retry.replay.send-timeout}
+     */
+    private void awaitSends(String dltTopic, List<CompletableFuture<SendResult<String, Object>>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while replaying dead letters from " + dltTopic, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Failed to replay dead letters from " + dltTopic + ", none are marked replayed: "
+                    + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()), e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.solar.monitoring.system.kafka.service.impl;
+
+import com.solar.monitoring.system.kafka.dto.EnergyRollupDto;
+import com.solar.monitoring.system.kafka.exception.KafkaException;
+import com.solar.monitoring.system.kafka.service.IEnergyRollupService;
+import com.solar.monitoring.system.kafka.streams.EnergyRollup;
+import com.solar.monitoring.system.kafka.streams.EnergyRollupTopology;
+import com.solar.monitoring.system.kafka.streams.RollupWindow;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "solar.kafka.streams.enabled", havingValue = "true")
+public class EnergyRollupServiceImpl implements IEnergyRollupService {
+
+    private final StreamsBuilderFactoryBean energyRollupStreams;
+    private final EnergyRollupTopology energyRollupTopology;
+
+    /**
+     * Creates the rollup query service.
+     *
+     * @param energyRollupStreams  owns the Kafka Streams instance running the rollup topology
+     * @param energyRollupTopology the topology definition, for the window sizes
+     */
+    public EnergyRollupServiceImpl(StreamsBuilderFactoryBean energyRollupStreams,
+                                   EnergyRollupTopology energyRollupTopology) {
+        this.energyRollupStreams = energyRollupStreams;
+        this.energyRollupTopology = energyRollupTopology;
+    }
+
+    /**
+     * Reads the open windows of a machine with an interactive query of the window's state store.
+     *
+     * A window is open while the wall clock is before its end plus the grace period, which assumes event timestamps
+     * follow the wall clock; windows of replayed, older telemetry are only published to the rollup topic. Only the
+     * machines whose partitions this instance owns are held locally; with {@code solar.kafka.streams.application-server}
+     * set, asking for another instance's machine fails naming the owner.
+     *
+     * @param machineId the machine identifier
+     * @param window    the kind of window
+     * @return the open windows, oldest first
+     * @throws KafkaException if the stores cannot be queried right now, e.g. during a rebalance, or another instance
+     *                        owns the machine
+     */
+    @Override
+    public List<EnergyRollupDto> getOpenWindows(String machineId, RollupWindow window) {
+        KafkaStreams streams = energyRollupStreams.getKafkaStreams();
+        if (streams == null || streams.state() != KafkaStreams.State.RUNNING) {
+            throw new KafkaException("Energy rollups cannot be queried while the streams application is "
+                    + (streams == null ? "not started" : streams.state()));
+        }
+        checkOwner(streams, machineId, window);
+
+        long sizeMillis = energyRollupTopology.windowSize(window).toMillis();
+        Instant now = Instant.now();
+        Instant firstOpenStart = now.minusMillis(sizeMillis).minus(energyRollupTopology.getGrace()).plusMillis(1);
+
+        List<EnergyRollupDto> rollups = new ArrayList<>();
+        try {
+            ReadOnlyWindowStore<String, EnergyRollup> store = streams.store(
+                    StoreQueryParameters.fromNameAndType(window.getStoreName(), QueryableStoreTypes.windowStore()));
+            try (WindowStoreIterator<EnergyRollup> windows = store.fetch(machineId, firstOpenStart, now)) {
+                while (windows.hasNext()) {
+                    KeyValue<Long, EnergyRollup> entry = windows.next();
+                    rollups.add(EnergyRollupDto.of(machineId, window, entry.key, entry.key + sizeMillis, entry.value));
+                }
+            }
+        } catch (InvalidStateStoreException e) {
+            throw new KafkaException("Energy rollup store " + window.getStoreName() + " cannot be queried: "
+                    + e.getMessage(), e);
+        }
+        log.debug("Found {} open {} rollups for machine: {}", rollups.size(), window, machineId);
+        return rollups;
+    }
+
+    /**
+     * Fails if, per the streams metadata, another instance owns the machine's windows.
+     *
+     * @param streams   the running Kafka Streams instance
+     * @param machineId the machine identifier
+     * @param window    the kind of window
+     * @throws KafkaException if another instance owns the machine
+     */
+    private void checkOwner(KafkaStreams streams, String machineId, RollupWindow window) {
+        String applicationServer = energyRollupStreams.getStreamsConfiguration()
+                .getProperty(StreamsConfig.APPLICATION_SERVER_CONFIG);
+        if (applicationServer == null) {
+            return;
+        }
+        HostInfo owner = streams.queryMetadataForKey(window.getStoreName(), machineId, Serdes.String().serializer())
+                .activeHost();
+        if (!HostInfo.unavailable().equals(owner) && !HostInfo.buildFromEndpoint(applicationServer).equals(owner)) {
+            throw new KafkaException("Energy rollups of machine " + machineId + " are served by "
+                    + owner.host() + ":" + owner.port());
+        }
+    }
+}
@@ -1,38 +1,118 @@
 package com.solar.monitoring.system.kafka.service.impl;
+import com.solar.monitoring.system.kafka.dedup.EventDeduplicator;
+import com.solar.monitoring.system.kafka.executor.KeyedExecutor;
 import com.solar.monitoring.system.kafka.service.IKafkaConsumerService;
 import com.solar.monitoring.system.kafka.model.SolarEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
 @Slf4j
 @Service
 public class KafkaConsumerServiceImpl implements IKafkaConsumerService {
 
+    private static final String EXTERNAL = "external";
+    private static final String DATA_PROCESSED = "data-processed";
+
+    private static final String RETRY_ATTEMPTS = "${solar.kafka.consumer.retry.attempts:4}";
+    private static final String RETRY_DELAY = "${solar.kafka.consumer.retry.delay-ms:1000}";
+    private static final String RETRY_MULTIPLIER = "${solar.kafka.consumer.retry.multiplier:5}";
+    private static final String RETRY_MAX_DELAY = "${solar.kafka.consumer.retry.max-delay-ms:60000}";
+    private static final String RETRY_PARTITIONS = "${solar.kafka.consumer.retry.partitions:-1}";
+    private static final LogAccessor DESERIALIZATION_LOG = new LogAccessor(KafkaConsumerServiceImpl.class);
+
+    private final MeterRegistry meterRegistry;
+    private final KeyedExecutor keyedExecutor;
+    private final EventDeduplicator deduplicator;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+
+    /**
+     * Creates the consumer service.
+     *
+     * @param meterRegistry       registry the consumption meters are bound to
+     * @param keyedExecutor       runs the keyed listeners' work, present when
+     *                            {@code solar.kafka.consumer.keyed.enabled}
+     * @param deduplicator        recognizes redelivered events, present when
+     *                            {@code solar.kafka.consumer.dedup.enabled}
+     * @param deadLetterRecoverer publishes the records the batch and keyed listeners fail to handle to the
+     *                            dead-letter topics
+     */
+    public KafkaConsumerServiceImpl(MeterRegistry meterRegistry, Optional<KeyedExecutor> keyedExecutor,
+                                    Optional<EventDeduplicator> deduplicator,
+                                    DeadLetterPublishingRecoverer deadLetterRecoverer) {
+        this.meterRegistry = meterRegistry;
+        this.keyedExecutor = keyedExecutor.orElse(null);
+        this.deduplicator = deduplicator.orElse(null);
+        this.deadLetterRecoverer = deadLetterRecoverer;
+    }
+
     /**
      * Kafka listener that handles external solar events from the "external-solar-events" topic.
      *
      * This method is invoked for each incoming external SolarEvent; it records processing start,
      * performs event-specific handling (e.g., forwarding to processing services or persisting),
-     * and records successful completion. Exceptions are caught and logged by the method.
+     * and records successful completion. An event that fails is retried from the retry topics
+     * ({@code external-solar-events-retry-0}, ...) with exponential back-off, see {@code solar.kafka.consumer.retry},
+     * so the partition moves on meanwhile; after the last attempt it is parked in {@code external-solar-events-dlt}.
+     * Records that cannot be deserialized go to the dead-letter topic without retries.
+     * With {@code solar.kafka.consumer.dedup.enabled}, events already handled are skipped.
+     * It only runs when neither {@code solar.kafka.consumer.batch.enabled} nor {@code keyed.enabled} is true.
      *
      * @param event the incoming SolarEvent containing at least machineId and eventType
      */
-    @KafkaListener(topics = "external-solar-events", groupId = "solar-kafka-service-group")
+    @RetryableTopic(attempts = RETRY_ATTEMPTS, numPartitions = RETRY_PARTITIONS, kafkaTemplate = "retryKafkaTemplate",
+            backoff = @Backoff(delayExpression = RETRY_DELAY, multiplierExpression = RETRY_MULTIPLIER,
+                    maxDelayExpression = RETRY_MAX_DELAY),
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            dltStrategy = DltStrategy.FAIL_ON_ERROR, autoStartDltHandler = "true")
+    @KafkaListener(id = "external-solar-events", topics = "external-solar-events",
+            groupId = "solar-kafka-service-group",
+            autoStartup = "#{!${solar.kafka.consumer.batch.enabled:false} && !${solar.kafka.consumer.keyed.enabled:false}}")
     @Override
     public void handleExternalEvent(SolarEvent event) {
-        logEventProcessing("external", event.getMachineId());
+        if (isDuplicate(EXTERNAL, event)) {
+            return;
+        }
+        logEventProcessing(EXTERNAL, event.getMachineId());
 
         try {
-            // Process external event logic here
-            // Could forward to data processing service, store, etc.
+            processExternalEvent(event);
             log.info("Received external event: {} for machine: {}",
                     event.getEventType(), event.getMachineId());
 
-            logEventProcessed("external", event.getMachineId());
-        } catch (Exception e) {
-            log.error("Error processing external event for machine {}: {}",
-                    event.getMachineId(), e.getMessage(), e);
+            logEventProcessed(EXTERNAL, event.getMachineId());
+        } catch (RuntimeException e) {
+            release(EXTERNAL, event);
+            log.warn("Error processing external event for machine {}, to be retried: {}",
+                    event.getMachineId(), e.getMessage());
+            throw e;
         }
     }
 
@@ -41,27 +121,390 @@ public class KafkaConsumerServiceImpl implements IKafkaConsumerService {
      *
      * Processes a data-processed SolarEvent for the given machine (e.g., trigger notifications,
      * analytics, or other downstream handling). This method logs the start and successful
-     * completion of processing; any exceptions are caught and logged.
+     * completion of processing. Failed events are retried from the retry topics and then parked in
+     * {@code solar-data-processed-dlt}, as for {@link #handleExternalEvent}.
+     * With {@code solar.kafka.consumer.dedup.enabled}, events already handled are skipped.
+     * It only runs when neither {@code solar.kafka.consumer.batch.enabled} nor {@code keyed.enabled} is true.
      *
      * @param event the received SolarEvent containing at least the machineId and event details
      */
-    @KafkaListener(topics = "solar-data-processed", groupId = "solar-kafka-service-group")
+    @RetryableTopic(attempts = RETRY_ATTEMPTS, numPartitions = RETRY_PARTITIONS, kafkaTemplate = "retryKafkaTemplate",
+            backoff = @Backoff(delayExpression = RETRY_DELAY, multiplierExpression = RETRY_MULTIPLIER,
+                    maxDelayExpression = RETRY_MAX_DELAY),
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            dltStrategy = DltStrategy.FAIL_ON_ERROR, autoStartDltHandler = "true")
+    @KafkaListener(id = "solar-data-processed", topics = "solar-data-processed",
+            groupId = "solar-kafka-service-group",
+            autoStartup = "#{!${solar.kafka.consumer.batch.enabled:false} && !${solar.kafka.consumer.keyed.enabled:false}}")
     @Override
     public void handleDataProcessedEvent(SolarEvent event) {
-        logEventProcessing("data-processed", event.getMachineId());
+        if (isDuplicate(DATA_PROCESSED, event)) {
+            return;
+        }
+        logEventProcessing(DATA_PROCESSED, event.getMachineId());
 
         try {
-            // Handle data processed event
-            // Could trigger notifications, analytics, etc.
+            processDataProcessedEvent(event);
             log.info("Data processed event received for machine: {}", event.getMachineId());
 
-            logEventProcessed("data-processed", event.getMachineId());
-        } catch (Exception e) {
-            log.error("Error processing data-processed event for machine {}: {}",
-                    event.getMachineId(), e.getMessage(), e);
+            logEventProcessed(DATA_PROCESSED, event.getMachineId());
+        } catch (RuntimeException e) {
+            release(DATA_PROCESSED, event);
+            log.warn("Error processing data-processed event for machine {}, to be retried: {}",
+                    event.getMachineId(), e.getMessage());
+            throw e;
         }
     }
 
+    /**
+     * Receives the events parked in the dead-letter topics, after their last attempt failed or straight from the
+     * batch and keyed listeners. The records stay in the dead-letter topic until replayed through
+     * {@code POST /api/dead-letters/{topic}/replay}. It runs whichever listeners are enabled.
+     *
+     * Logs the event with its original topic, attempt count and exception, and counts it as
+     * {@code kafka.consumer.dead.letters}, tagged with the original {@code topic}. Dead letters that cannot be
+     * deserialized are logged by the container instead.
+     *
+     * @param record the dead-letter record, with the headers added by the dead-letter publishing
+     */
+    @DltHandler
+    @Override
+    public void handleDeadLetter(ConsumerRecord<String, SolarEvent> record) {
+        Headers headers = record.headers();
+        String topic = headerValue(headers, KafkaHeaders.ORIGINAL_TOPIC, record.topic());
+        Header nextAttempt = headers.lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS);
+        SolarEvent event = record.value();
+
+        Counter.builder("kafka.consumer.dead.letters")
+                .description("Events parked in a dead-letter topic")
+                .tag("topic", topic)
+                .register(meterRegistry)
+                .increment();
+        log.error("Event {} for machine {} from {} parked in {}-{}@{} after {} attempt(s): {}",
+                event != null ? event.getEventId() : null, event != null ? event.getMachineId() : record.key(),
+                topic, record.topic(), record.partition(), record.offset(),
+                nextAttempt != null && nextAttempt.value().length == Integer.BYTES
+                        ? ByteBuffer.wrap(nextAttempt.value()).getInt() - 1 : 1,
+                headerValue(headers, KafkaHeaders.EXCEPTION_MESSAGE, null));
+    }
+
+    /**
+     * Reads the first header of a name as text. The original-record and exception headers are added on the first hop
+     * to a retry topic and kept on later hops, so the first one describes the original record.
+     *
+     * @param headers      the record's headers
+     * @param name         the header name
+     * @param defaultValue returned if the record has no such header
+     * @return the header value decoded as UTF-8
+     */
+    private static String headerValue(Headers headers, String name, String defaultValue) {
+        Iterator<Header> values = headers.headers(name).iterator();
+        return values.hasNext() ? new String(values.next().value(), StandardCharsets.UTF_8) : defaultValue;
+    }
+
+    /**
+     * Batch Kafka listener for the "external-solar-events" topic, receiving every record of a poll at once.
+     *
+     * It only runs when {@code solar.kafka.consumer.batch.enabled} is true and {@code keyed.enabled} is not.
+     *
+     * @param records the records of one poll, across the partitions assigned to this consumer
+     */
+    @KafkaListener(id = "external-solar-events-batch", topics = "external-solar-events",
+            groupId = "solar-kafka-service-group", containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "#{${solar.kafka.consumer.batch.enabled:false} && !${solar.kafka.consumer.keyed.enabled:false}}")
+    @Override
+    public void handleExternalEvents(List<ConsumerRecord<String, SolarEvent>> records) {
+        handleBatch(EXTERNAL, records, this::processExternalEvent);
+    }
+
+    /**
+     * Batch Kafka listener for the "solar-data-processed" topic, receiving every record of a poll at once.
+     *
+     * It only runs when {@code solar.kafka.consumer.batch.enabled} is true and {@code keyed.enabled} is not.
+     *
+     * @param records the records of one poll, across the partitions assigned to this consumer
+     */
+    @KafkaListener(id = "solar-data-processed-batch", topics = "solar-data-processed",
+            groupId = "solar-kafka-service-group", containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "#{${solar.kafka.consumer.batch.enabled:false} && !${solar.kafka.consumer.keyed.enabled:false}}")
+    @Override
+    public void handleDataProcessedEvents(List<ConsumerRecord<String, SolarEvent>> records) {
+        handleBatch(DATA_PROCESSED, records, this::processDataProcessedEvent);
+    }
+
+    /**
+     * Keyed Kafka listener for the "external-solar-events" topic: hands each record to the stripe of its machineId,
+     * so events of one machine are handled in order while other machines proceed in parallel.
+     *
+     * It only runs when {@code solar.kafka.consumer.keyed.enabled} is true.
+     *
+     * @param record         the record
+     * @param acknowledgment acknowledges the record once it is handled
+     */
+    @KafkaListener(id = "external-solar-events-keyed", topics = "external-solar-events",
+            groupId = "solar-kafka-service-group", containerFactory = "keyedKafkaListenerContainerFactory",
+            autoStartup = "${solar.kafka.consumer.keyed.enabled:false}")
+    @Override
+    public void handleExternalEventKeyed(ConsumerRecord<String, SolarEvent> record, Acknowledgment acknowledgment) {
+        dispatchKeyed(EXTERNAL, record, acknowledgment, this::processExternalEvent);
+    }
+
+    /**
+     * Keyed Kafka listener for the "solar-data-processed" topic, see {@link #handleExternalEventKeyed}.
+     *
+     * It only runs when {@code solar.kafka.consumer.keyed.enabled} is true.
+     *
+     * @param record         the record
+     * @param acknowledgment acknowledges the record once it is handled
+     */
+    @KafkaListener(id = "solar-data-processed-keyed", topics = "solar-data-processed",
+            groupId = "solar-kafka-service-group", containerFactory = "keyedKafkaListenerContainerFactory",
+            autoStartup = "${solar.kafka.consumer.keyed.enabled:false}")
+    @Override
+    public void handleDataProcessedEventKeyed(ConsumerRecord<String, SolarEvent> record,
+                                              Acknowledgment acknowledgment) {
+        dispatchKeyed(DATA_PROCESSED, record, acknowledgment, this::processDataProcessedEvent);
+    }
+
+    /**
+     * Handles an external event.
+     *
+     * @param event the external event
+     */
+    protected void processExternalEvent(SolarEvent event) {
+        // Process external event logic here
+        // Could forward to data processing service, store, etc.
+    }
+
+    /**
+     * Handles a data-processed event.
+     *
+     * @param event the data-processed event
+     */
+    protected void processDataProcessedEvent(SolarEvent event) {
+        // Handle data processed event
+        // Could trigger notifications, analytics, etc.
+    }
+
+    /**
+     * Processes the records of a batch one by one, so a failing record is logged, counted and parked in the
+     * dead-letter topic without failing the rest of the batch.
+     *
+     * Records whose value could not be deserialized arrive with a null value and are parked with their original
+     * bytes; events already handled are skipped, with {@code solar.kafka.consumer.dedup.enabled}. Outcomes are
+     * counted as {@code kafka.consumer.events}, tagged {@code listener} and {@code outcome}, and batch sizes recorded
+     * as {@code kafka.consumer.batch.size}.
+     *
+     * @param eventType short identifier of the event category (e.g., "external", "data-processed")
+     * @param records   the records of one poll
+     * @param processor handles one event
+     */
+    private void handleBatch(String eventType, List<ConsumerRecord<String, SolarEvent>> records,
+                             Consumer<SolarEvent> processor) {
+        boolean[] claimed = claimBatch(eventType, records);
+        int failed = 0;
+        int duplicates = 0;
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, SolarEvent> record = records.get(i);
+            SolarEvent event = record.value();
+            if (event == null) {
+                failed++;
+                log.warn("Parking {} record {}-{}@{} without a readable value",
+                        eventType, record.topic(), record.partition(), record.offset());
+                deadLetter(eventType, record, deserializationException(record));
+                continue;
+            }
+            if (!claimed[i]) {
+                duplicates++;
+                continue;
+            }
+            try {
+                processor.accept(event);
+            } catch (Exception e) {
+                failed++;
+                release(eventType, event);
+                log.error("Error processing {} event for machine {} at {}-{}@{}: {}", eventType,
+                        event.getMachineId(), record.topic(), record.partition(), record.offset(), e.getMessage(), e);
+                deadLetter(eventType, record, e);
+            }
+        }
+
+        eventCounter(eventType, "success").increment(records.size() - failed - duplicates);
+        if (failed > 0) {
+            eventCounter(eventType, "error").increment(failed);
+        }
+        DistributionSummary.builder("kafka.consumer.batch.size")
+                .description("Records delivered to a batch listener per poll")
+                .tag("listener", eventType)
+                .register(meterRegistry)
+                .record(records.size());
+        log.debug("Processed batch of {} {} events, {} failed, {} duplicates", records.size(), eventType, failed,
+                duplicates);
+    }
+
+    /**
+     * Claims the readable events of a batch with the deduplicator in one call.
+     *
+     * @param eventType short identifier of the event category
+     * @param records   the records of one poll
+     * @return for each record, whether its event is to be handled; all true without de-duplication
+     */
+    private boolean[] claimBatch(String eventType, List<ConsumerRecord<String, SolarEvent>> records) {
+        boolean[] claimed = new boolean[records.size()];
+        if (deduplicator == null) {
+            Arrays.fill(claimed, true);
+            return claimed;
+        }
+        List<Integer> readable = new ArrayList<>(records.size());
+        List<String> eventIds = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            SolarEvent event = records.get(i).value();
+            if (event != null) {
+                readable.add(i);
+                eventIds.add(event.getEventId());
+            }
+        }
+        boolean[] fresh = deduplicator.claim(eventType, eventIds);
+        for (int j = 0; j < fresh.length; j++) {
+            claimed[readable.get(j)] = fresh[j];
+        }
+        return claimed;
+    }
+
+    /**
+     * Queues a record on the stripe of its machineId (the record key if the value carries none) and acknowledges it
+     * once handled, whatever the outcome, so a failure is logged, counted and parked in the dead-letter topic without
+     * holding back the partition.
+     * Events already handled are acknowledged without being queued, with {@code solar.kafka.consumer.dedup.enabled}.
+     *
+     * @param eventType      short identifier of the event category
+     * @param record         the record
+     * @param acknowledgment acknowledges the record
+     * @param processor      handles one event
+     */
+    private void dispatchKeyed(String eventType, ConsumerRecord<String, SolarEvent> record,
+                               Acknowledgment acknowledgment, Consumer<SolarEvent> processor) {
+        SolarEvent event = record.value();
+        String machineId = event != null && event.getMachineId() != null ? event.getMachineId() : record.key();
+        if (event != null && isDuplicate(eventType, event)) {
+            acknowledge(record, acknowledgment);
+            return;
+        }
+
+        keyedExecutor.execute(machineId, () -> {
+            try {
+                if (event == null) {
+                    eventCounter(eventType, "error").increment();
+                    log.warn("Parking {} record {}-{}@{} without a readable value",
+                            eventType, record.topic(), record.partition(), record.offset());
+                    deadLetter(eventType, record, deserializationException(record));
+                    return;
+                }
+                processor.accept(event);
+                eventCounter(eventType, "success").increment();
+            } catch (Exception e) {
+                eventCounter(eventType, "error").increment();
+                release(eventType, event);
+                log.error("Error processing {} event for machine {} at {}-{}@{}: {}", eventType,
+                        machineId, record.topic(), record.partition(), record.offset(), e.getMessage(), e);
+                deadLetter(eventType, record, e);
+            } finally {
+                acknowledge(record, acknowledgment);
+            }
+        });
+    }
+
+    /**
+     * Publishes a record the batch or keyed listeners failed to handle to its dead-letter topic, waiting for the
+     * broker's acknowledgement. If that fails too, the record is only logged, as the partition must move on.
+     *
+     * @param eventType short identifier of the event category
+     * @param record    the record, whose original value bytes are published if it could not be deserialized
+     * @param cause     why the record failed, recorded in the dead-letter headers
+     */
+    private void deadLetter(String eventType, ConsumerRecord<String, SolarEvent> record, Exception cause) {
+        try {
+            deadLetterRecoverer.accept(record, cause);
+        } catch (RuntimeException e) {
+            eventCounter(eventType, "lost").increment();
+            log.error("Could not park {} record {}-{}@{} in its dead-letter topic, dropping it: {}", eventType,
+                    record.topic(), record.partition(), record.offset(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns why a record arrived without a value.
+     *
+     * @param record a record without a readable value
+     * @return the deserializer's exception, carrying the original bytes, or a description if there is none
+     */
+    private static Exception deserializationException(ConsumerRecord<String, SolarEvent> record) {
+        DeserializationException exception = SerializationUtils.getExceptionFromHeader(record,
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, DESERIALIZATION_LOG);
+        return exception != null ? exception : new IllegalArgumentException("Record has no value");
+    }
+
+    /**
+     * Claims an event with the deduplicator, when de-duplication is enabled.
+     *
+     * @param eventType short identifier of the event category
+     * @param event     the event
+     * @return true if the event was already handled and is to be skipped
+     */
+    private boolean isDuplicate(String eventType, SolarEvent event) {
+        if (deduplicator == null || deduplicator.claim(eventType, event.getEventId())) {
+            return false;
+        }
+        log.debug("Skipping duplicate {} event {} for machine {}", eventType, event.getEventId(),
+                event.getMachineId());
+        return true;
+    }
+
+    /**
+     * Gives up the claim on an event that failed, so a redelivery of it is handled again.
+     *
+     * @param eventType short identifier of the event category
+     * @param event     the event
+     */
+    private void release(String eventType, SolarEvent event) {
+        if (deduplicator != null) {
+            deduplicator.release(eventType, event.getEventId());
+        }
+    }
+
+    /**
+     * Acknowledges a keyed record.
+     *
+     * A rebalance may have revoked the record's partition while it was queued; the container then rejects the ack
+     * and the partition's new owner receives the record again from the last committed offset.
+     *
+     * @param record         the record
+     * @param acknowledgment acknowledges the record
+     */
+    private void acknowledge(ConsumerRecord<String, SolarEvent> record, Acknowledgment acknowledgment) {
+        try {
+            acknowledgment.acknowledge();
+        } catch (IllegalStateException e) {
+            log.debug("Ack of {}-{}@{} rejected, its partition was reassigned: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the counter of batch- or keyed-consumed events with the given outcome.
+     *
+     * @param eventType short identifier of the event category
+     * @param outcome   {@code success}, {@code error}, or {@code lost} for failed records that could not be parked
+     * @return the counter
+     */
+    private Counter eventCounter(String eventType, String outcome) {
+        return Counter.builder("kafka.consumer.events")
+                .description("Events handled by the batch and keyed listeners")
+                .tag("listener", eventType)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     /**
      * Record the start of processing for an event for the given machine.
      *
@@ -81,4 +524,4 @@ public class KafkaConsumerServiceImpl implements IKafkaConsumerService {
     protected void logEventProcessed(String eventType, String machineId) {
         log.info("Successfully processed {} event for machine: {}", eventType, machineId);
     }
-}
\ No newline at end of file
+}
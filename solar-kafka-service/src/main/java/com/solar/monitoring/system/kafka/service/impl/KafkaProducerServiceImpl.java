@@ -1,79 +1,121 @@
 package com.solar.monitoring.system.kafka.service.impl;
 import com.solar.monitoring.system.kafka.dto.EventDto;
+import com.solar.monitoring.system.kafka.dto.PublishResultDto;
+import com.solar.monitoring.system.kafka.exception.KafkaException;
 import com.solar.monitoring.system.kafka.service.IKafkaProducerService;
 import com.solar.monitoring.system.kafka.model.SolarEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 @Slf4j
 @Service
 public class KafkaProducerServiceImpl implements IKafkaProducerService {
 
+    private static final String DATA_PROCESSED_TOPIC = "solar-data-processed";
+
     protected final KafkaTemplate<String, SolarEvent> kafkaTemplate;
 
+    private final Semaphore pendingSends;
+    private final long pendingWaitNanos;
+    private final Counter publishedEvents;
+    private final Counter failedEvents;
+
     /**
-     * Logs an info-level message indicating the start of publishing an event to a Kafka topic.
+     * Logs a debug-level message indicating the start of publishing an event to a Kafka topic.
      *
      * @param topic     the Kafka topic the event will be sent to
      * @param eventType the type of the event being published
      * @param machineId identifier of the machine the event relates to
      */
     protected void logEventPublishing(String topic, String eventType, String machineId) {
-        log.info("Publishing {} event to topic {} for machine: {}", eventType, topic, machineId);
+        log.debug("Publishing {} event to topic {} for machine: {}", eventType, topic, machineId);
     }
 
     /**
-     * Log an info-level message indicating a successful publication of an event to Kafka.
+     * Log a debug-level message indicating that the brokers acknowledged an event.
      *
      * @param topic     the Kafka topic the event was published to
      * @param eventType the event type that was published
      * @param machineId identifier of the machine associated with the event
      */
     protected void logEventPublished(String topic, String eventType, String machineId) {
-        log.info("Successfully published {} event to topic {} for machine: {}", eventType, topic, machineId);
+        log.debug("Successfully published {} event to topic {} for machine: {}", eventType, topic, machineId);
     }
 
     /**
      * Create a KafkaProducerServiceImpl wired with the given KafkaTemplate.
      *
-     * The provided KafkaTemplate<String, SolarEvent> is used to send SolarEvent messages to Kafka.
+     * The provided KafkaTemplate<String, SolarEvent> is used to send SolarEvent messages to Kafka. At most
+     * {@code maxPendingEvents} sends may be unacknowledged at once; a publish beyond that waits up to
+     * {@code pendingWait} for a slot, so callers are slowed down to the rate the brokers acknowledge.
+     *
+     * @param kafkaTemplate    template used to send the events
+     * @param meterRegistry    registry the publish meters are bound to
+     * @param maxPendingEvents sends that may await acknowledgement at once
+     * @param pendingWait      how long a publish waits for a free slot before the event fails
      */
-    public KafkaProducerServiceImpl(KafkaTemplate<String, SolarEvent> kafkaTemplate) {
+    public KafkaProducerServiceImpl(KafkaTemplate<String, SolarEvent> kafkaTemplate, MeterRegistry meterRegistry,
+                                    @Value("${solar.kafka.producer.max-pending-events:100000}") int maxPendingEvents,
+                                    @Value("${solar.kafka.producer.pending-wait:PT10S}") Duration pendingWait) {
         this.kafkaTemplate = kafkaTemplate;
+        this.pendingSends = new Semaphore(maxPendingEvents);
+        this.pendingWaitNanos = pendingWait.toNanos();
+        this.publishedEvents = publishCounter(meterRegistry, "success");
+        this.failedEvents = publishCounter(meterRegistry, "error");
+
+        Gauge.builder("kafka.producer.pending", pendingSends, permits -> maxPendingEvents - permits.availablePermits())
+                .description("Sent events awaiting acknowledgement by the brokers")
+                .register(meterRegistry);
     }
 
     /**
      * Publishes an EventDto to the given Kafka topic as a SolarEvent.
      *
      * The method constructs a SolarEvent (assigning a new UUID to eventId and setting createdAt to the current time),
-     * then sends it to Kafka using the event's machineId as the message key.
+     * then sends it to Kafka using the event's machineId as the message key. It does not wait for the brokers;
+     * a failed delivery is logged when the brokers report it.
      *
      * @param topic the Kafka topic to publish to
      * @param event the event payload to convert and publish; its eventType, machineId, timestamp, data and source
      *              are copied into the produced SolarEvent
-     * @throws RuntimeException if sending the message fails (the underlying exception is propagated)
+     * @throws RuntimeException if sending the message fails (the underlying exception is propagated), including a
+     *                          {@link KafkaException} if no send slot frees up within the pending wait
      */
     @Override
     public void publishEvent(String topic, EventDto event) {
         logEventPublishing(topic, event.getEventType(), event.getMachineId());
 
         try {
-            SolarEvent solarEvent = SolarEvent.builder()
-                    .eventId(UUID.randomUUID().toString())
-                    .eventType(event.getEventType())
-                    .machineId(event.getMachineId())
-                    .timestamp(event.getTimestamp())
-                    .data(event.getData())
-                    .source(event.getSource())
-                    .createdAt(LocalDateTime.now())
-                    .build();
-
-            kafkaTemplate.send(topic, event.getMachineId(), solarEvent);
-            logEventPublished(topic, event.getEventType(), event.getMachineId());
+            SolarEvent solarEvent = toSolarEvent(event);
+
+            send(topic, solarEvent, (result, ex) -> {
+                if (ex == null) {
+                    logEventPublished(topic, event.getEventType(), event.getMachineId());
+                } else {
+                    log.error("Error publishing event to topic {} for machine {}: {}",
+                            topic, event.getMachineId(), ex.getMessage(), ex);
+                }
+            });
 
         } catch (Exception e) {
             log.error("Error publishing event to topic {} for machine {}: {}",
@@ -89,6 +131,183 @@ public class KafkaProducerServiceImpl implements IKafkaProducerService {
      */
     @Override
     public void publishDataProcessedEvent(EventDto event) {
-        publishEvent("solar-data-processed", event);
+        publishEvent(DATA_PROCESSED_TOPIC, event);
+    }
+
+    /**
+     * Publishes each event as a SolarEvent, as {@link #publishEvent} does, and collects the brokers' answers.
+     *
+     * Events are handed to the producer in order and batched by it according to the producer profile. An event
+     * that cannot be sent, including one that finds no send slot within the pending wait, fails on its own
+     * without stopping the rest. Outcomes are counted as {@code kafka.producer.events}, tagged {@code outcome}.
+     *
+     * @param topic  the Kafka topic to publish to
+     * @param events the events to publish
+     * @return a future of one result per event, in the iteration order of {@code events}
+     */
+    @Override
+    public CompletableFuture<List<PublishResultDto>> publishEventsAsync(String topic, Collection<EventDto> events) {
+        if (events.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        PublishResultDto[] results = new PublishResultDto[events.size()];
+        AtomicInteger remaining = new AtomicInteger(results.length);
+        AtomicInteger failures = new AtomicInteger();
+        CompletableFuture<List<PublishResultDto>> combined = new CompletableFuture<>();
+        BiConsumer<Integer, PublishResultDto> complete = (index, result) -> {
+            results[index] = result;
+            if (!result.isSuccess()) {
+                failures.incrementAndGet();
+            }
+            if (remaining.decrementAndGet() == 0) {
+                logBatchPublished(topic, results, failures.get());
+                combined.complete(Arrays.asList(results));
+            }
+        };
+
+        int index = 0;
+        for (EventDto event : events) {
+            int position = index++;
+            String eventId = null;
+            try {
+                SolarEvent solarEvent = toSolarEvent(event);
+                eventId = solarEvent.getEventId();
+                send(topic, solarEvent, (result, ex) -> complete.accept(position, toResult(solarEvent, result, ex)));
+            } catch (Exception e) {
+                complete.accept(position, PublishResultDto.failure(eventId, event.getMachineId(), e.getMessage()));
+            }
+        }
+        return combined;
+    }
+
+    /**
+     * Publish the given processed events to the "solar-data-processed" Kafka topic.
+     *
+     * @param events the processed events to publish
+     * @return a future of one result per event, in the iteration order of {@code events}
+     */
+    @Override
+    public CompletableFuture<List<PublishResultDto>> publishEventsAsync(Collection<EventDto> events) {
+        return publishEventsAsync(DATA_PROCESSED_TOPIC, events);
+    }
+
+    /**
+     * Builds the SolarEvent published for an event, with a new eventId and the current time as createdAt.
+     *
+     * @param event the event payload
+     * @return the SolarEvent
+     */
+    private SolarEvent toSolarEvent(EventDto event) {
+        return SolarEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(event.getEventType())
+                .machineId(event.getMachineId())
+                .timestamp(event.getTimestamp())
+                .data(event.getData())
+                .source(event.getSource())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Sends an event once a send slot is free, keyed by its machineId, and frees the slot when the brokers answer.
+     *
+     * @param topic    the Kafka topic
+     * @param event    the event
+     * @param callback invoked with the send result, or the failure, on the producer's I/O thread
+     * @throws KafkaException if no slot frees up within the pending wait, or the thread is interrupted
+     */
+    private void send(String topic, SolarEvent event,
+                      BiConsumer<SendResult<String, SolarEvent>, Throwable> callback) {
+        CompletableFuture<SendResult<String, SolarEvent>> future;
+        try {
+            acquireSendSlot(topic);
+        } catch (KafkaException e) {
+            failedEvents.increment();
+            throw e;
+        }
+        try {
+            future = kafkaTemplate.send(topic, event.getMachineId(), event);
+        } catch (RuntimeException e) {
+            pendingSends.release();
+            failedEvents.increment();
+            throw e;
+        }
+        future.whenComplete((result, ex) -> {
+            pendingSends.release();
+            (ex == null ? publishedEvents : failedEvents).increment();
+            callback.accept(result, ex);
+        });
+    }
+
+    /**
+     * Waits for a free send slot.
+     *
+     * @param topic the Kafka topic, for the error message
+     * @throws KafkaException if no slot frees up within the pending wait, or the thread is interrupted
+     */
+    private void acquireSendSlot(String topic) {
+        try {
+            if (!pendingSends.tryAcquire(pendingWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw new KafkaException("Timed out waiting for a send slot on topic " + topic
+                        + ", too many events await acknowledgement");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while waiting for a send slot on topic " + topic, e);
+        }
+    }
+
+    /**
+     * Converts the brokers' answer for an event into its result.
+     *
+     * @param event  the sent event
+     * @param result the send result, or null if the send failed
+     * @param ex     the failure, or null if the send succeeded
+     * @return the event's result
+     */
+    private static PublishResultDto toResult(SolarEvent event, SendResult<String, SolarEvent> result, Throwable ex) {
+        if (ex != null) {
+            return PublishResultDto.failure(event.getEventId(), event.getMachineId(),
+                    NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+        }
+        RecordMetadata metadata = result.getRecordMetadata();
+        return PublishResultDto.success(event.getEventId(), event.getMachineId(),
+                metadata.partition(), metadata.offset());
+    }
+
+    /**
+     * Logs the outcome of a batch: one warning naming the first failure if any event failed, else a debug line.
+     *
+     * @param topic    the Kafka topic
+     * @param results  the results of the batch
+     * @param failures the number of failed events
+     */
+    private static void logBatchPublished(String topic, PublishResultDto[] results, int failures) {
+        if (failures == 0) {
+            log.debug("Published {} events to topic {}", results.length, topic);
+            return;
+        }
+        PublishResultDto firstFailure = Arrays.stream(results)
+                .filter(result -> !result.isSuccess())
+                .findFirst()
+                .orElseThrow();
+        log.warn("{} of {} events to topic {} failed, first for machine {}: {}", failures, results.length, topic,
+                firstFailure.getMachineId(), firstFailure.getError());
+    }
+
+    /**
+     * Creates the counter of published events with the given outcome.
+     *
+     * @param meterRegistry the registry
+     * @param outcome       {@code success} or {@code error}
+     * @return the counter
+     */
+    private static Counter publishCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("kafka.producer.events")
+                .description("Events published, by outcome of their delivery")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package com.solar.monitoring.system.kafka.streams;
+
+import lombok.Data;
+
+/**
+ * Running aggregate of one machine's power samples within one window.
+ *
+ * <p>Energy is the trapezoidal integral of power over time between consecutive samples, in kWh for power in kW.
+ * An interval longer than the maximum sample gap is treated as an outage and adds no energy. A sample older than
+ * the newest one seen in the window counts towards the power statistics but not the energy.
+ */
+@Data
+public class EnergyRollup {
+
+    private static final double MILLIS_PER_HOUR = 3_600_000d;
+
+    private long sampleCount;
+    private double minPower;
+    private double maxPower;
+    private double powerSum;
+    private double energyKwh;
+    private long lastSampleMillis;
+    private double lastPower;
+
+    /**
+     * Adds a power sample.
+     *
+     * @param sampleMillis the sample's timestamp in epoch millis
+     * @param power        the power output
+     * @param maxGapMillis the longest interval between samples that is integrated
+     * @return this aggregate
+     */
+    public EnergyRollup add(long sampleMillis, double power, long maxGapMillis) {
+        if (sampleCount == 0) {
+            minPower = power;
+            maxPower = power;
+        } else {
+            minPower = Math.min(minPower, power);
+            maxPower = Math.max(maxPower, power);
+        }
+        if (sampleCount == 0 || sampleMillis > lastSampleMillis) {
+            long gap = sampleMillis - lastSampleMillis;
+            if (sampleCount > 0 && gap <= maxGapMillis) {
+                energyKwh += (lastPower + power) / 2 * gap / MILLIS_PER_HOUR;
+            }
+            lastSampleMillis = sampleMillis;
+            lastPower = power;
+        }
+        sampleCount++;
+        powerSum += power;
+        return this;
+    }
+
+    /**
+     * Returns the mean of the power samples.
+     *
+     * @return the average power, or 0 without samples
+     */
+    public double getAvgPower() {
+        return sampleCount == 0 ? 0 : powerSum / sampleCount;
+    }
+}
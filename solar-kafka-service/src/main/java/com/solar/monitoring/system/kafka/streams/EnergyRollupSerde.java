@@ -0,0 +1,89 @@
+package com.solar.monitoring.system.kafka.streams;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Serde of {@link EnergyRollup} state, written to the window stores and their changelog topics on every sample.
+ *
+ * <p>Fixed 56-byte layout: sample count and last sample time as 8-byte longs, then min, max and sum of power,
+ * energy and last power as 8-byte doubles. Not meant to be read outside this application.
+ */
+public class EnergyRollupSerde implements Serde<EnergyRollup>, Serializer<EnergyRollup>, Deserializer<EnergyRollup> {
+
+    private static final int SIZE = 7 * Long.BYTES;
+
+    /**
+     * Encodes an aggregate.
+     *
+     * @param topic  the store's changelog topic
+     * @param rollup the aggregate (may be null)
+     * @return the encoded bytes; null for null
+     */
+    @Override
+    public byte[] serialize(String topic, EnergyRollup rollup) {
+        if (rollup == null) {
+            return null;
+        }
+        return ByteBuffer.allocate(SIZE)
+                .putLong(rollup.getSampleCount())
+                .putLong(rollup.getLastSampleMillis())
+                .putDouble(rollup.getMinPower())
+                .putDouble(rollup.getMaxPower())
+                .putDouble(rollup.getPowerSum())
+                .putDouble(rollup.getEnergyKwh())
+                .putDouble(rollup.getLastPower())
+                .array();
+    }
+
+    /**
+     * Decodes an aggregate.
+     *
+     * @param topic the store's changelog topic
+     * @param bytes the encoded aggregate (may be null)
+     * @return the aggregate; null for null
+     * @throws SerializationException if the bytes are not an encoded aggregate
+     */
+    @Override
+    public EnergyRollup deserialize(String topic, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length != SIZE) {
+            throw new SerializationException("Energy rollup of " + bytes.length + " bytes, expected " + SIZE);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        EnergyRollup rollup = new EnergyRollup();
+        rollup.setSampleCount(buffer.getLong());
+        rollup.setLastSampleMillis(buffer.getLong());
+        rollup.setMinPower(buffer.getDouble());
+        rollup.setMaxPower(buffer.getDouble());
+        rollup.setPowerSum(buffer.getDouble());
+        rollup.setEnergyKwh(buffer.getDouble());
+        rollup.setLastPower(buffer.getDouble());
+        return rollup;
+    }
+
+    @Override
+    public Serializer<EnergyRollup> serializer() {
+        return this;
+    }
+
+    @Override
+    public Deserializer<EnergyRollup> deserializer() {
+        return this;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
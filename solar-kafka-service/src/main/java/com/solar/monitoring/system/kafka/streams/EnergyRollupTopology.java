@@ -0,0 +1,157 @@
+package com.solar.monitoring.system.kafka.streams;
+
+import com.solar.monitoring.system.kafka.dto.EnergyRollupDto;
+import com.solar.monitoring.system.kafka.model.SolarEvent;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.processor.api.ContextualFixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.WindowStore;
+import org.springframework.kafka.support.serializer.JsonSerde;
+
+import java.time.Duration;
+
+/**
+ * Kafka Streams topology rolling telemetry up into per-machine energy and power figures.
+ *
+ * <p>Reads SolarEvents keyed by machineId, as {@code KafkaProducerServiceImpl} publishes them, and aggregates the
+ * {@code powerOutput} of each machine into an {@link EnergyRollup} per {@link RollupWindow}: tumbling windows and
+ * hopping windows, both windowed by event time (see {@link SolarEventTimestampExtractor}). Events without a key
+ * or a numeric {@code powerOutput} are skipped; since records are not re-keyed, there is no repartition topic.
+ *
+ * <p>Open windows live in the window store named by {@link RollupWindow#getStoreName()}, retained for the window
+ * size plus the grace period, where interactive queries read them. A window is published to the rollup topic as
+ * an {@link EnergyRollupDto}, keyed by machineId, once: when stream time passes its end plus the grace period.
+ * Samples arriving later are dropped. Until then the latest aggregate of each open window is also held by a
+ * suppression buffer, which releases closed windows in time order. Emitting on window close from the store
+ * instead would scan it from the epoch the first time after every start.
+ */
+public class EnergyRollupTopology {
+
+    static final String POWER_FIELD = "powerOutput";
+
+    private final String inputTopic;
+    private final String rollupTopic;
+    private final Serde<SolarEvent> eventSerde;
+    private final Duration tumblingSize;
+    private final Duration hoppingSize;
+    private final Duration hoppingAdvance;
+    private final Duration grace;
+    private final long maxSampleGapMillis;
+
+    /**
+     * Creates the topology definition.
+     *
+     * @param inputTopic     the telemetry topic
+     * @param rollupTopic    the topic closed windows are published to
+     * @param eventSerde     reads the telemetry values
+     * @param tumblingSize   the size of the tumbling windows
+     * @param hoppingSize    the size of the hopping windows
+     * @param hoppingAdvance how far apart hopping windows start
+     * @param grace          how long after its end a window still accepts out-of-order samples
+     * @param maxSampleGap   the longest interval between two samples that is integrated into energy
+     */
+    public EnergyRollupTopology(String inputTopic, String rollupTopic, Serde<SolarEvent> eventSerde,
+                                Duration tumblingSize, Duration hoppingSize, Duration hoppingAdvance,
+                                Duration grace, Duration maxSampleGap) {
+        this.inputTopic = inputTopic;
+        this.rollupTopic = rollupTopic;
+        this.eventSerde = eventSerde;
+        this.tumblingSize = tumblingSize;
+        this.hoppingSize = hoppingSize;
+        this.hoppingAdvance = hoppingAdvance;
+        this.grace = grace;
+        this.maxSampleGapMillis = maxSampleGap.toMillis();
+    }
+
+    /**
+     * Adds the rollup topology to a builder.
+     *
+     * @param builder the streams builder
+     */
+    public void build(StreamsBuilder builder) {
+        KGroupedStream<String, PowerSample> samples = builder
+                .stream(inputTopic, Consumed.with(Serdes.String(), eventSerde)
+                        .withTimestampExtractor(new SolarEventTimestampExtractor()))
+                .filter((machineId, event) -> machineId != null && event != null && event.getData() != null
+                        && event.getData().get(POWER_FIELD) instanceof Number)
+                .processValues(PowerSampleProcessor::new)
+                .groupByKey();
+
+        aggregate(samples, RollupWindow.TUMBLING, TimeWindows.ofSizeAndGrace(tumblingSize, grace));
+        aggregate(samples, RollupWindow.HOPPING,
+                TimeWindows.ofSizeAndGrace(hoppingSize, grace).advanceBy(hoppingAdvance));
+    }
+
+    /**
+     * Returns the size of a kind of window.
+     *
+     * @param window the kind of window
+     * @return the window size
+     */
+    public Duration windowSize(RollupWindow window) {
+        return window == RollupWindow.TUMBLING ? tumblingSize : hoppingSize;
+    }
+
+    /**
+     * Returns how long after its end a window still accepts samples before it is closed and published.
+     *
+     * @return the grace period
+     */
+    public Duration getGrace() {
+        return grace;
+    }
+
+    /**
+     * Aggregates the samples of each machine per window into the window's store, and publishes closed windows.
+     *
+     * @param samples the power samples grouped by machineId
+     * @param window  the kind of window
+     * @param windows the window definition
+     */
+    private void aggregate(KGroupedStream<String, PowerSample> samples, RollupWindow window, TimeWindows windows) {
+        samples.windowedBy(windows)
+                .aggregate(EnergyRollup::new,
+                        (machineId, sample, rollup) -> rollup.add(sample.millis(), sample.power(), maxSampleGapMillis),
+                        Materialized.<String, EnergyRollup, WindowStore<Bytes, byte[]>>as(window.getStoreName())
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(new EnergyRollupSerde())
+                                .withRetention(Duration.ofMillis(windows.size()).plus(grace)))
+                .suppress(Suppressed.untilWindowCloses(Suppressed.BufferConfig.unbounded())
+                        .withName(window.getStoreName() + "-closed"))
+                .toStream()
+                .map((windowed, rollup) -> KeyValue.pair(windowed.key(), EnergyRollupDto.of(windowed.key(), window,
+                        windowed.window().start(), windowed.window().end(), rollup)))
+                .to(rollupTopic, Produced.with(Serdes.String(), new JsonSerde<>(EnergyRollupDto.class).noTypeInfo()));
+    }
+
+    /**
+     * A power reading at the event time the record is windowed by.
+     *
+     * @param millis the event time in epoch millis
+     * @param power  the power output
+     */
+    private record PowerSample(long millis, double power) {
+    }
+
+    /**
+     * Turns an event into its power sample, taking the time from the record so it matches the windowing.
+     */
+    private static class PowerSampleProcessor extends ContextualFixedKeyProcessor<String, SolarEvent, PowerSample> {
+
+        @Override
+        public void process(FixedKeyRecord<String, SolarEvent> record) {
+            double power = ((Number) record.value().getData().get(POWER_FIELD)).doubleValue();
+            context().forward(record.withValue(new PowerSample(record.timestamp(), power)));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.solar.monitoring.system.kafka.streams;
+
+/**
+ * The windows {@link EnergyRollupTopology} aggregates telemetry over, each kept in its own state store.
+ */
+public enum RollupWindow {
+    /**
+     * Back-to-back windows of {@code solar.kafka.streams.rollup.tumbling.size}; every sample falls in exactly one.
+     */
+    TUMBLING("energy-rollup-tumbling"),
+
+    /**
+     * Overlapping windows of {@code solar.kafka.streams.rollup.hopping.size}, starting every
+     * {@code hopping.advance}; every sample falls in size / advance of them.
+     */
+    HOPPING("energy-rollup-hopping");
+
+    private final String storeName;
+
+    RollupWindow(String storeName) {
+        this.storeName = storeName;
+    }
+
+    /**
+     * Returns the name of the window store holding this window's aggregates.
+     *
+     * @return the state store name
+     */
+    public String getStoreName() {
+        return storeName;
+    }
+}
@@ -0,0 +1,22 @@
+package com.solar.monitoring.system.kafka.streams;
+
+import com.solar.monitoring.system.kafka.model.SolarEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+
+import java.time.ZoneOffset;
+
+/**
+ * Windows telemetry by when it was measured: the event's {@code timestamp}, read as UTC, or the record
+ * timestamp for events without one.
+ */
+public class SolarEventTimestampExtractor implements TimestampExtractor {
+
+    @Override
+    public long extract(ConsumerRecord<Object, Object> record, long partitionTime) {
+        if (record.value() instanceof SolarEvent event && event.getTimestamp() != null) {
+            return event.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        return record.timestamp();
+    }
+}
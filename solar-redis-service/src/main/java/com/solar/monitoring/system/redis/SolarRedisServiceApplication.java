@@ -1,9 +1,14 @@
 package com.solar.monitoring.system.redis;
 
+import com.solar.monitoring.system.redis.config.AlertProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(AlertProperties.class)
 public class SolarRedisServiceApplication {
     /**
      * Application entry point that boots the Spring Boot context for the Redis service.
@@ -0,0 +1,215 @@
+package com.solar.monitoring.system.redis.alert;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.solar.monitoring.system.redis.config.AlertProperties;
+import com.solar.monitoring.system.redis.dto.AlertEventDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.model.AlertLevel;
+import com.solar.monitoring.system.redis.model.AlertMetric;
+import com.solar.monitoring.system.redis.util.EpochMillisUtil;
+import com.solar.monitoring.system.redis.util.RedisKeyUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks every saved sample against its machine's alert rules on the ingest path.
+ *
+ * <p>The hysteresis state of each machine lives in memory as primitive fields, so evaluating a sample that does
+ * not change any level allocates nothing and touches no Redis key. Only a transition queues commands on the
+ * write pipeline:
+ * <ul>
+ *     <li>{@code HSET} of the metric's level, the overall status and the time to {@code status:machine:{id}};</li>
+ *     <li>{@code HSET} of the raising event to {@code alert:machine:{id}}, or {@code HDEL} when the alert
+ *     clears;</li>
+ *     <li>{@code PUBLISH} of the event as JSON on {@code alerts:events}.</li>
+ * </ul>
+ * Samples older than the newest one evaluated for their machine are ignored. The transitions are recorded in the
+ * pipeline's {@link AlertTransitions}, which undoes them if the pipeline fails, so a retried sample writes them
+ * again. The state is per instance: after a restart an active alert is raised again by its next sample, rewriting
+ * the same keys.
+ */
+@Slf4j
+@Component
+public class AlertEngine {
+
+    private static final AlertMetric[] METRICS = AlertMetric.values();
+    private static final AlertLevel[] LEVELS = AlertLevel.values();
+
+    private static final StringRedisSerializer STRING_SERIALIZER = StringRedisSerializer.UTF_8;
+    private static final byte[] EVENTS_CHANNEL = STRING_SERIALIZER.serialize(RedisKeyUtil.getAlertEventsChannel());
+    private static final byte[] STATUS_FIELD = STRING_SERIALIZER.serialize("status");
+    private static final byte[] UPDATED_FIELD = STRING_SERIALIZER.serialize("updated");
+    private static final byte[] STATUS_OK = STRING_SERIALIZER.serialize("OK");
+    private static final byte[] STATUS_ALERT = STRING_SERIALIZER.serialize("ALERT");
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final AlertRules defaultRules;
+    private final Map<String, AlertRules> machineRules;
+    private final ConcurrentHashMap<String, MachineAlertState> states = new ConcurrentHashMap<>();
+
+    private final Counter[] raised = new Counter[METRICS.length];
+    private final Counter[] cleared = new Counter[METRICS.length];
+
+    /**
+     * Creates the engine and resolves every configured rule set.
+     *
+     * @param properties    the {@code solar.redis.alerts} rule sets
+     * @param redisTemplate template used to delete the keys of a removed machine
+     * @param objectMapper  mapper the published and stored alert events are written with
+     * @param meterRegistry registry the {@code alerts.*} meters are bound to
+     * @throws IllegalArgumentException if a rule set has a clear threshold outside its alert threshold
+     */
+    public AlertEngine(AlertProperties properties, RedisTemplate<String, Object> redisTemplate,
+                       ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = properties.isEnabled();
+        this.defaultRules = new AlertRules(properties.getRules(), Collections.emptyMap());
+
+        this.machineRules = new HashMap<>();
+        properties.getMachines().forEach((machineId, overrides) ->
+                machineRules.put(machineId, new AlertRules(properties.getRules(), overrides)));
+
+        for (AlertMetric metric : METRICS) {
+            raised[metric.ordinal()] = Counter.builder("alerts.raised")
+                    .description("Alerts raised, including a switch between high and low")
+                    .tag("metric", metric.getField())
+                    .register(meterRegistry);
+            cleared[metric.ordinal()] = Counter.builder("alerts.cleared")
+                    .description("Alerts cleared after the metric went back past its clear threshold")
+                    .tag("metric", metric.getField())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("alerts.machines", states, Map::size)
+                .description("Machines with alert state held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Evaluates a saved sample and queues the writes of any level transition.
+     *
+     * @param connection  the (pipelined) connection the transition writes are queued on
+     * @param metrics     the saved sample; must carry a machineId and timestamp
+     * @param transitions the pipeline's transitions, committed or rolled back with its outcome
+     */
+    public void evaluate(RedisConnection connection, RealtimeDataDto metrics, AlertTransitions transitions) {
+        if (!enabled) {
+            return;
+        }
+
+        String machineId = metrics.getMachineId();
+        MachineAlertState state = states.get(machineId);
+        if (state == null) {
+            state = states.computeIfAbsent(machineId, this::newState);
+        }
+
+        long epochMillis = EpochMillisUtil.toEpochMillis(metrics.getTimestamp());
+
+        synchronized (state) {
+            if (epochMillis < state.lastSampleMillis) {
+                return;
+            }
+            long previousSampleMillis = state.lastSampleMillis;
+            state.lastSampleMillis = epochMillis;
+
+            byte[] previousLevels = null;
+            int previousActiveAlerts = state.activeAlerts;
+            for (int i = 0; i < METRICS.length; i++) {
+                double value = METRICS[i].read(metrics);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                byte from = state.levels[i];
+                byte to = state.rules.next(i, from, value);
+                if (to != from) {
+                    if (previousLevels == null) {
+                        previousLevels = state.levels.clone();
+                    }
+                    state.levels[i] = to;
+                    state.activeAlerts += (to != AlertRules.NORMAL ? 1 : 0) - (from != AlertRules.NORMAL ? 1 : 0);
+                    transition(connection, metrics, i, from, to, value, state, transitions);
+                }
+            }
+            if (previousLevels != null) {
+                transitions.record(state, previousLevels, previousActiveAlerts, previousSampleMillis, ++state.version);
+            }
+        }
+    }
+
+    /**
+     * Forgets a machine's alert state and deletes its status and alert keys.
+     *
+     * @param machineId the machine identifier
+     */
+    public void removeMachine(String machineId) {
+        states.remove(machineId);
+        redisTemplate.delete(List.of(RedisKeyUtil.getMachineStatusKey(machineId), RedisKeyUtil.getAlertKey(machineId)));
+    }
+
+    /**
+     * Queues the status, alert and event writes of one transition.
+     */
+    private void transition(RedisConnection connection, RealtimeDataDto metrics, int metric, byte from, byte to,
+                            double value, MachineAlertState state, AlertTransitions transitions) {
+        AlertMetric alertMetric = METRICS[metric];
+        AlertEventDto event = AlertEventDto.builder()
+                .machineId(metrics.getMachineId())
+                .metric(alertMetric)
+                .level(LEVELS[to])
+                .previousLevel(LEVELS[from])
+                .value(value)
+                .threshold(state.rules.threshold(metric, from, to))
+                .timestamp(metrics.getTimestamp())
+                .build();
+
+        byte[] field = STRING_SERIALIZER.serialize(alertMetric.getField());
+        Map<byte[], byte[]> status = new LinkedHashMap<>();
+        status.put(field, STRING_SERIALIZER.serialize(LEVELS[to].name()));
+        status.put(STATUS_FIELD, state.activeAlerts > 0 ? STATUS_ALERT : STATUS_OK);
+        status.put(UPDATED_FIELD, STRING_SERIALIZER.serialize(metrics.getTimestamp().toString()));
+        connection.hashCommands().hMSet(STRING_SERIALIZER.serialize(
+                RedisKeyUtil.getMachineStatusKey(metrics.getMachineId())), status);
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing alert event for machine {}: {}", metrics.getMachineId(), e.getMessage(), e);
+            return;
+        }
+
+        byte[] alertKey = STRING_SERIALIZER.serialize(RedisKeyUtil.getAlertKey(metrics.getMachineId()));
+        if (to == AlertRules.NORMAL) {
+            connection.hashCommands().hDel(alertKey, field);
+            transitions.count(cleared[metric]);
+        } else {
+            connection.hashCommands().hSet(alertKey, field, payload);
+            transitions.count(raised[metric]);
+        }
+        connection.publish(EVENTS_CHANNEL, payload);
+
+        log.info("Alert {} for machine {}: {} {} -> {} at {}", to == AlertRules.NORMAL ? "cleared" : "raised",
+                metrics.getMachineId(), alertMetric, LEVELS[from], LEVELS[to], value);
+    }
+
+    private MachineAlertState newState(String machineId) {
+        return new MachineAlertState(machineRules.getOrDefault(machineId, defaultRules), METRICS.length);
+    }
+}
@@ -0,0 +1,91 @@
+package com.solar.monitoring.system.redis.alert;
+
+import com.solar.monitoring.system.redis.config.AlertProperties;
+import com.solar.monitoring.system.redis.model.AlertLevel;
+import com.solar.monitoring.system.redis.model.AlertMetric;
+
+import java.util.Map;
+
+/**
+ * The resolved thresholds of one rule set, held in primitive arrays indexed by {@link AlertMetric#ordinal()}.
+ *
+ * <p>A disabled bound is NaN, which no comparison satisfies, so {@link #next} needs no special case for it.
+ */
+final class AlertRules {
+
+    static final byte NORMAL = (byte) AlertLevel.NORMAL.ordinal();
+    static final byte HIGH = (byte) AlertLevel.HIGH.ordinal();
+    static final byte LOW = (byte) AlertLevel.LOW.ordinal();
+
+    private static final int METRIC_COUNT = AlertMetric.values().length;
+
+    private final double[] high = new double[METRIC_COUNT];
+    private final double[] highClear = new double[METRIC_COUNT];
+    private final double[] low = new double[METRIC_COUNT];
+    private final double[] lowClear = new double[METRIC_COUNT];
+
+    /**
+     * Resolves a rule set, taking each metric's thresholds from {@code overrides} when it names the metric and
+     * from {@code defaults} otherwise.
+     *
+     * @param defaults  the default thresholds per metric
+     * @param overrides a machine's own thresholds per metric (may be empty)
+     * @throws IllegalArgumentException if a clear threshold lies outside its raise threshold
+     */
+    AlertRules(Map<AlertMetric, AlertProperties.Threshold> defaults,
+               Map<AlertMetric, AlertProperties.Threshold> overrides) {
+        for (AlertMetric metric : AlertMetric.values()) {
+            AlertProperties.Threshold threshold = overrides.getOrDefault(metric, defaults.get(metric));
+            int i = metric.ordinal();
+            high[i] = bound(threshold == null ? null : threshold.getHigh());
+            highClear[i] = threshold == null || threshold.getHighClear() == null ? high[i] : threshold.getHighClear();
+            low[i] = bound(threshold == null ? null : threshold.getLow());
+            lowClear[i] = threshold == null || threshold.getLowClear() == null ? low[i] : threshold.getLowClear();
+
+            if (highClear[i] > high[i] || lowClear[i] < low[i]) {
+                throw new IllegalArgumentException("Clear threshold of " + metric + " lies outside its alert threshold");
+            }
+        }
+    }
+
+    /**
+     * Applies hysteresis to one reading.
+     *
+     * @param metric the metric ordinal
+     * @param level  the current level ordinal
+     * @param value  the reading
+     * @return the new level ordinal
+     */
+    byte next(int metric, byte level, double value) {
+        if (level == HIGH) {
+            if (!(value < highClear[metric])) {
+                return HIGH;
+            }
+        } else if (level == LOW) {
+            if (!(value > lowClear[metric])) {
+                return LOW;
+            }
+        }
+        if (value > high[metric]) return HIGH;
+        if (value < low[metric]) return LOW;
+        return NORMAL;
+    }
+
+    /**
+     * Returns the threshold crossed by a transition.
+     *
+     * @param metric the metric ordinal
+     * @param from   the previous level ordinal
+     * @param to     the new level ordinal
+     * @return the raise threshold of the new level, or the clear threshold of the previous one on clear
+     */
+    double threshold(int metric, byte from, byte to) {
+        if (to == HIGH) return high[metric];
+        if (to == LOW) return low[metric];
+        return from == HIGH ? highClear[metric] : lowClear[metric];
+    }
+
+    private static double bound(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+}
@@ -0,0 +1,85 @@
+package com.solar.monitoring.system.redis.alert;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The alert level transitions queued on one write pipeline.
+ *
+ * <p>{@link AlertEngine#evaluate} moves a machine's in-memory levels as soon as it queues the writes of a
+ * transition. If the pipeline then fails, {@link #rollback()} puts the levels back, so the retried sample queues
+ * the status, alert and event writes again instead of finding nothing to change. {@link #commit()} counts the
+ * transitions once the pipeline succeeded. Nothing is allocated for a pipeline without transitions.
+ */
+public final class AlertTransitions {
+
+    private List<Undo> undo;
+    private List<Counter> counters;
+
+    /**
+     * Counts the recorded transitions in the {@code alerts.raised} and {@code alerts.cleared} meters; call once
+     * the pipeline succeeded.
+     */
+    public void commit() {
+        if (counters != null) {
+            counters.forEach(Counter::increment);
+        }
+        undo = null;
+        counters = null;
+    }
+
+    /**
+     * Restores the levels every recorded transition started from, newest first; call when the pipeline failed.
+     *
+     * <p>A machine whose state a later sample has moved on from since is left as it is, as that sample's writes
+     * carry the newer levels.
+     */
+    public void rollback() {
+        if (undo != null) {
+            for (int i = undo.size() - 1; i >= 0; i--) {
+                undo.get(i).apply();
+            }
+        }
+        undo = null;
+        counters = null;
+    }
+
+    /**
+     * Records the state a machine's transitions started from; called with the state's monitor held, after the
+     * state moved on to {@code versionAfter}.
+     */
+    void record(MachineAlertState state, byte[] levels, int activeAlerts, long lastSampleMillis, long versionAfter) {
+        if (undo == null) {
+            undo = new ArrayList<>();
+        }
+        undo.add(new Undo(state, levels, activeAlerts, lastSampleMillis, versionAfter));
+    }
+
+    /**
+     * Records a meter to increment when the pipeline succeeds.
+     */
+    void count(Counter counter) {
+        if (counters == null) {
+            counters = new ArrayList<>();
+        }
+        counters.add(counter);
+    }
+
+    private record Undo(MachineAlertState state, byte[] levels, int activeAlerts, long lastSampleMillis,
+                        long versionAfter) {
+
+        void apply() {
+            synchronized (state) {
+                if (state.version != versionAfter) {
+                    return;
+                }
+                System.arraycopy(levels, 0, state.levels, 0, levels.length);
+                state.activeAlerts = activeAlerts;
+                state.lastSampleMillis = lastSampleMillis;
+                state.version = versionAfter - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.solar.monitoring.system.redis.alert;
+
+/**
+ * The hysteresis state of one machine: the level of each metric, the timestamp of the newest sample
+ * evaluated and the number of level changes applied and not rolled back, guarded by the instance's monitor.
+ */
+final class MachineAlertState {
+
+    final AlertRules rules;
+    final byte[] levels;
+    long lastSampleMillis = Long.MIN_VALUE;
+    int activeAlerts;
+    long version;
+
+    MachineAlertState(AlertRules rules, int metrics) {
+        this.rules = rules;
+        this.levels = new byte[metrics];
+    }
+}
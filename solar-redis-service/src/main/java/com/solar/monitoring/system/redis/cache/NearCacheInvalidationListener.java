@@ -0,0 +1,175 @@
+package com.solar.monitoring.system.redis.cache;
+
+import com.solar.monitoring.system.redis.util.RedisKeyUtil;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.cluster.pubsub.RedisClusterPubSubAdapter;
+import io.lettuce.core.cluster.pubsub.StatefulRedisClusterPubSubConnection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisServerCommands;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+@Slf4j
+@Component
+public class NearCacheInvalidationListener implements MessageListener, DisposableBean {
+
+    private static final String KEYSPACE_EVENTS = "notify-keyspace-events";
+
+    /**
+     * Keyspace events needed to see every change to a realtime hash: K (keyspace channel), h (hash writes),
+     * g (DEL/EXPIRE/RENAME), x (expired) and e (evicted).
+     */
+    private static final String REQUIRED_EVENT_FLAGS = "Khgxe";
+
+    private final RealtimeNearCache nearCache;
+    private final String realtimeKeyPrefix = RedisKeyUtil.getRealtimeDataKeyPrefix();
+
+    private StatefulRedisClusterPubSubConnection<String, String> clusterSubscription;
+
+    /**
+     * Subscribes the near cache to keyspace notifications of realtime hashes, so writes made by other
+     * service instances or tools invalidate the local copy too.
+     *
+     * <p>A Redis Cluster node only notifies about its own keys, so in cluster mode the pattern is subscribed on
+     * every master known at startup through a dedicated cluster pub/sub connection instead of the shared container.
+     *
+     * @param nearCache                the cache to invalidate
+     * @param listenerContainer        the shared Redis pub/sub container
+     * @param connectionFactory        the connection factory, used to tell cluster from standalone mode
+     * @param redisTemplate            template used to enable keyspace notifications on the server
+     * @param configureKeyspaceEvents  whether to add the required flags to the server's
+     *                                 {@code notify-keyspace-events} setting at startup
+     */
+    public NearCacheInvalidationListener(RealtimeNearCache nearCache,
+                                         RedisMessageListenerContainer listenerContainer,
+                                         LettuceConnectionFactory connectionFactory,
+                                         RedisTemplate<String, Object> redisTemplate,
+                                         @Value("${solar.redis.near-cache.configure-keyspace-events:true}")
+                                         boolean configureKeyspaceEvents) {
+        this.nearCache = nearCache;
+
+        if (!nearCache.isEnabled()) {
+            return;
+        }
+        if (configureKeyspaceEvents) {
+            enableKeyspaceEvents(redisTemplate);
+        }
+
+        String pattern = "__keyspace@*__:" + realtimeKeyPrefix + "*";
+        if (connectionFactory.isClusterAware()) {
+            subscribeAllMasters((RedisClusterClient) connectionFactory.getRequiredNativeClient(), pattern);
+        } else {
+            listenerContainer.addMessageListener(this, new PatternTopic(pattern));
+        }
+    }
+
+    /**
+     * Invalidates the machine named by a keyspace notification channel.
+     *
+     * @param message the notification; its channel is {@code __keyspace@<db>__:<key>} and its body the event name
+     * @param pattern the subscribed pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        invalidate(new String(message.getChannel(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Closes the cluster pub/sub connection, if one was opened.
+     */
+    @Override
+    public void destroy() {
+        if (clusterSubscription != null) {
+            clusterSubscription.close();
+        }
+    }
+
+    /**
+     * Invalidates the machine whose realtime key is named by a keyspace notification channel.
+     *
+     * @param channel the notification channel
+     */
+    private void invalidate(String channel) {
+        String key = channel.substring(channel.indexOf(':') + 1);
+        String machineId = RedisKeyUtil.getMachineIdFromKey(key, realtimeKeyPrefix);
+
+        if (machineId != null) {
+            nearCache.invalidate(machineId);
+        }
+    }
+
+    /**
+     * Subscribes the pattern on every master of the cluster and routes their notifications to the cache.
+     *
+     * Masters added later, e.g. by resharding, are not subscribed until the service restarts; their foreign
+     * writes are bounded by the cache TTL in the meantime.
+     *
+     * @param clusterClient the native cluster client of the connection factory
+     * @param pattern       the keyspace channel pattern
+     */
+    private void subscribeAllMasters(RedisClusterClient clusterClient, String pattern) {
+        clusterSubscription = clusterClient.connectPubSub();
+        clusterSubscription.setNodeMessagePropagation(true);
+        clusterSubscription.addListener(new RedisClusterPubSubAdapter<>() {
+            @Override
+            public void message(RedisClusterNode node, String subscribed, String channel, String message) {
+                invalidate(channel);
+            }
+        });
+        clusterSubscription.sync().upstream().commands().psubscribe(pattern);
+        log.info("Subscribed to realtime keyspace notifications on the masters of {} cluster nodes",
+                clusterClient.getPartitions().size());
+    }
+
+    /**
+     * Adds the required flags to the server's keyspace notification setting, keeping any flags already set.
+     *
+     * Managed Redis offerings often disable CONFIG; in that case the flags must be set by the operator and
+     * entries are still bounded by the cache TTL. In cluster mode CONFIG GET answers with one property per
+     * node, prefixed by its address, and CONFIG SET is sent to every node.
+     *
+     * @param redisTemplate template used to run CONFIG GET/SET
+     */
+    private void enableKeyspaceEvents(RedisTemplate<String, Object> redisTemplate) {
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                RedisServerCommands server = connection.serverCommands();
+                Properties current = server.getConfig(KEYSPACE_EVENTS);
+                String flags = current == null ? "" : current.stringPropertyNames().stream()
+                        .filter(name -> name.endsWith(KEYSPACE_EVENTS))
+                        .map(current::getProperty)
+                        .findFirst()
+                        .orElse("");
+
+                // 'A' is an alias for every event class, but not for the K/E channel selectors
+                boolean allEvents = flags.indexOf('A') >= 0;
+                StringBuilder merged = new StringBuilder(flags);
+                for (char flag : REQUIRED_EVENT_FLAGS.toCharArray()) {
+                    if (flags.indexOf(flag) < 0 && (flag == 'K' || !allEvents)) {
+                        merged.append(flag);
+                    }
+                }
+                if (!merged.toString().equals(flags)) {
+                    server.setConfig(KEYSPACE_EVENTS, merged.toString());
+                    log.info("Set {} from '{}' to '{}'", KEYSPACE_EVENTS, flags, merged);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Could not enable keyspace notifications, near cache relies on its TTL for foreign writes: {}",
+                    e.getMessage());
+        }
+    }
+}
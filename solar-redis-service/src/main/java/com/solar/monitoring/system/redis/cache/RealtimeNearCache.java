@@ -0,0 +1,164 @@
+package com.solar.monitoring.system.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.solar.monitoring.system.redis.model.RealtimeMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Slf4j
+@Component
+public class RealtimeNearCache {
+
+    private static final String CACHE_NAME = "realtime-near-cache";
+
+    private final Cache<String, RealtimeMetrics> cache;
+    private final Counter invalidations;
+
+    /**
+     * Creates the in-process cache of realtime metrics that sits in front of Redis reads.
+     *
+     * <p>Entries are bounded by {@code solar.redis.near-cache.maximum-size} and expire
+     * {@code solar.redis.near-cache.ttl} after being loaded, which also bounds staleness if an
+     * invalidation is ever missed. Hit, miss, eviction and size meters are published under the
+     * {@code cache.*} names with {@code cache=realtime-near-cache}.
+     *
+     * @param enabled       whether reads are cached at all; when false every call goes straight to the loader
+     * @param maximumSize   maximum number of machines kept in the cache
+     * @param ttl           time an entry stays valid after it was loaded
+     * @param meterRegistry registry the cache statistics are bound to
+     */
+    public RealtimeNearCache(@Value("${solar.redis.near-cache.enabled:true}") boolean enabled,
+                             @Value("${solar.redis.near-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${solar.redis.near-cache.ttl:1s}") Duration ttl,
+                             MeterRegistry meterRegistry) {
+        this.invalidations = Counter.builder("cache.invalidations")
+                .description("Near-cache entries dropped because the machine's hash changed")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+
+        if (!enabled) {
+            this.cache = null;
+            log.info("Realtime near cache disabled");
+            return;
+        }
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("Realtime near cache enabled: maximumSize={}, ttl={}", maximumSize, ttl);
+    }
+
+    /**
+     * Returns whether reads are served from the cache.
+     *
+     * @return true if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Returns the cached metrics of a machine, loading them on a miss.
+     *
+     * A loader result of null (no data in Redis) is returned but not cached.
+     *
+     * @param machineId the machine identifier
+     * @param loader    reads the machine's metrics from Redis
+     * @return the machine's metrics, or null if it has none
+     */
+    public RealtimeMetrics get(String machineId, Function<String, RealtimeMetrics> loader) {
+        if (cache == null) {
+            return loader.apply(machineId);
+        }
+        return cache.get(machineId, loader);
+    }
+
+    /**
+     * Returns the cached metrics of many machines, loading all misses with one call to the loader.
+     *
+     * @param machineIds the machine identifiers
+     * @param loader     reads the metrics of the missing machines from Redis, keyed by machineId
+     * @return the metrics of every machine that has data, in the iteration order of {@code machineIds}
+     */
+    public List<RealtimeMetrics> getAll(Collection<String> machineIds,
+                                        Function<Collection<String>, Map<String, RealtimeMetrics>> loader) {
+        if (machineIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, RealtimeMetrics> found = cache == null
+                ? loader.apply(machineIds)
+                : cache.getAll(machineIds, missing -> loader.apply(new ArrayList<>(missing)));
+
+        List<RealtimeMetrics> metrics = new ArrayList<>(found.size());
+        for (String machineId : machineIds) {
+            RealtimeMetrics value = found.get(machineId);
+            if (value != null) {
+                metrics.add(value);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the cached metrics of a machine without loading them, for callers that read Redis asynchronously.
+     *
+     * @param machineId the machine identifier
+     * @return the cached metrics, or null on a miss or when the cache is disabled
+     */
+    public RealtimeMetrics getIfPresent(String machineId) {
+        return cache == null ? null : cache.getIfPresent(machineId);
+    }
+
+    /**
+     * Caches metrics read asynchronously by the caller.
+     *
+     * Unlike {@link #get(String, Function)}, a concurrent invalidation is not ordered against the read, so a
+     * value read just before a write may be cached; {@code solar.redis.near-cache.ttl} bounds how long.
+     *
+     * @param machineId the machine identifier
+     * @param metrics   the metrics read from Redis
+     */
+    public void put(String machineId, RealtimeMetrics metrics) {
+        if (cache != null) {
+            cache.put(machineId, metrics);
+        }
+    }
+
+    /**
+     * Drops the cached metrics of a machine after its hash was written, deleted or expired.
+     *
+     * @param machineId the machine identifier
+     */
+    public void invalidate(String machineId) {
+        if (cache != null) {
+            cache.invalidate(machineId);
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Drops every cached entry, e.g. after invalidation messages may have been missed.
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+}
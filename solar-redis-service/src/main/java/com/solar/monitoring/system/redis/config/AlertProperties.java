@@ -0,0 +1,41 @@
+package com.solar.monitoring.system.redis.config;
+
+import com.solar.monitoring.system.redis.model.AlertMetric;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Alert rule sets, bound from {@code solar.redis.alerts}.
+ *
+ * <p>{@code rules} is the default rule set. A machine listed under {@code machines} uses its own thresholds for
+ * the metrics it names and the default ones for the others.
+ */
+@Data
+@ConfigurationProperties(prefix = "solar.redis.alerts")
+public class AlertProperties {
+
+    private boolean enabled = true;
+
+    private Map<AlertMetric, Threshold> rules = new EnumMap<>(AlertMetric.class);
+
+    private Map<String, Map<AlertMetric, Threshold>> machines = new HashMap<>();
+
+    /**
+     * The thresholds of one metric; an absent bound disables that side of the check.
+     *
+     * <p>An alert is raised when the value goes above {@code high} (or below {@code low}) and cleared only once it
+     * is back below {@code highClear} (or above {@code lowClear}), so a value hovering at a threshold does not
+     * flap. A missing clear threshold defaults to the raise threshold.
+     */
+    @Data
+    public static class Threshold {
+        private Double high;
+        private Double highClear;
+        private Double low;
+        private Double lowClear;
+    }
+}
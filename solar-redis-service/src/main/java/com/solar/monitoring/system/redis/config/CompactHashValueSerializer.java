@@ -0,0 +1,36 @@
+package com.solar.monitoring.system.redis.config;
+
+import com.solar.monitoring.system.redis.util.EpochMillisUtil;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Hash value serializer that stores realtime fields as tagged binary values instead of JSON.
+ *
+ * <p>Layout: one tag byte followed by the payload.
+ * <ul>
+ *   <li>{@code 0x01} Double: 8-byte IEEE-754 big-endian</li>
+ *   <li>{@code 0x02} Long: 8-byte big-endian</li>
+ *   <li>{@code 0x03} LocalDateTime: 8-byte big-endian epoch millis, read as UTC</li>
+ *   <li>{@code 0x04} String: UTF-8 bytes</li>
+ * </ul>
+ * Null is stored as an empty value, as the JSON serializer does. Any other type, and any stored value
+ * whose first byte is not a tag (JSON never starts with a control character), goes through
+ * {@link GenericJackson2JsonRedisSerializer}, so hashes written in {@link HashCodec#JSON} mode stay readable.
+ */
+public class CompactHashValueSerializer implements RedisSerializer<Object> {
+
+    static final byte DOUBLE = 0x01;
+    static final byte LONG = 0x02;
+    static final byte DATE_TIME = 0x03;
+    static final byte STRING = 0x04;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final RedisSerializer<Object> fallback;
+}
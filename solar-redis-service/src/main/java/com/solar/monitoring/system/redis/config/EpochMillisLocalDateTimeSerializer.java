@@ -0,0 +1,28 @@
+package com.solar.monitoring.system.redis.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.solar.monitoring.system.redis.util.EpochMillisUtil;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes a LocalDateTime, taken as UTC, as a JSON number of epoch millis.
+ *
+ * <p>The serializer is not contextual, so it also replaces the ISO patterns declared with {@code @JsonFormat}
+ * on the DTOs.
+ */
+public class EpochMillisLocalDateTimeSerializer extends StdSerializer<LocalDateTime> {
+
+    public EpochMillisLocalDateTimeSerializer() {
+        super(LocalDateTime.class);
+    }
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeNumber(EpochMillisUtil.toEpochMillis(value));
+    }
+}
@@ -0,0 +1,17 @@
+package com.solar.monitoring.system.redis.config;
+
+/**
+ * How realtime hash values are encoded, selected with {@code solar.redis.hash-codec}.
+ */
+public enum HashCodec {
+    /**
+     * Every value is a JSON document written by {@code GenericJackson2JsonRedisSerializer}; timestamps are ISO-8601 strings.
+     */
+    JSON,
+
+    /**
+     * Numbers and timestamps are fixed-width binary values, see {@link CompactHashValueSerializer}.
+     * JSON values written before the switch remain readable.
+     */
+    COMPACT
+}
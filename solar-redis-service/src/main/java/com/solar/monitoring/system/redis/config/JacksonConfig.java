@@ -0,0 +1,27 @@
+package com.solar.monitoring.system.redis.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDateTime;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Makes the application's ObjectMapper write every LocalDateTime as epoch millis when
+     * {@code solar.redis.rest.timestamp-format} is {@link TimestampFormat#EPOCH_MILLIS}.
+     *
+     * <p>This covers the REST responses, the streamed fleet snapshots, the SSE updates and the published alert
+     * events. Request bodies are still read as ISO-8601 date-times.
+     *
+     * @return a customizer registering {@link EpochMillisLocalDateTimeSerializer}
+     */
+    @Bean
+    @ConditionalOnProperty(name = "solar.redis.rest.timestamp-format", havingValue = "EPOCH_MILLIS")
+    public Jackson2ObjectMapperBuilderCustomizer epochMillisTimestamps() {
+        return builder -> builder.serializerByType(LocalDateTime.class, new EpochMillisLocalDateTimeSerializer());
+    }
+}
@@ -1,18 +1,51 @@
 package com.solar.monitoring.system.redis.config;
 
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import com.solar.monitoring.system.redis.replica.ReplicaLagMonitor;
+import com.solar.monitoring.system.redis.replica.ReplicaReadFrom;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.commonspool2.CommonsObjectPool2Metrics;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+
 @Configuration
 public class RedisConfig {
 
+    private static final String POOL_JMX_NAME_PREFIX = "lettuce";
+
+    private final ClientResources clientResources;
+
     @Value("${spring.data.redis.host}")
     private String host;
 
@@ -22,50 +55,371 @@ public class RedisConfig {
     @Value("${spring.data.redis.password}")
     private String password;
 
+    @Value("${spring.data.redis.cluster.nodes:}")
+    private List<String> clusterNodes;
+
+    @Value("${spring.data.redis.cluster.max-redirects:3}")
+    private int clusterMaxRedirects;
+
+    @Value("${solar.redis.cluster.topology-refresh-period:30s}")
+    private Duration clusterTopologyRefreshPeriod;
+
+    @Value("${spring.data.redis.sentinel.master:}")
+    private String sentinelMaster;
+
+    @Value("${spring.data.redis.sentinel.nodes:}")
+    private List<String> sentinelNodes;
+
+    @Value("${spring.data.redis.sentinel.password:}")
+    private String sentinelPassword;
+
+    @Value("${solar.redis.replica.nodes:}")
+    private List<String> replicaNodes;
+
+    @Value("${spring.data.redis.timeout:2000ms}")
+    private Duration timeout;
+
+    @Value("${spring.data.redis.lettuce.pool.max-active:8}")
+    private int poolMaxActive;
+
+    @Value("${spring.data.redis.lettuce.pool.max-idle:8}")
+    private int poolMaxIdle;
+
+    @Value("${spring.data.redis.lettuce.pool.min-idle:0}")
+    private int poolMinIdle;
+
+    @Value("${solar.redis.hash-codec:JSON}")
+    private HashCodec hashCodec;
+
     /**
-     * Creates a Lettuce-based RedisConnectionFactory for a standalone Redis instance.
+     * Creates the Redis configuration.
+     *
+     * @param clientResources the Lettuce client resources of Spring Boot's auto-configuration, which record
+     *                        command latencies in the meter registry
+     */
+    public RedisConfig(ClientResources clientResources) {
+        this.clientResources = clientResources;
+    }
+
+    /**
+     * Creates a Lettuce-based RedisConnectionFactory for a standalone Redis instance, for the master named by
+     * {@code spring.data.redis.sentinel.master}, or for a Redis Cluster when {@code spring.data.redis.cluster.nodes}
+     * is set.
      *
      * <p>Uses the configured host, port, and password properties to build a
-     * RedisStandaloneConfiguration and returns a LettuceConnectionFactory initialized
-     * with that configuration.
+     * RedisStandaloneConfiguration; the Sentinel nodes to build a RedisSentinelConfiguration that follows the
+     * master through failovers; or the seed nodes and password to build a RedisClusterConfiguration whose
+     * slot map is refreshed every {@code solar.redis.cluster.topology-refresh-period} and whenever a node
+     * answers with a redirect or a connection is lost. Every command of this factory goes to a master.
+     * Pipelines and scripts run on dedicated connections, so
+     * those are borrowed from a pool sized by {@code spring.data.redis.lettuce.pool.*}
+     * instead of being opened per call, and pipelined commands are flushed in a single
+     * write when the pipeline is closed. The factory also serves reactive connections, which share
+     * a single native connection.
+     *
+     * <p>The client uses the auto-configured {@link ClientResources}, so every command's latency is published
+     * as {@code lettuce.command.completion} and {@code lettuce.command.firstresponse}, tagged with the
+     * {@code remote} node, and the pools are registered in JMX under {@code lettuce} names for
+     * {@link #redisPoolMetrics()}.
+     *
+     * @return a RedisConnectionFactory backed by Lettuce for the configured standalone Redis, Sentinel master
+     *         or cluster
+     */
+    @Bean
+    @Primary
+    public LettuceConnectionFactory redisConnectionFactory() {
+        LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder clientConfig = clientConfig();
+
+        RedisConfiguration config;
+        if (!clusterNodes.isEmpty()) {
+            RedisClusterConfiguration cluster = new RedisClusterConfiguration(clusterNodes);
+            cluster.setMaxRedirects(clusterMaxRedirects);
+            cluster.setPassword(password);
+            config = cluster;
+
+            clientConfig.clientOptions(ClusterClientOptions.builder()
+                    .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                            .enablePeriodicRefresh(clusterTopologyRefreshPeriod)
+                            .enableAllAdaptiveRefreshTriggers()
+                            .build())
+                    .build());
+        } else if (!sentinelMaster.isBlank()) {
+            config = sentinelConfiguration();
+        } else {
+            RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration();
+            standalone.setHostName(host);
+            standalone.setPort(port);
+            standalone.setPassword(password);
+            config = standalone;
+        }
+
+        return connectionFactory(config, clientConfig);
+    }
+
+    /**
+     * Creates the connection factory realtime reads are routed through when {@code solar.redis.replica.enabled}
+     * is set.
+     *
+     * <p>The topology is the Sentinel master and its replicas when {@code spring.data.redis.sentinel.master} is
+     * set, otherwise the configured host and port as master with the static {@code solar.redis.replica.nodes}.
+     * Reads go to the replicas {@link ReplicaLagMonitor} considers fresh, in turn, and to the master when none is
+     * or the chosen replica's connection is down (see {@link ReplicaReadFrom}).
      *
-     * @return a RedisConnectionFactory backed by Lettuce for the configured standalone Redis
+     * @param lagMonitor    the replication state of the replicas
+     * @param meterRegistry registry the per-node read counters are bound to
+     * @return a RedisConnectionFactory reading from replicas
+     * @throws IllegalStateException if a Redis Cluster is configured, whose reads this routing does not cover
      */
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
-        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
-        config.setHostName(host);
-        config.setPort(port);
-        config.setPassword(password);
-        return new LettuceConnectionFactory(config);
+    @ConditionalOnProperty(name = "solar.redis.replica.enabled", havingValue = "true")
+    public LettuceConnectionFactory replicaConnectionFactory(ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        if (!clusterNodes.isEmpty()) {
+            throw new IllegalStateException(
+                    "solar.redis.replica.enabled needs a Sentinel or static master/replica setup, not a Redis Cluster");
+        }
+
+        RedisConfiguration config;
+        if (!sentinelMaster.isBlank()) {
+            config = sentinelConfiguration();
+        } else {
+            RedisStaticMasterReplicaConfiguration masterReplica = new RedisStaticMasterReplicaConfiguration(host, port);
+            replicaNodes.stream()
+                    .map(RedisNode::fromString)
+                    .forEach(node -> masterReplica.node(node.getHost(), node.getPort()));
+            masterReplica.setPassword(password);
+            config = masterReplica;
+        }
+
+        return connectionFactory(config, clientConfig().readFrom(new ReplicaReadFrom(lagMonitor, meterRegistry)));
+    }
+
+    /**
+     * Builds the Sentinel configuration of {@code spring.data.redis.sentinel.*}.
+     *
+     * @return the configuration of the monitored master and its Sentinels
+     */
+    private RedisSentinelConfiguration sentinelConfiguration() {
+        RedisSentinelConfiguration sentinel = new RedisSentinelConfiguration(sentinelMaster, new HashSet<>(sentinelNodes));
+        sentinel.setPassword(password);
+        if (!sentinelPassword.isEmpty()) {
+            sentinel.setSentinelPassword(sentinelPassword);
+        }
+        return sentinel;
+    }
+
+    /**
+     * Starts the client configuration shared by every connection factory: the auto-configured
+     * {@link ClientResources}, the command timeout and a pool sized by {@code spring.data.redis.lettuce.pool.*}.
+     *
+     * @return a builder to complete with topology-specific options
+     */
+    private LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder clientConfig() {
+        GenericObjectPoolConfig<?> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(poolMaxActive);
+        poolConfig.setMaxIdle(poolMaxIdle);
+        poolConfig.setMinIdle(poolMinIdle);
+        poolConfig.setJmxNamePrefix(POOL_JMX_NAME_PREFIX);
+
+        return LettucePoolingClientConfiguration.builder()
+                .clientResources(clientResources)
+                .commandTimeout(timeout)
+                .poolConfig(poolConfig);
+    }
+
+    /**
+     * Creates a connection factory that flushes pipelined commands in a single write when the pipeline is closed.
+     *
+     * @param config       the Redis topology
+     * @param clientConfig the client configuration
+     * @return the connection factory
+     */
+    private LettuceConnectionFactory connectionFactory(
+            RedisConfiguration config,
+            LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder clientConfig) {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(config, clientConfig.build());
+        factory.setPipeliningFlushPolicy(LettuceConnection.PipeliningFlushPolicy.flushOnClose());
+        return factory;
+    }
+
+    /**
+     * Publishes the state of the Lettuce connection pools, such as {@code commons.pool2.num.active},
+     * {@code commons.pool2.num.idle} and {@code commons.pool2.num.waiters}, tagged with the pool's JMX name.
+     *
+     * <p>The pools are created lazily on the first pipeline or script call and are bound as soon as they
+     * are registered in JMX.
+     *
+     * @return a binder for every commons-pool2 pool registered in JMX
+     */
+    @Bean
+    public CommonsObjectPool2Metrics redisPoolMetrics() {
+        return new CommonsObjectPool2Metrics();
     }
 
     /**
      * Creates and configures a RedisTemplate for String keys and JSON-serialized values.
      *
      * <p>Configures the template to use the application's RedisConnectionFactory, String serialization
-     * for keys and hash keys, and GenericJackson2JsonRedisSerializer for values, hash values, and as
-     * the default serializer. The template is fully initialized via {@code afterPropertiesSet()}.
+     * for keys and hash keys, and GenericJackson2JsonRedisSerializer for values and as the default
+     * serializer. Hash values use the same JSON serializer, or {@link CompactHashValueSerializer} when
+     * {@code solar.redis.hash-codec} is {@link HashCodec#COMPACT}. The template is fully initialized via
+     * {@code afterPropertiesSet()}.
      *
      * @return a ready-to-use {@code RedisTemplate<String, Object>} configured with string key
      *         serialization and JSON value serialization
      */
     @Bean
+    @Primary
     public RedisTemplate<String, Object> redisTemplate() {
+        return redisTemplate(redisConnectionFactory());
+    }
+
+    /**
+     * Creates the RedisTemplate realtime reads are routed through when {@code solar.redis.replica.enabled} is set.
+     *
+     * <p>Uses the same serializers as {@link #redisTemplate()} on {@link #replicaConnectionFactory}.
+     *
+     * @param replicaConnectionFactory the connection factory reading from replicas
+     * @return a {@code RedisTemplate<String, Object>} reading from replicas
+     */
+    @Bean
+    @ConditionalOnProperty(name = "solar.redis.replica.enabled", havingValue = "true")
+    public RedisTemplate<String, Object> replicaRedisTemplate(
+            @Qualifier("replicaConnectionFactory") RedisConnectionFactory replicaConnectionFactory) {
+        return redisTemplate(replicaConnectionFactory);
+    }
+
+    /**
+     * Creates a RedisTemplate with String keys and hash keys, JSON values and hash values following
+     * {@code solar.redis.hash-codec}.
+     *
+     * @param connectionFactory the connection factory the template runs on
+     * @return the initialized template
+     */
+    private RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
-        template.setConnectionFactory(redisConnectionFactory());
+        template.setConnectionFactory(connectionFactory);
 
         // Use String serializer for keys
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
 
         // Use JSON serializer for values
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        template.setValueSerializer(jsonSerializer);
+        template.setHashValueSerializer(hashValueSerializer(jsonSerializer));
 
-        template.setDefaultSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setDefaultSerializer(jsonSerializer);
         template.afterPropertiesSet();
 
         return template;
     }
+
+    /**
+     * Creates a ReactiveRedisTemplate that reads and writes exactly what {@link #redisTemplate()} does.
+     *
+     * <p>Keys and hash keys are Strings, values are JSON and hash values follow {@code solar.redis.hash-codec}.
+     * Commands run on the connection factory's shared native connection and never block the caller.
+     *
+     * @return a {@code ReactiveRedisTemplate<String, Object>} with the same serializers as the blocking template
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate() {
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        RedisSerializationContext<String, Object> context = RedisSerializationContext
+                .<String, Object>newSerializationContext(jsonSerializer)
+                .key(StringRedisSerializer.UTF_8)
+                .hashKey(StringRedisSerializer.UTF_8)
+                .hashValue(hashValueSerializer(jsonSerializer))
+                .build();
+
+        return new ReactiveRedisTemplate<>(redisConnectionFactory(), context);
+    }
+
+    /**
+     * Selects the serializer for realtime hash values.
+     *
+     * @param jsonSerializer the JSON serializer used for all other values
+     * @return {@link CompactHashValueSerializer} when {@code solar.redis.hash-codec} is {@link HashCodec#COMPACT},
+     *         otherwise the JSON serializer
+     */
+    private RedisSerializer<Object> hashValueSerializer(GenericJackson2JsonRedisSerializer jsonSerializer) {
+        return hashCodec == HashCodec.COMPACT ? new CompactHashValueSerializer(jsonSerializer) : jsonSerializer;
+    }
+
+    /**
+     * Loads the Lua script that writes a machine's realtime hash and its TTL in one call.
+     *
+     * @return the {@code scripts/save-metrics.lua} script, returning the number of fields written
+     */
+    @Bean
+    public RedisScript<Long> saveMetricsScript() {
+        return RedisScript.of(new ClassPathResource("scripts/save-metrics.lua"), Long.class);
+    }
+
+    /**
+     * Loads the Lua script that writes a machine's realtime hash only if the sample is newer than the stored one.
+     *
+     * @return the {@code scripts/upsert-metrics.lua} script, returning 1 if the sample was written and 0 if stale
+     */
+    @Bean
+    public RedisScript<Long> upsertMetricsScript() {
+        return RedisScript.of(new ClassPathResource("scripts/upsert-metrics.lua"), Long.class);
+    }
+
+    /**
+     * Loads the Lua script that applies a saved sample to the fleet totals and ranking indexes.
+     *
+     * @return the {@code scripts/fleet-update.lua} script, returning 1 if the sample was applied
+     */
+    @Bean
+    public RedisScript<Long> fleetUpdateScript() {
+        return RedisScript.of(new ClassPathResource("scripts/fleet-update.lua"), Long.class);
+    }
+
+    /**
+     * Loads the Lua script that removes deleted or expired machines from the fleet aggregates.
+     *
+     * @return the {@code scripts/fleet-remove.lua} script, returning the number of machines removed
+     */
+    @Bean
+    public RedisScript<Long> fleetRemoveScript() {
+        return RedisScript.of(new ClassPathResource("scripts/fleet-remove.lua"), Long.class);
+    }
+
+    /**
+     * Loads the Lua script that removes machines not seen for longer than the retention from the machine registry.
+     *
+     * @return the {@code scripts/registry-prune.lua} script, returning the number of machines removed
+     */
+    @Bean
+    public RedisScript<Long> registryPruneScript() {
+        return RedisScript.of(new ClassPathResource("scripts/registry-prune.lua"), Long.class);
+    }
+
+    /**
+     * Loads the Lua script that downsamples a machine's rolling time series into min/max/avg buckets.
+     *
+     * @return the {@code scripts/timeseries-downsample.lua} script, returning a flat list of bucket values
+     */
+    @Bean
+    public RedisScript<List> downsampleScript() {
+        return RedisScript.of(new ClassPathResource("scripts/timeseries-downsample.lua"), List.class);
+    }
+
+    /**
+     * Creates the shared container for Redis pub/sub subscriptions, such as keyspace notifications.
+     *
+     * <p>All listeners share the container's single subscription connection. Messages are dispatched on the
+     * connection's own thread rather than a new thread per message, which keeps them in publish order and
+     * avoids a thread per save; listeners must therefore only hand messages off and never block.
+     *
+     * @return a RedisMessageListenerContainer bound to the application's RedisConnectionFactory
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer() {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory());
+        container.setTaskExecutor(new SyncTaskExecutor());
+        return container;
+    }
 }
\ No newline at end of file
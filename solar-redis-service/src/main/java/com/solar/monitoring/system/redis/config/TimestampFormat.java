@@ -0,0 +1,21 @@
+package com.solar.monitoring.system.redis.config;
+
+/**
+ * How timestamps are represented, selected with {@code solar.redis.timestamp-format} for the realtime hashes and
+ * {@code solar.redis.rest.timestamp-format} for the JSON the service returns.
+ *
+ * <p>With {@link HashCodec#COMPACT} the realtime hashes always hold timestamps as binary epoch millis, so the
+ * hash setting only applies to {@link HashCodec#JSON}.
+ */
+public enum TimestampFormat {
+    /**
+     * ISO-8601 date-times, such as {@code "2024-06-01T12:30:15"}.
+     */
+    ISO,
+
+    /**
+     * Milliseconds since the epoch as a number, the date-time taken as UTC. Realtime hashes written in ISO format
+     * remain readable.
+     */
+    EPOCH_MILLIS
+}
@@ -0,0 +1,29 @@
+package com.solar.monitoring.system.redis.config;
+
+/**
+ * How a realtime sample is written to its Redis hash, selected with {@code solar.redis.write-mode}.
+ */
+public enum WriteMode {
+    /**
+     * One {@code HSET} per field followed by {@code EXPIRE}; one round trip per command.
+     */
+    PER_FIELD,
+
+    /**
+     * All fields in a single {@code HSET} pipelined with {@code EXPIRE}; one round trip per sample.
+     */
+    PIPELINED,
+
+    /**
+     * A server-side Lua script, invoked by {@code EVALSHA}, that writes all fields and the TTL atomically;
+     * pipelined like {@link #PIPELINED}.
+     */
+    SCRIPT,
+
+    /**
+     * Like {@link #SCRIPT}, but the script compares the sample's timestamp with the one stored in the hidden
+     * {@code _ts} field and writes, refreshes the TTL and publishes the update only if the sample is newer, so
+     * redelivered or reordered samples never replace a newer one.
+     */
+    UPSERT
+}
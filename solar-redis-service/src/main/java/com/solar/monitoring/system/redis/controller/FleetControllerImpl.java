@@ -0,0 +1,66 @@
+package com.solar.monitoring.system.redis.controller;
+
+import com.solar.monitoring.system.redis.dto.FleetRankingDto;
+import com.solar.monitoring.system.redis.dto.FleetTotalsDto;
+import com.solar.monitoring.system.redis.model.FleetMetric;
+import com.solar.monitoring.system.redis.service.IFleetAggregateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/fleet")
+@RequiredArgsConstructor
+public class FleetControllerImpl implements IFleetController {
+
+    private final IFleetAggregateService fleetAggregateService;
+
+    @Value("${solar.redis.fleet.max-ranking-size:1000}")
+    private int maxRankingSize;
+
+    /**
+     * Returns the running fleet totals, maintained on every save.
+     *
+     * @return HTTP 200 with the fleet totals
+     */
+    @GetMapping("/totals")
+    @Override
+    public ResponseEntity<FleetTotalsDto> getTotals() {
+        log.info("Retrieving fleet totals");
+
+        return ResponseEntity.ok(fleetAggregateService.getTotals());
+    }
+
+    /**
+     * Returns the top or bottom machines by a metric, e.g. the 20 highest by power output.
+     *
+     * @param metric the metric to rank by, power output by default
+     * @param limit  the number of machines to return, 20 by default
+     * @param order  {@code DESC} (default) for the highest values first, {@code ASC} for the lowest
+     * @return HTTP 200 with the ranked machines, or HTTP 400 if {@code limit} is outside 1 to
+     *         {@code solar.redis.fleet.max-ranking-size}
+     */
+    @GetMapping("/ranking")
+    @Override
+    public ResponseEntity<List<FleetRankingDto>> getRanking(
+            @RequestParam(defaultValue = "POWER_OUTPUT") FleetMetric metric,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "DESC") Sort.Direction order) {
+        log.info("Retrieving fleet ranking by {} ({} {})", metric, order, limit);
+
+        if (limit < 1 || limit > maxRankingSize) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(fleetAggregateService.getRanking(metric, limit, order));
+    }
+}
@@ -0,0 +1,31 @@
+package com.solar.monitoring.system.redis.controller;
+
+import com.solar.monitoring.system.redis.dto.FleetRankingDto;
+import com.solar.monitoring.system.redis.dto.FleetTotalsDto;
+import com.solar.monitoring.system.redis.model.FleetMetric;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+public interface IFleetController {
+    /**
+     * Retrieve the running totals of the whole fleet.
+     *
+     * @return a ResponseEntity containing the number of machines reporting and the fleet's total and average metrics
+     */
+    ResponseEntity<FleetTotalsDto> getTotals();
+
+    /**
+     * Retrieve the machines ranked highest or lowest by a metric.
+     *
+     * @param metric the metric to rank by
+     * @param limit  the number of machines to return
+     * @param order  {@code DESC} for the highest values first, {@code ASC} for the lowest
+     * @return a ResponseEntity containing the ranked machines with their current value
+     */
+    ResponseEntity<List<FleetRankingDto>> getRanking(@RequestParam FleetMetric metric,
+                                                     @RequestParam int limit,
+                                                     @RequestParam Sort.Direction order);
+}
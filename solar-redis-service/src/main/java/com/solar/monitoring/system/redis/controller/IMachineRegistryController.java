@@ -0,0 +1,43 @@
+package com.solar.monitoring.system.redis.controller;
+
+import com.solar.monitoring.system.redis.dto.MachinePageDto;
+import com.solar.monitoring.system.redis.dto.MachineRegistryEntryDto;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+public interface IMachineRegistryController {
+    /**
+     * Retrieve one page of the known machines, ordered by machineId.
+     *
+     * @param after the {@code nextCursor} of the previous page, absent for the first page
+     * @param limit the maximum number of machines to return
+     * @return a ResponseEntity containing the machines with their last-seen time and the cursor of the next page
+     */
+    ResponseEntity<MachinePageDto> getMachines(@RequestParam String after, @RequestParam int limit);
+
+    /**
+     * Retrieve every known machine.
+     *
+     * @return a ResponseEntity containing all machines with their last-seen time, most recently seen first
+     */
+    ResponseEntity<List<MachineRegistryEntryDto>> getAllMachines();
+
+    /**
+     * Retrieve the machines that have stopped reporting.
+     *
+     * @param seconds how long a machine must have been silent
+     * @param limit   the maximum number of machines to return
+     * @return a ResponseEntity containing the silent machines with their last-seen time, longest silent first
+     */
+    ResponseEntity<List<MachineRegistryEntryDto>> getSilentMachines(@RequestParam long seconds,
+                                                                    @RequestParam int limit);
+
+    /**
+     * Count the known machines.
+     *
+     * @return a ResponseEntity containing the number of registered machines
+     */
+    ResponseEntity<Long> countMachines();
+}
@@ -0,0 +1,46 @@
+package com.solar.monitoring.system.redis.controller;
+
+import com.solar.monitoring.system.redis.dto.BatchItemResultDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface IReactiveRealtimeController {
+    /**
+     * Retrieve the latest real-time telemetry for a specific machine without holding a request thread.
+     *
+     * @param machineId the unique identifier of the machine (provided as a URI path variable)
+     * @return a Mono emitting a ResponseEntity containing the RealtimeDataDto for the requested machine
+     */
+    Mono<ResponseEntity<RealtimeDataDto>> getRealtimeData(@PathVariable String machineId);
+
+    /**
+     * Store realtime telemetry for many machines in one request without holding a request thread.
+     *
+     * @param batch the realtime data of each machine, as delivered by a gateway
+     * @return a Mono emitting a ResponseEntity containing one result per item, in request order
+     */
+    Mono<ResponseEntity<List<BatchItemResultDto>>> saveRealtimeDataBatch(@RequestBody List<RealtimeDataDto> batch);
+
+    /**
+     * Retrieve the latest real-time telemetry of many machines in one request.
+     *
+     * @param machineIds the machine identifiers, provided as a repeated or comma-separated query parameter
+     * @return a Flux of the RealtimeDataDto of every machine that has data, written as a JSON array
+     */
+    Flux<RealtimeDataDto> getFleetSnapshot(@RequestParam List<String> machineIds);
+
+    /**
+     * Retrieve the latest real-time telemetry of many machines, for id lists too long for a query string.
+     *
+     * @param machineIds the machine identifiers, provided as a JSON array request body
+     * @return a Flux of the RealtimeDataDto of every machine that has data, written as a JSON array
+     */
+    Flux<RealtimeDataDto> queryFleetSnapshot(@RequestBody List<String> machineIds);
+}
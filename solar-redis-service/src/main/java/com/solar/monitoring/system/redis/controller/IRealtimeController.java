@@ -1,8 +1,18 @@
 package com.solar.monitoring.system.redis.controller;
 
+import com.solar.monitoring.system.redis.dto.BatchItemResultDto;
 import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.dto.TimeSeriesBucketDto;
+import com.solar.monitoring.system.redis.model.TimeSeriesMetric;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface IRealtimeController {
     /**
@@ -12,4 +22,53 @@ public interface IRealtimeController {
  * @return a ResponseEntity containing the RealtimeDataDto for the requested machine; HTTP status reflects success or failure
  */
 ResponseEntity<RealtimeDataDto> getRealtimeData(@PathVariable String machineId);
-}
\ No newline at end of file
+
+    /**
+     * Store realtime telemetry for many machines in one request.
+     *
+     * @param batch the realtime data of each machine, as delivered by a gateway
+     * @return a ResponseEntity containing one result per item, in request order
+     */
+    ResponseEntity<List<BatchItemResultDto>> saveRealtimeDataBatch(@RequestBody List<RealtimeDataDto> batch);
+
+    /**
+     * Retrieve the latest real-time telemetry of many machines in one request.
+     *
+     * @param machineIds the machine identifiers, provided as a repeated or comma-separated query parameter
+     * @return a ResponseEntity streaming a JSON array with the RealtimeDataDto of every machine that has data
+     */
+    ResponseEntity<StreamingResponseBody> getFleetSnapshot(@RequestParam List<String> machineIds);
+
+    /**
+     * Retrieve the latest real-time telemetry of many machines, for id lists too long for a query string.
+     *
+     * @param machineIds the machine identifiers, provided as a JSON array request body
+     * @return a ResponseEntity streaming a JSON array with the RealtimeDataDto of every machine that has data
+     */
+    ResponseEntity<StreamingResponseBody> queryFleetSnapshot(@RequestBody List<String> machineIds);
+
+    /**
+     * Retrieve a downsampled view of a machine's rolling time-series window.
+     *
+     * @param machineId         the unique identifier of the machine (provided as a URI path variable)
+     * @param metric            the metric to aggregate
+     * @param from              start of the range, or absent for the start of the window
+     * @param to                end of the range, or absent for the end of the window
+     * @param resolutionSeconds bucket size in seconds
+     * @return a ResponseEntity containing the min/max/avg of every non-empty bucket, oldest first
+     */
+    ResponseEntity<List<TimeSeriesBucketDto>> getTimeSeries(@PathVariable String machineId,
+                                                            @RequestParam TimeSeriesMetric metric,
+                                                            @RequestParam LocalDateTime from,
+                                                            @RequestParam LocalDateTime to,
+                                                            @RequestParam long resolutionSeconds);
+
+    /**
+     * Subscribe to realtime updates of a set of machines as Server-Sent Events.
+     *
+     * @param machineIds the machine identifiers, provided as a repeated or comma-separated query parameter
+     * @return a ResponseEntity with an SseEmitter sending the current values followed by an {@code update} event
+     *         per saved sample
+     */
+    ResponseEntity<SseEmitter> subscribeRealtimeData(@RequestParam List<String> machineIds);
+}
@@ -0,0 +1,96 @@
+package com.solar.monitoring.system.redis.controller;
+
+import com.solar.monitoring.system.redis.dto.MachinePageDto;
+import com.solar.monitoring.system.redis.dto.MachineRegistryEntryDto;
+import com.solar.monitoring.system.redis.service.IMachineRegistryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/machines")
+@RequiredArgsConstructor
+public class MachineRegistryControllerImpl implements IMachineRegistryController {
+
+    private final IMachineRegistryService machineRegistryService;
+
+    @Value("${solar.redis.registry.max-page-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * Returns one page of the registry, ordered by machineId; pass the returned {@code nextCursor} as
+     * {@code after} to read the next page.
+     *
+     * @param after the machineId the previous page ended with, absent for the first page
+     * @param limit the page size, 100 by default
+     * @return HTTP 200 with the page, or HTTP 400 if {@code limit} is outside 1 to
+     *         {@code solar.redis.registry.max-page-size}
+     */
+    @GetMapping
+    @Override
+    public ResponseEntity<MachinePageDto> getMachines(@RequestParam(required = false) String after,
+                                                      @RequestParam(defaultValue = "100") int limit) {
+        log.info("Retrieving registered machines after {} ({})", after, limit);
+
+        if (limit < 1 || limit > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(machineRegistryService.getMachines(after, limit));
+    }
+
+    /**
+     * Returns every registered machine.
+     *
+     * @return HTTP 200 with all machines, most recently seen first
+     */
+    @GetMapping("/all")
+    @Override
+    public ResponseEntity<List<MachineRegistryEntryDto>> getAllMachines() {
+        log.info("Retrieving all registered machines");
+
+        return ResponseEntity.ok(machineRegistryService.getMachines());
+    }
+
+    /**
+     * Returns the machines whose newest sample is older than the given number of seconds.
+     *
+     * @param seconds how long a machine must have been silent, 300 by default
+     * @param limit   the maximum number of machines to return, 100 by default
+     * @return HTTP 200 with the silent machines, longest silent first, or HTTP 400 if {@code seconds} is negative
+     *         or {@code limit} is outside 1 to {@code solar.redis.registry.max-page-size}
+     */
+    @GetMapping("/silent")
+    @Override
+    public ResponseEntity<List<MachineRegistryEntryDto>> getSilentMachines(
+            @RequestParam(defaultValue = "300") long seconds,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.info("Retrieving machines silent for {}s ({})", seconds, limit);
+
+        if (seconds < 0 || limit < 1 || limit > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(machineRegistryService.getSilentMachines(Duration.ofSeconds(seconds), limit));
+    }
+
+    /**
+     * Returns the number of registered machines.
+     *
+     * @return HTTP 200 with the count
+     */
+    @GetMapping("/count")
+    @Override
+    public ResponseEntity<Long> countMachines() {
+        return ResponseEntity.ok(machineRegistryService.countMachines());
+    }
+}
@@ -0,0 +1,107 @@
+package com.solar.monitoring.system.redis.controller;
+
+import com.solar.monitoring.system.redis.dto.BatchItemResultDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.service.IReactiveRealtimeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link RealtimeControllerImpl}, served under {@code /api/reactive} when
+ * {@code solar.redis.reactive.enabled} is true.
+ *
+ * <p>Handlers return as soon as the Redis commands are sent; the request is completed asynchronously when
+ * the reply arrives, so a small, fixed pool of request threads can hold many concurrent polls.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/reactive")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "solar.redis.reactive.enabled", havingValue = "true")
+public class ReactiveRealtimeControllerImpl implements IReactiveRealtimeController {
+
+    private final IReactiveRealtimeService reactiveRealtimeService;
+
+    /**
+     * Returns the latest realtime metrics stored for a machine.
+     *
+     * @param machineId the machine identifier from the request path
+     * @return HTTP 200 with the machine's realtime data, or HTTP 404 if the service returns none
+     */
+    @GetMapping("/realtime/{machineId}")
+    @Override
+    public Mono<ResponseEntity<RealtimeDataDto>> getRealtimeData(@PathVariable String machineId) {
+        log.info("Retrieving realtime data for machine: {}", machineId);
+
+        return reactiveRealtimeService.getRealtimeMetrics(machineId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Stores realtime metrics for many machines through the service's pipelined batch write.
+     *
+     * @param batch the realtime data of each machine
+     * @return HTTP 200 with one result per item, in request order
+     */
+    @PostMapping("/realtime/batch")
+    @Override
+    public Mono<ResponseEntity<List<BatchItemResultDto>>> saveRealtimeDataBatch(
+            @RequestBody List<RealtimeDataDto> batch) {
+        log.info("Saving realtime data batch of {} machines", batch.size());
+
+        return reactiveRealtimeService.saveMetricsBatch(batch)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Returns the realtime metrics of many machines named in the query string.
+     *
+     * @param machineIds the machine identifiers
+     * @return a JSON array of the machines that have data
+     */
+    @GetMapping("/realtime")
+    @Override
+    public Flux<RealtimeDataDto> getFleetSnapshot(@RequestParam List<String> machineIds) {
+        return snapshot(machineIds);
+    }
+
+    /**
+     * Returns the realtime metrics of many machines named in the request body.
+     *
+     * @param machineIds the machine identifiers
+     * @return a JSON array of the machines that have data
+     */
+    @PostMapping("/realtime/snapshot")
+    @Override
+    public Flux<RealtimeDataDto> queryFleetSnapshot(@RequestBody List<String> machineIds) {
+        return snapshot(machineIds);
+    }
+
+    /**
+     * Reads the realtime metrics of the de-duplicated machine ids.
+     *
+     * @param machineIds the machine identifiers
+     * @return the metrics of the machines that have data, in request order
+     */
+    private Flux<RealtimeDataDto> snapshot(List<String> machineIds) {
+        LinkedHashSet<String> ids = new LinkedHashSet<>(machineIds);
+        log.info("Retrieving realtime data for {} machines", ids.size());
+
+        return reactiveRealtimeService.getRealtimeMetrics(ids);
+    }
+}
@@ -0,0 +1,202 @@
+package com.solar.monitoring.system.redis.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.solar.monitoring.system.redis.dto.BatchItemResultDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.dto.TimeSeriesBucketDto;
+import com.solar.monitoring.system.redis.model.TimeSeriesMetric;
+import com.solar.monitoring.system.redis.service.IRealtimeService;
+import com.solar.monitoring.system.redis.service.ITimeSeriesService;
+import com.solar.monitoring.system.redis.subscription.RealtimeUpdateBroadcaster;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@Slf4j
+@RestController
+public class RealtimeControllerImpl extends AbstractRealtimeController {
+
+    private final ObjectMapper objectMapper;
+    private final ITimeSeriesService timeSeriesService;
+    private final RealtimeUpdateBroadcaster updateBroadcaster;
+
+    @Value("${solar.redis.fleet.chunk-size:1000}")
+    private int fleetChunkSize;
+
+    /**
+     * Creates the realtime controller backed by the given service.
+     *
+     * @param realtimeService   service used to read and write realtime metrics
+     * @param objectMapper      the application's ObjectMapper, used to stream fleet snapshots
+     * @param timeSeriesService service used to query the rolling time-series window
+     * @param updateBroadcaster fan-out of realtime updates to SSE subscribers
+     */
+    public RealtimeControllerImpl(IRealtimeService realtimeService, ObjectMapper objectMapper,
+                                  ITimeSeriesService timeSeriesService, RealtimeUpdateBroadcaster updateBroadcaster) {
+        super(realtimeService);
+        this.objectMapper = objectMapper;
+        this.timeSeriesService = timeSeriesService;
+        this.updateBroadcaster = updateBroadcaster;
+    }
+
+    /**
+     * Returns the latest realtime metrics stored for a machine.
+     *
+     * @param machineId the machine identifier from the request path
+     * @return HTTP 200 with the machine's realtime data, or HTTP 404 if the service returns none
+     */
+    @GetMapping("/realtime/{machineId}")
+    @Override
+    public ResponseEntity<RealtimeDataDto> getRealtimeData(@PathVariable String machineId) {
+        logRequest(machineId);
+
+        return realtimeService.getRealtimeMetrics(machineId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Stores realtime metrics for many machines through the service's pipelined batch write.
+     *
+     * @param batch the realtime data of each machine
+     * @return HTTP 200 with one result per item, in request order
+     */
+    @PostMapping("/realtime/batch")
+    @Override
+    public ResponseEntity<List<BatchItemResultDto>> saveRealtimeDataBatch(@RequestBody List<RealtimeDataDto> batch) {
+        log.info("Saving realtime data batch of {} machines", batch.size());
+
+        return ResponseEntity.ok(realtimeService.saveMetricsBatch(batch));
+    }
+
+    /**
+     * Streams the realtime metrics of many machines named in the query string.
+     *
+     * @param machineIds the machine identifiers
+     * @return HTTP 200 streaming a JSON array of the machines that have data
+     */
+    @GetMapping("/realtime")
+    @Override
+    public ResponseEntity<StreamingResponseBody> getFleetSnapshot(@RequestParam List<String> machineIds) {
+        return streamSnapshot(machineIds);
+    }
+
+    /**
+     * Streams the realtime metrics of many machines named in the request body.
+     *
+     * @param machineIds the machine identifiers
+     * @return HTTP 200 streaming a JSON array of the machines that have data
+     */
+    @PostMapping("/realtime/snapshot")
+    @Override
+    public ResponseEntity<StreamingResponseBody> queryFleetSnapshot(@RequestBody List<String> machineIds) {
+        return streamSnapshot(machineIds);
+    }
+
+    /**
+     * Returns a machine's rolling window downsampled into fixed-size buckets by Redis.
+     *
+     * @param machineId         the machine identifier from the request path
+     * @param metric            the metric to aggregate, power output by default
+     * @param from              ISO start of the range; the whole window when omitted
+     * @param to                ISO end of the range; the whole window when omitted
+     * @param resolutionSeconds bucket size in seconds, one minute by default
+     * @return HTTP 200 with the non-empty buckets, or HTTP 400 if the resolution is not positive
+     */
+    @GetMapping("/realtime/{machineId}/series")
+    @Override
+    public ResponseEntity<List<TimeSeriesBucketDto>> getTimeSeries(
+            @PathVariable String machineId,
+            @RequestParam(defaultValue = "POWER_OUTPUT") TimeSeriesMetric metric,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "60") long resolutionSeconds) {
+        logRequest(machineId);
+
+        if (resolutionSeconds <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(timeSeriesService.getDownsampled(machineId, metric, from, to,
+                Duration.ofSeconds(resolutionSeconds)));
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of the given machines' realtime updates.
+     *
+     * <p>The current values are sent first, then one {@code update} event per saved sample. A client that
+     * reads slower than samples arrive receives only the latest value of each machine.
+     *
+     * @param machineIds the machine identifiers
+     * @return HTTP 200 with the event stream, HTTP 400 if too many machines are named, or HTTP 503 if
+     *         realtime updates are disabled
+     */
+    @GetMapping(value = "/realtime/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Override
+    public ResponseEntity<SseEmitter> subscribeRealtimeData(@RequestParam List<String> machineIds) {
+        log.info("Subscribing to realtime data of {} machines", machineIds.size());
+
+        if (!updateBroadcaster.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        try {
+            return ResponseEntity.ok(updateBroadcaster.subscribe(machineIds,
+                    realtimeService.getRealtimeMetrics(new LinkedHashSet<>(machineIds))));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected realtime subscription: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Builds a streamed JSON array of realtime metrics.
+     *
+     * <p>Ids are de-duplicated and fetched in chunks of {@code solar.redis.fleet.chunk-size}, one pipelined
+     * round trip per chunk, and every chunk is written and flushed before the next is read, so memory
+     * stays bounded by the chunk size however many machines are requested.
+     *
+     * @param machineIds the machine identifiers
+     * @return HTTP 200 with a streaming JSON body
+     */
+    private ResponseEntity<StreamingResponseBody> streamSnapshot(List<String> machineIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(machineIds));
+        log.info("Retrieving realtime data for {} machines", ids.size());
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                for (int from = 0; from < ids.size(); from += fleetChunkSize) {
+                    List<String> chunk = ids.subList(from, Math.min(from + fleetChunkSize, ids.size()));
+                    for (RealtimeDataDto metrics : realtimeService.getRealtimeMetrics(chunk)) {
+                        generator.writeObject(metrics);
+                    }
+                    generator.flush();
+                }
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.solar.monitoring.system.redis.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.solar.monitoring.system.redis.model.AlertLevel;
+import com.solar.monitoring.system.redis.model.AlertMetric;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertEventDto {
+    private String machineId;
+    private AlertMetric metric;
+
+    /** The new level; {@link AlertLevel#NORMAL} when the alert clears. */
+    private AlertLevel level;
+    private AlertLevel previousLevel;
+
+    private Double value;
+
+    /** The threshold that was crossed: the high or low threshold on raise, the clear threshold on clear. */
+    private Double threshold;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,44 @@
+package com.solar.monitoring.system.redis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDto {
+    private String machineId;
+    private boolean success;
+    private String error;
+
+    /**
+     * Creates a result for an item that was written.
+     *
+     * @param machineId the machine identifier of the item
+     * @return a successful result
+     */
+    public static BatchItemResultDto success(String machineId) {
+        return BatchItemResultDto.builder()
+                .machineId(machineId)
+                .success(true)
+                .build();
+    }
+
+    /**
+     * Creates a result for an item that was rejected or failed in Redis.
+     *
+     * @param machineId the machine identifier of the item (may be null if the item carried none)
+     * @param error     a short description of the failure
+     * @return a failed result
+     */
+    public static BatchItemResultDto failure(String machineId, String error) {
+        return BatchItemResultDto.builder()
+                .machineId(machineId)
+                .success(false)
+                .error(error)
+                .build();
+    }
+}
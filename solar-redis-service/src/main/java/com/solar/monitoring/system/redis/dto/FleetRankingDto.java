@@ -0,0 +1,15 @@
+package com.solar.monitoring.system.redis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetRankingDto {
+    private String machineId;
+    private Double value;
+}
@@ -0,0 +1,18 @@
+package com.solar.monitoring.system.redis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetTotalsDto {
+    private long machines;
+    private Double totalPowerOutput;
+    private Double averagePowerOutput;
+    private Double averageEfficiency;
+    private Double averageTemperature;
+}
@@ -0,0 +1,19 @@
+package com.solar.monitoring.system.redis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MachinePageDto {
+    private List<MachineRegistryEntryDto> machines;
+
+    /** The {@code after} value of the next page, or null if this is the last page. */
+    private String nextCursor;
+}
@@ -0,0 +1,38 @@
+package com.solar.monitoring.system.redis.metrics;
+
+/**
+ * A realtime data operation that reaches Redis, used as the {@code operation} tag of the {@code redis.operation.*}
+ * meters.
+ */
+public enum RedisOperation {
+    /** A single sample written by {@code saveMetrics}. */
+    SAVE("save"),
+
+    /** One pipelined chunk of {@code saveMetricsBatch} or of a coalescing flush. */
+    SAVE_BATCH("save-batch"),
+
+    /** One realtime hash read on a near-cache miss. */
+    GET("get"),
+
+    /** One pipelined read of many realtime hashes on near-cache misses. */
+    GET_MULTI("get-multi"),
+
+    DELETE("delete"),
+
+    EXISTS("exists");
+
+    private final String tag;
+
+    RedisOperation(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Returns the value of the {@code operation} tag.
+     *
+     * @return the tag value
+     */
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,133 @@
+package com.solar.monitoring.system.redis.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency, error and payload meters of the realtime Redis operations.
+ *
+ * <ul>
+ *     <li>{@code redis.operation} timer, tagged {@code operation} and {@code outcome} ({@code success} or
+ *     {@code error}), with p50/p95/p99 and a percentile histogram;</li>
+ *     <li>{@code redis.operation.errors} counter, tagged {@code operation} and {@code exception}, the most specific
+ *     cause;</li>
+ *     <li>{@code redis.operation.payload} distribution of the bytes written or read, tagged {@code operation}.</li>
+ * </ul>
+ * The timers and summaries are registered up front, so recording on the hot path is a lookup in an array.
+ */
+@Component
+public class RedisOperationMetrics {
+
+    private static final RedisOperation[] OPERATIONS = RedisOperation.values();
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+    private final Timer[] successTimers = new Timer[OPERATIONS.length];
+    private final Timer[] errorTimers = new Timer[OPERATIONS.length];
+    private final DistributionSummary[] payloads = new DistributionSummary[OPERATIONS.length];
+
+    /**
+     * Registers the timers and payload summaries of every operation.
+     *
+     * @param meterRegistry registry the meters are bound to
+     */
+    public RedisOperationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        for (RedisOperation operation : OPERATIONS) {
+            int i = operation.ordinal();
+            successTimers[i] = timer(operation, "success");
+            errorTimers[i] = timer(operation, "error");
+            payloads[i] = DistributionSummary.builder("redis.operation.payload")
+                    .description("Bytes written or read by a realtime Redis operation")
+                    .baseUnit("bytes")
+                    .tag("operation", operation.getTag())
+                    .publishPercentiles(PERCENTILES)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Returns the start time to pass to {@link #success} or {@link #failure}.
+     *
+     * @return the current value of the monotonic clock, in nanos
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a completed operation.
+     *
+     * @param operation  the operation
+     * @param startNanos the value returned by {@link #start()}
+     */
+    public void success(RedisOperation operation, long startNanos) {
+        successTimers[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a failed operation and counts its cause.
+     *
+     * @param operation  the operation
+     * @param startNanos the value returned by {@link #start()}
+     * @param error      the failure
+     */
+    public void failure(RedisOperation operation, long startNanos, Throwable error) {
+        errorTimers[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("redis.operation.errors")
+                .description("Failed realtime Redis operations by most specific cause")
+                .tag("operation", operation.getTag())
+                .tag("exception", NestedExceptionUtils.getMostSpecificCause(error).getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Records the size of the data an operation wrote or read.
+     *
+     * @param operation the operation
+     * @param bytes     the serialized size of keys, fields and values
+     */
+    public void payload(RedisOperation operation, long bytes) {
+        payloads[operation.ordinal()].record(bytes);
+    }
+
+    /**
+     * Times a reactive operation from subscription until it completes or fails; a cancelled operation is not
+     * recorded.
+     *
+     * @param operation the operation
+     * @param mono      the operation
+     * @param <T>       the type of the result
+     * @return the operation, recording its latency and outcome
+     */
+    public <T> Mono<T> time(RedisOperation operation, Mono<T> mono) {
+        return Mono.defer(() -> {
+            long start = start();
+            return mono
+                    .doOnSuccess(result -> success(operation, start))
+                    .doOnError(error -> failure(operation, start, error));
+        });
+    }
+
+    private Timer timer(RedisOperation operation, String outcome) {
+        return Timer.builder("redis.operation")
+                .description("Latency of realtime Redis operations")
+                .tag("operation", operation.getTag())
+                .tag("outcome", outcome)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1).dividedBy(10))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.solar.monitoring.system.redis.model;
+
+/**
+ * Where a metric stands relative to its alert thresholds.
+ */
+public enum AlertLevel {
+    /** Within bounds, or back within the clear thresholds after an alert. */
+    NORMAL,
+
+    /** Above the high threshold and not yet back below the high clear threshold. */
+    HIGH,
+
+    /** Below the low threshold and not yet back above the low clear threshold. */
+    LOW
+}
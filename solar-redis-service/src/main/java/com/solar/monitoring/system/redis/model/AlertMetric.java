@@ -0,0 +1,42 @@
+package com.solar.monitoring.system.redis.model;
+
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+
+/**
+ * A metric the alert engine checks against its rule set.
+ */
+public enum AlertMetric {
+    TEMPERATURE("temperature"),
+    VOLTAGE("voltage"),
+    EFFICIENCY("efficiency");
+
+    private final String field;
+
+    AlertMetric(String field) {
+        this.field = field;
+    }
+
+    /**
+     * Returns the realtime hash field of the metric, which also names its field in the status and alert hashes.
+     *
+     * @return the field name
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Reads the metric from a sample without allocating.
+     *
+     * @param metrics the sample
+     * @return the value, or NaN if the sample does not carry it
+     */
+    public double read(RealtimeDataDto metrics) {
+        Double value = switch (this) {
+            case TEMPERATURE -> metrics.getTemperature();
+            case VOLTAGE -> metrics.getVoltage();
+            case EFFICIENCY -> metrics.getEfficiency();
+        };
+        return value == null ? Double.NaN : value;
+    }
+}
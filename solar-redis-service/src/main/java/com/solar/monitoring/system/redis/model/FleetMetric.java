@@ -0,0 +1,25 @@
+package com.solar.monitoring.system.redis.model;
+
+/**
+ * A metric the fleet aggregates keep a ranking index and a running total for.
+ */
+public enum FleetMetric {
+    POWER_OUTPUT("powerOutput"),
+    EFFICIENCY("efficiency"),
+    TEMPERATURE("temperature");
+
+    private final String field;
+
+    FleetMetric(String field) {
+        this.field = field;
+    }
+
+    /**
+     * Returns the realtime hash field of the metric, which also names its index and totals fields.
+     *
+     * @return the field name
+     */
+    public String getField() {
+        return field;
+    }
+}
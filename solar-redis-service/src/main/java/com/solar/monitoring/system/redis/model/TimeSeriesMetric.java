@@ -0,0 +1,31 @@
+package com.solar.monitoring.system.redis.model;
+
+/**
+ * A metric that can be downsampled from a machine's rolling time series.
+ *
+ * <p>Each time-series member is stored as
+ * {@code epochMillis|powerOutput|voltage|current|temperature|efficiency}; {@link #getPosition()} is the
+ * 1-based position of the metric in that record.
+ */
+public enum TimeSeriesMetric {
+    POWER_OUTPUT(2),
+    VOLTAGE(3),
+    CURRENT(4),
+    TEMPERATURE(5),
+    EFFICIENCY(6);
+
+    private final int position;
+
+    TimeSeriesMetric(int position) {
+        this.position = position;
+    }
+
+    /**
+     * Returns the 1-based position of the metric in a time-series member.
+     *
+     * @return the field position
+     */
+    public int getPosition() {
+        return position;
+    }
+}
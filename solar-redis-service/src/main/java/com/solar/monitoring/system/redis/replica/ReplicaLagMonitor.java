@@ -0,0 +1,160 @@
+package com.solar.monitoring.system.redis.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks how far each replica lags behind the master, from the master's {@code INFO replication}.
+ *
+ * <p>A replica is fresh while it is online and its {@code lag}, the seconds since it last acknowledged the
+ * replication stream, is within {@code solar.redis.replica.max-lag}. Replicas acknowledge every second, so the
+ * tolerance has a granularity of one second. If the master cannot be asked for
+ * {@code 3 x solar.redis.replica.lag-check-interval}, no replica is considered fresh.
+ *
+ * <p>Publishes {@code redis.replica.lag} (seconds) per replica, tagged {@code node}, and {@code redis.replica.fresh},
+ * the number of replicas reads may currently be routed to.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "solar.redis.replica.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    private static final String REPLICA_PREFIX = "slave";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long maxLagSeconds;
+    private final long maxCheckAgeMillis;
+
+    private final Map<String, Long> lagSeconds = new ConcurrentHashMap<>();
+    private final Set<String> registeredNodes = ConcurrentHashMap.newKeySet();
+    private volatile long lastCheckMillis;
+
+    /**
+     * Creates the monitor; the first check runs when the scheduler starts.
+     *
+     * @param redisTemplate  template connected to the master
+     * @param meterRegistry  registry the lag gauges are bound to
+     * @param maxLag         staleness tolerated on replica reads
+     * @param checkInterval  how often the master is asked for the replication state
+     */
+    public ReplicaLagMonitor(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry,
+                             @Value("${solar.redis.replica.max-lag:PT2S}") Duration maxLag,
+                             @Value("${solar.redis.replica.lag-check-interval:PT1S}") Duration checkInterval) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxLagSeconds = maxLag.toSeconds();
+        this.maxCheckAgeMillis = checkInterval.multipliedBy(3).toMillis();
+
+        Gauge.builder("redis.replica.fresh", this, ReplicaLagMonitor::freshReplicas)
+                .description("Replicas within the staleness tolerance, which realtime reads are routed to")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads the replication state of every replica from the master.
+     *
+     * A failed check keeps the previous state until it is too old to be trusted.
+     */
+    @Scheduled(fixedDelayString = "${solar.redis.replica.lag-check-interval:PT1S}")
+    public void checkLag() {
+        try {
+            Properties info = redisTemplate.execute(
+                    (RedisCallback<Properties>) connection -> connection.serverCommands().info("replication"));
+            if (info == null) {
+                return;
+            }
+
+            Map<String, Long> current = new HashMap<>();
+            for (String name : info.stringPropertyNames()) {
+                if (name.startsWith(REPLICA_PREFIX) && name.length() > REPLICA_PREFIX.length()
+                        && Character.isDigit(name.charAt(REPLICA_PREFIX.length()))) {
+                    parseReplica(info.getProperty(name), current);
+                }
+            }
+
+            lagSeconds.keySet().retainAll(current.keySet());
+            lagSeconds.putAll(current);
+            current.keySet().forEach(this::registerGauge);
+            lastCheckMillis = System.currentTimeMillis();
+        } catch (Exception e) {
+            log.warn("Could not read the replication state, realtime reads fall back to the master: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether reads may be routed to a replica.
+     *
+     * @param host the replica's host, as the master reports it (its IP or {@code replica-announce-ip})
+     * @param port the replica's port
+     * @return true if the replica is online and within the staleness tolerance
+     */
+    public boolean isFresh(String host, int port) {
+        if (System.currentTimeMillis() - lastCheckMillis > maxCheckAgeMillis) {
+            return false;
+        }
+        Long lag = lagSeconds.get(host + ":" + port);
+        return lag != null && lag <= maxLagSeconds;
+    }
+
+    /**
+     * Parses one {@code slaveN:ip=...,port=...,state=online,offset=...,lag=...} entry of an online replica.
+     *
+     * @param entry   the entry's value
+     * @param current collects the lag of online replicas, keyed by {@code host:port}
+     */
+    private static void parseReplica(String entry, Map<String, Long> current) {
+        Map<String, String> fields = new HashMap<>();
+        for (String field : entry.split(",")) {
+            int eq = field.indexOf('=');
+            if (eq > 0) {
+                fields.put(field.substring(0, eq), field.substring(eq + 1));
+            }
+        }
+        if ("online".equals(fields.get("state")) && fields.containsKey("lag")) {
+            current.put(fields.get("ip") + ":" + fields.get("port"), Long.parseLong(fields.get("lag")));
+        }
+    }
+
+    /**
+     * Registers the lag gauge of a replica the first time it is seen.
+     *
+     * @param node the replica's {@code host:port}
+     */
+    private void registerGauge(String node) {
+        if (registeredNodes.add(node)) {
+            Gauge.builder("redis.replica.lag", lagSeconds, lags -> lags.getOrDefault(node, -1L))
+                    .description("Seconds since the replica last acknowledged the replication stream, -1 if offline")
+                    .baseUnit("seconds")
+                    .tag("node", node)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Counts the replicas reads may currently be routed to.
+     *
+     * @return the number of fresh replicas
+     */
+    private double freshReplicas() {
+        if (System.currentTimeMillis() - lastCheckMillis > maxCheckAgeMillis) {
+            return 0;
+        }
+        return lagSeconds.values().stream().filter(lag -> lag <= maxLagSeconds).count();
+    }
+}
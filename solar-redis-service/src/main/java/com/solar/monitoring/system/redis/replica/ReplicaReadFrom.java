@@ -0,0 +1,99 @@
+package com.solar.monitoring.system.redis.replica;
+
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.models.role.RedisNodeDescription;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes reads to the replicas {@link ReplicaLagMonitor} considers fresh, falling back to the master.
+ *
+ * <p>Fresh replicas are taken in turn, and the master is always the last candidate, so Lettuce also falls back to
+ * it when the chosen replica's connection is down. Every read is counted as {@code redis.read.routed}, tagged
+ * with the {@code node} it was routed to and its {@code role}.
+ */
+public class ReplicaReadFrom extends ReadFrom {
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routed = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the read routing.
+     *
+     * @param lagMonitor    the replication state of the replicas
+     * @param meterRegistry registry the per-node read counters are bound to
+     */
+    public ReplicaReadFrom(ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Orders the candidate nodes of a read: fresh replicas, starting with the next in turn, then the master.
+     *
+     * @param nodes the nodes of the topology
+     * @return the candidates, in the order Lettuce tries them
+     */
+    @Override
+    public List<RedisNodeDescription> select(Nodes nodes) {
+        List<RedisNodeDescription> replicas = new ArrayList<>();
+        RedisNodeDescription master = null;
+        for (RedisNodeDescription node : nodes) {
+            if (node.getRole().isUpstream()) {
+                master = node;
+            } else if (lagMonitor.isFresh(node.getUri().getHost(), node.getUri().getPort())) {
+                replicas.add(node);
+            }
+        }
+
+        List<RedisNodeDescription> selected = new ArrayList<>(replicas.size() + 1);
+        if (!replicas.isEmpty()) {
+            int first = Math.floorMod(next.getAndIncrement(), replicas.size());
+            selected.addAll(replicas.subList(first, replicas.size()));
+            selected.addAll(replicas.subList(0, first));
+        }
+        if (master != null) {
+            selected.add(master);
+        }
+
+        if (!selected.isEmpty()) {
+            count(selected.get(0));
+        }
+        return selected;
+    }
+
+    /**
+     * Keeps the candidates in the order {@link #select} returns them.
+     *
+     * @return true
+     */
+    @Override
+    protected boolean isOrderSensitive() {
+        return true;
+    }
+
+    /**
+     * Counts a read routed to a node.
+     *
+     * @param node the first candidate, which serves the read unless its connection is down
+     */
+    private void count(RedisNodeDescription node) {
+        String address = node.getUri().getHost() + ":" + node.getUri().getPort();
+        String role = node.getRole().isUpstream() ? "master" : "replica";
+        // keyed by role too, as a failover changes the role of a node
+        routed.computeIfAbsent(address + "/" + role, key -> Counter.builder("redis.read.routed")
+                        .description("Realtime reads routed to a node by the replica read routing")
+                        .tag("node", address)
+                        .tag("role", role)
+                        .register(meterRegistry))
+                .increment();
+    }
+}
@@ -0,0 +1,242 @@
+package com.solar.monitoring.system.redis.service;
+
+import com.solar.monitoring.system.redis.dto.FleetRankingDto;
+import com.solar.monitoring.system.redis.dto.FleetTotalsDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.exception.RedisException;
+import com.solar.monitoring.system.redis.model.FleetMetric;
+import com.solar.monitoring.system.redis.util.EpochMillisUtil;
+import com.solar.monitoring.system.redis.util.RedisKeyUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class FleetAggregateServiceImpl implements IFleetAggregateService {
+
+    /** Fleet entries are dropped once the machine's realtime hash, which lives this long, has expired. */
+    private static final long REALTIME_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int REMOVE_BATCH_SIZE = 500;
+
+    private static final StringRedisSerializer STRING_SERIALIZER = StringRedisSerializer.UTF_8;
+    private static final GenericToStringSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    private static final List<String> KEYS = List.of(
+            RedisKeyUtil.getFleetStateKey(),
+            RedisKeyUtil.getFleetLastWriteKey(),
+            RedisKeyUtil.getFleetTotalsKey(),
+            RedisKeyUtil.getFleetIndexKey(FleetMetric.POWER_OUTPUT.getField()),
+            RedisKeyUtil.getFleetIndexKey(FleetMetric.EFFICIENCY.getField()),
+            RedisKeyUtil.getFleetIndexKey(FleetMetric.TEMPERATURE.getField()));
+    private static final byte[][] RAW_KEYS = KEYS.stream().map(STRING_SERIALIZER::serialize).toArray(byte[][]::new);
+
+    protected final RedisTemplate<String, Object> redisTemplate;
+    protected final RedisScript<Long> fleetUpdateScript;
+    protected final RedisScript<Long> fleetRemoveScript;
+
+    @Value("${solar.redis.fleet.aggregates-enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Constructs a FleetAggregateServiceImpl.
+     *
+     * @param redisTemplate     template used for queries and cleanup
+     * @param fleetUpdateScript the {@code fleet-update.lua} script, queued on every save
+     * @param fleetRemoveScript the {@code fleet-remove.lua} script
+     */
+    public FleetAggregateServiceImpl(RedisTemplate<String, Object> redisTemplate,
+                                     RedisScript<Long> fleetUpdateScript, RedisScript<Long> fleetRemoveScript) {
+        this.redisTemplate = redisTemplate;
+        this.fleetUpdateScript = fleetUpdateScript;
+        this.fleetRemoveScript = fleetRemoveScript;
+    }
+
+    /**
+     * Queues an {@code EVALSHA} of {@code fleet-update.lua} for the sample.
+     *
+     * <p>The script reads the machine's previously applied sample from {@code {fleet}:state}, adds the difference
+     * to each running total in {@code {fleet}:totals}, re-scores the machine in the ranking indexes and records
+     * the server time of the write in {@code {fleet}:last-write}. Only fleet keys are touched, so the realtime
+     * hash write itself is unchanged.
+     *
+     * @param connection the (pipelined) connection to queue the command on
+     * @param metrics    the saved sample
+     */
+    @Override
+    public void applySample(RedisConnection connection, RealtimeDataDto metrics) {
+        if (!enabled) {
+            return;
+        }
+
+        byte[][] keysAndArgs = new byte[RAW_KEYS.length + 5][];
+        System.arraycopy(RAW_KEYS, 0, keysAndArgs, 0, RAW_KEYS.length);
+        int i = RAW_KEYS.length;
+        keysAndArgs[i++] = STRING_SERIALIZER.serialize(metrics.getMachineId());
+        keysAndArgs[i++] = bytes(String.valueOf(EpochMillisUtil.toEpochMillis(metrics.getTimestamp())));
+        keysAndArgs[i++] = bytes(format(metrics.getPowerOutput()));
+        keysAndArgs[i++] = bytes(format(metrics.getEfficiency()));
+        keysAndArgs[i] = bytes(format(metrics.getTemperature()));
+
+        connection.scriptingCommands().evalSha(fleetUpdateScript.getSha1(), ReturnType.INTEGER, RAW_KEYS.length,
+                keysAndArgs);
+    }
+
+    /**
+     * Removes a machine from the aggregates with {@code fleet-remove.lua}, e.g. after its realtime data was deleted.
+     *
+     * @param machineId the machine identifier
+     * @throws RedisException if the script fails
+     */
+    @Override
+    public void removeMachine(String machineId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.execute(fleetRemoveScript, STRING_SERIALIZER, LONG_SERIALIZER, KEYS,
+                    "-1", "1", machineId);
+        } catch (Exception e) {
+            log.error("Error removing machine {} from fleet aggregates: {}", machineId, e.getMessage(), e);
+            throw new RedisException("Failed to remove machine from fleet aggregates: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Removes machines whose last sample was applied more than an hour ago, the lifetime of their realtime hash.
+     *
+     * <p>Runs every {@code solar.redis.fleet.cleanup-interval} on each instance; the script re-checks the age of
+     * every machine atomically, so concurrent runs and saves racing the cleanup are safe. Machines are removed
+     * in batches of {@value #REMOVE_BATCH_SIZE} to keep each script call short.
+     *
+     * @return the number of machines removed
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${solar.redis.fleet.cleanup-interval:PT30S}",
+            initialDelayString = "${solar.redis.fleet.cleanup-interval:PT30S}")
+    public int removeExpiredMachines() {
+        if (!enabled) {
+            return 0;
+        }
+
+        int total = 0;
+        try {
+            Long removed;
+            do {
+                removed = redisTemplate.execute(fleetRemoveScript, STRING_SERIALIZER, LONG_SERIALIZER, KEYS,
+                        String.valueOf(REALTIME_TTL_MILLIS), String.valueOf(REMOVE_BATCH_SIZE));
+                total += removed == null ? 0 : removed.intValue();
+            } while (removed != null && removed == REMOVE_BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("Could not remove expired machines from fleet aggregates: {}", e.getMessage());
+        }
+
+        if (total > 0) {
+            log.info("Removed {} expired machines from fleet aggregates", total);
+        }
+        return total;
+    }
+
+    /**
+     * Reads {@code {fleet}:totals} with a single {@code HGETALL}, whatever the size of the fleet.
+     *
+     * @return the running totals; averages are null when no machine reports the metric
+     * @throws RedisException if the read fails
+     */
+    @Override
+    public FleetTotalsDto getTotals() {
+        try {
+            Map<byte[], byte[]> raw = redisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) connection ->
+                    connection.hashCommands().hGetAll(RAW_KEYS[2]));
+
+            Map<String, Double> totals = new HashMap<>();
+            if (raw != null) {
+                raw.forEach((field, value) -> totals.put(STRING_SERIALIZER.deserialize(field),
+                        Double.valueOf(STRING_SERIALIZER.deserialize(value))));
+            }
+
+            return FleetTotalsDto.builder()
+                    .machines(totals.getOrDefault("machines", 0.0).longValue())
+                    .totalPowerOutput(totals.getOrDefault(FleetMetric.POWER_OUTPUT.getField(), 0.0))
+                    .averagePowerOutput(average(totals, FleetMetric.POWER_OUTPUT))
+                    .averageEfficiency(average(totals, FleetMetric.EFFICIENCY))
+                    .averageTemperature(average(totals, FleetMetric.TEMPERATURE))
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Error retrieving fleet totals: {}", e.getMessage(), e);
+            throw new RedisException("Failed to retrieve fleet totals: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the top or bottom of a ranking index with one {@code ZRANGE}, in O(log N + limit).
+     *
+     * @param metric    the metric to rank by
+     * @param limit     the number of machines to return
+     * @param direction the ranking order
+     * @return up to {@code limit} machines with their current value
+     * @throws RedisException if the read fails
+     */
+    @Override
+    public List<FleetRankingDto> getRanking(FleetMetric metric, int limit, Sort.Direction direction) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        byte[] key = STRING_SERIALIZER.serialize(RedisKeyUtil.getFleetIndexKey(metric.getField()));
+        try {
+            Set<Tuple> tuples = redisTemplate.execute((RedisCallback<Set<Tuple>>) connection ->
+                    direction.isDescending()
+                            ? connection.zSetCommands().zRevRangeWithScores(key, 0, limit - 1)
+                            : connection.zSetCommands().zRangeWithScores(key, 0, limit - 1));
+
+            List<FleetRankingDto> ranking = new ArrayList<>(tuples == null ? 0 : tuples.size());
+            if (tuples != null) {
+                for (Tuple tuple : tuples) {
+                    ranking.add(FleetRankingDto.builder()
+                            .machineId(STRING_SERIALIZER.deserialize(tuple.getValue()))
+                            .value(tuple.getScore())
+                            .build());
+                }
+            }
+            return ranking;
+
+        } catch (Exception e) {
+            log.error("Error retrieving fleet ranking by {}: {}", metric, e.getMessage(), e);
+            throw new RedisException("Failed to retrieve fleet ranking: " + e.getMessage(), e);
+        }
+    }
+
+    private static Double average(Map<String, Double> totals, FleetMetric metric) {
+        double count = totals.getOrDefault(metric.getField() + "Count", 0.0);
+        return count > 0 ? totals.getOrDefault(metric.getField(), 0.0) / count : null;
+    }
+
+    private static String format(Double value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
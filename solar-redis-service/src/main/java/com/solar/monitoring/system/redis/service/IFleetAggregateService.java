@@ -0,0 +1,55 @@
+package com.solar.monitoring.system.redis.service;
+
+import com.solar.monitoring.system.redis.dto.FleetRankingDto;
+import com.solar.monitoring.system.redis.dto.FleetTotalsDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.model.FleetMetric;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.RedisConnection;
+
+import java.util.List;
+
+public interface IFleetAggregateService {
+    /**
+     * Queue the command that applies a saved sample to the fleet totals and ranking indexes.
+     *
+     * Intended to be called on the pipelined connection that writes the realtime hash. A sample older than the
+     * one already applied for its machine is ignored.
+     *
+     * @param connection the (pipelined) connection to queue the command on
+     * @param metrics    the saved sample; must carry a machineId and timestamp
+     */
+    void applySample(RedisConnection connection, RealtimeDataDto metrics);
+
+    /**
+     * Remove a machine from the fleet totals and ranking indexes.
+     *
+     * @param machineId the machine identifier
+     */
+    void removeMachine(String machineId);
+
+    /**
+     * Remove every machine whose realtime data has expired from the fleet totals and ranking indexes.
+     *
+     * @return the number of machines removed
+     */
+    int removeExpiredMachines();
+
+    /**
+     * Retrieve the running fleet totals.
+     *
+     * @return the number of machines reporting and the fleet's total and average metrics
+     */
+    FleetTotalsDto getTotals();
+
+    /**
+     * Retrieve the machines with the highest or lowest current value of a metric.
+     *
+     * @param metric    the metric to rank by
+     * @param limit     the number of machines to return
+     * @param direction {@link Sort.Direction#DESC} for the highest values first, {@link Sort.Direction#ASC} for
+     *                  the lowest
+     * @return up to {@code limit} machines with their current value, best ranked first
+     */
+    List<FleetRankingDto> getRanking(FleetMetric metric, int limit, Sort.Direction direction);
+}
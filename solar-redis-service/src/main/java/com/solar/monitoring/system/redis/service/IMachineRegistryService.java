@@ -0,0 +1,69 @@
+package com.solar.monitoring.system.redis.service;
+
+import com.solar.monitoring.system.redis.dto.MachinePageDto;
+import com.solar.monitoring.system.redis.dto.MachineRegistryEntryDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import org.springframework.data.redis.connection.RedisConnection;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface IMachineRegistryService {
+    /**
+     * Queue the commands that register a machine and record when it was last seen.
+     *
+     * Intended to be called on the pipelined connection that writes the realtime hash. The last-seen time is the
+     * time the sample is written, not its own timestamp, so gateways with skewed clocks or local-time timestamps
+     * are judged by the same clock as the silence and retention checks. It never moves back.
+     *
+     * @param connection the (pipelined) connection to queue the commands on
+     * @param metrics    the saved sample; must carry a machineId
+     */
+    void recordSample(RedisConnection connection, RealtimeDataDto metrics);
+
+    /**
+     * Remove a machine from the registry.
+     *
+     * @param machineId the machine identifier
+     */
+    void removeMachine(String machineId);
+
+    /**
+     * Remove every machine that has not reported for longer than the registry retention.
+     *
+     * @return the number of machines removed
+     */
+    int removeStaleMachines();
+
+    /**
+     * Retrieve every known machine.
+     *
+     * @return all registered machines with their last-seen time, most recently seen first
+     */
+    List<MachineRegistryEntryDto> getMachines();
+
+    /**
+     * Retrieve one page of the known machines, ordered by machineId.
+     *
+     * @param after the machineId the previous page ended with, or null for the first page
+     * @param limit the maximum number of machines to return
+     * @return the page and the cursor of the next one
+     */
+    MachinePageDto getMachines(String after, int limit);
+
+    /**
+     * Retrieve the machines whose newest sample is older than the given duration.
+     *
+     * @param silentFor how long a machine must have been silent
+     * @param limit     the maximum number of machines to return
+     * @return up to {@code limit} silent machines, longest silent first
+     */
+    List<MachineRegistryEntryDto> getSilentMachines(Duration silentFor, int limit);
+
+    /**
+     * Count the known machines.
+     *
+     * @return the number of registered machines
+     */
+    long countMachines();
+}
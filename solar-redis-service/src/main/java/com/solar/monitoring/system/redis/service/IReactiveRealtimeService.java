@@ -0,0 +1,63 @@
+package com.solar.monitoring.system.redis.service;
+
+import com.solar.monitoring.system.redis.dto.BatchItemResultDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IReactiveRealtimeService {
+    /**
+     * Persist or update realtime solar metrics for a machine in Redis without blocking the caller.
+     *
+     * The metrics are stored exactly as {@link IRealtimeService#saveMetrics(String, RealtimeDataDto)} stores them.
+     *
+     * @param machineId non-null unique identifier of the machine whose metrics are being saved
+     * @param metrics   the realtime metrics payload to persist
+     * @return a Mono completing once the metrics are written
+     */
+    Mono<Void> saveMetrics(String machineId, RealtimeDataDto metrics);
+
+    /**
+     * Persist or update realtime metrics for many machines without blocking the caller.
+     *
+     * @param batch the realtime metrics payloads to persist
+     * @return a Mono emitting one result per input item, in input order
+     */
+    Mono<List<BatchItemResultDto>> saveMetricsBatch(List<RealtimeDataDto> batch);
+
+    /**
+     * Retrieve the realtime metrics for the given machine.
+     *
+     * @param machineId the machine identifier whose realtime metrics are requested
+     * @return a Mono emitting the RealtimeDataDto of the machine
+     */
+    Mono<RealtimeDataDto> getRealtimeMetrics(String machineId);
+
+    /**
+     * Retrieve the realtime metrics of many machines.
+     *
+     * @param machineIds the identifiers of the machines whose realtime metrics are requested
+     * @return a Flux of the realtime metrics of every machine that has stored data, in the iteration order of
+     *         {@code machineIds}; machines without data are omitted
+     */
+    Flux<RealtimeDataDto> getRealtimeMetrics(Collection<String> machineIds);
+
+    /**
+     * Delete stored metrics for the given machine identifier.
+     *
+     * @param machineId unique identifier of the machine whose metrics should be deleted; must be non-null
+     * @return a Mono completing once the metrics are deleted
+     */
+    Mono<Void> deleteMetrics(String machineId);
+
+    /**
+     * Returns whether realtime metrics for the given machine ID exist in Redis.
+     *
+     * @param machineId the machine's unique identifier
+     * @return a Mono emitting true if metrics are present for the specified machineId, false otherwise
+     */
+    Mono<Boolean> exists(String machineId);
+}
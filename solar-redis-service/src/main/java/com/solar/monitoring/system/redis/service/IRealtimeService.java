@@ -1,7 +1,10 @@
 package com.solar.monitoring.system.redis.service;
 
+import com.solar.monitoring.system.redis.dto.BatchItemResultDto;
 import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface IRealtimeService {
@@ -16,6 +19,17 @@ public interface IRealtimeService {
  * @param metrics   the realtime metrics payload to persist
  */
     void saveMetrics(String machineId, RealtimeDataDto metrics);
+
+    /**
+     * Persist or update realtime metrics for many machines in as few Redis round trips as possible.
+     *
+     * Each item is stored exactly as {@link #saveMetrics(String, RealtimeDataDto)} would store it, keyed by
+     * its own machineId. A failing item does not prevent the others from being written.
+     *
+     * @param batch the realtime metrics payloads to persist
+     * @return one result per input item, in input order, reporting whether that item was written
+     */
+    List<BatchItemResultDto> saveMetricsBatch(List<RealtimeDataDto> batch);
     /**
  * Retrieve the realtime metrics for the given machine.
  *
@@ -24,6 +38,15 @@ public interface IRealtimeService {
  */
     Optional<RealtimeDataDto> getRealtimeMetrics(String machineId);
 
+    /**
+     * Retrieve the realtime metrics of many machines in one Redis round trip.
+     *
+     * @param machineIds the identifiers of the machines whose realtime metrics are requested
+     * @return the realtime metrics of every machine that has stored data, in the iteration order of
+     *         {@code machineIds}; machines without data are omitted
+     */
+    List<RealtimeDataDto> getRealtimeMetrics(Collection<String> machineIds);
+
     /**
      * Delete stored metrics for the given machine identifier.
      *
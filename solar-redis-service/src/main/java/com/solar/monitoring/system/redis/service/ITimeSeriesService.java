@@ -0,0 +1,36 @@
+package com.solar.monitoring.system.redis.service;
+
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.dto.TimeSeriesBucketDto;
+import com.solar.monitoring.system.redis.model.TimeSeriesMetric;
+import org.springframework.data.redis.connection.RedisConnection;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ITimeSeriesService {
+    /**
+     * Queue the commands that append a sample to the machine's rolling window.
+     *
+     * Intended to be called on the pipelined connection that writes the realtime hash, so the window is
+     * updated in the same round trip. Implementations may do nothing when the window is disabled.
+     *
+     * @param connection the (pipelined) connection to queue the commands on
+     * @param metrics    the sample to append; must carry a machineId and timestamp
+     */
+    void appendSample(RedisConnection connection, RealtimeDataDto metrics);
+
+    /**
+     * Downsample a machine's rolling window into fixed-size buckets, computed inside Redis.
+     *
+     * @param machineId  the machine identifier
+     * @param metric     the metric to aggregate
+     * @param from       start of the range (inclusive), or null for the start of the window
+     * @param to         end of the range (inclusive), or null for the end of the window
+     * @param resolution bucket size; buckets are aligned to multiples of it since the epoch
+     * @return the min/max/avg of every non-empty bucket in the range, oldest first
+     */
+    List<TimeSeriesBucketDto> getDownsampled(String machineId, TimeSeriesMetric metric,
+                                             LocalDateTime from, LocalDateTime to, Duration resolution);
+}
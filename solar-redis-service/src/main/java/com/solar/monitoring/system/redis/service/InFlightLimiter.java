@@ -0,0 +1,81 @@
+package com.solar.monitoring.system.redis.service;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of reactive Redis commands in flight without blocking a thread.
+ *
+ * <p>Lettuce starts a command's timeout when the command is written, so an unbounded burst of reactive reads
+ * times out under load while its replies wait for CPU. Sources beyond the cap are queued here instead, and
+ * subscribed in arrival order as earlier ones terminate.
+ */
+final class InFlightLimiter {
+
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a limiter.
+     *
+     * @param maxInFlight maximum number of sources subscribed at the same time
+     */
+    InFlightLimiter(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Defers the subscription to {@code source} until fewer than {@code maxInFlight} limited sources are running.
+     *
+     * A subscriber that cancels while queued is dropped from the queue; one that cancels while running
+     * cancels the source, which frees its slot.
+     *
+     * @param source the Mono to run
+     * @param <T>    the element type
+     * @return a Mono mirroring {@code source}
+     */
+    <T> Mono<T> limit(Mono<T> source) {
+        return Mono.create(sink -> {
+            Runnable task = () -> sink.onDispose(source
+                    .doFinally(signal -> release())
+                    .subscribe(sink::success, sink::error, sink::success));
+            sink.onCancel(() -> pending.remove(task));
+            pending.add(task);
+            drain();
+        });
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * Starts queued sources while slots are free. Called after every enqueue and release, so a source is
+     * never left waiting while a slot is free.
+     */
+    private void drain() {
+        while (!pending.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable task = pending.poll();
+            if (task == null) {
+                inFlight.decrementAndGet();
+            } else {
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.solar.monitoring.system.redis.service;
+
+import com.solar.monitoring.system.redis.dto.MachinePageDto;
+import com.solar.monitoring.system.redis.dto.MachineRegistryEntryDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.exception.RedisException;
+import com.solar.monitoring.system.redis.util.EpochMillisUtil;
+import com.solar.monitoring.system.redis.util.RedisKeyUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class MachineRegistryServiceImpl implements IMachineRegistryService {
+
+    private static final int REMOVE_BATCH_SIZE = 500;
+    private static final byte[][] NO_IDS = new byte[0][];
+
+    private static final StringRedisSerializer STRING_SERIALIZER = StringRedisSerializer.UTF_8;
+    private static final GenericToStringSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    private static final List<String> KEYS = List.of(
+            RedisKeyUtil.getMachineLastSeenKey(),
+            RedisKeyUtil.getMachineIdsKey());
+    private static final byte[] LAST_SEEN_KEY = STRING_SERIALIZER.serialize(RedisKeyUtil.getMachineLastSeenKey());
+    private static final byte[] IDS_KEY = STRING_SERIALIZER.serialize(RedisKeyUtil.getMachineIdsKey());
+
+    private static final RedisZSetCommands.ZAddArgs GREATER_THAN = RedisZSetCommands.ZAddArgs.empty().gt();
+    private static final RedisZSetCommands.ZAddArgs IF_ABSENT = RedisZSetCommands.ZAddArgs.ifNotExists();
+
+    protected final RedisTemplate<String, Object> redisTemplate;
+    protected final RedisScript<Long> registryPruneScript;
+
+    @Value("${solar.redis.registry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${solar.redis.registry.retention:7d}")
+    private Duration retention;
+
+    /**
+     * Constructs a MachineRegistryServiceImpl.
+     *
+     * @param redisTemplate       template used for queries and cleanup
+     * @param registryPruneScript the {@code registry-prune.lua} script
+     */
+    public MachineRegistryServiceImpl(RedisTemplate<String, Object> redisTemplate,
+                                      RedisScript<Long> registryPruneScript) {
+        this.redisTemplate = redisTemplate;
+        this.registryPruneScript = registryPruneScript;
+    }
+
+    /**
+     * Queues a {@code ZADD GT} of the current epoch millis to {@code {machines}:last-seen} and a {@code ZADD NX}
+     * of the machineId to {@code {machines}:ids}, both O(log N).
+     *
+     * <p>The score is this instance's clock, which {@link #getSilentMachines} and {@link #removeStaleMachines}
+     * compare against; the sample's own timestamp stays in the realtime hash. A coalesced sample is seen when
+     * its flush writes it.
+     *
+     * @param connection the (pipelined) connection to queue the commands on
+     * @param metrics    the saved sample
+     */
+    @Override
+    public void recordSample(RedisConnection connection, RealtimeDataDto metrics) {
+        if (!enabled) {
+            return;
+        }
+
+        byte[] machineId = STRING_SERIALIZER.serialize(metrics.getMachineId());
+        connection.zSetCommands().zAdd(LAST_SEEN_KEY, System.currentTimeMillis(), machineId, GREATER_THAN);
+        connection.zSetCommands().zAdd(IDS_KEY, 0, machineId, IF_ABSENT);
+    }
+
+    /**
+     * Removes a machine from both registry sets in one pipeline.
+     *
+     * @param machineId the machine identifier
+     * @throws RedisException if the removal fails
+     */
+    @Override
+    public void removeMachine(String machineId) {
+        if (!enabled) {
+            return;
+        }
+        byte[] raw = STRING_SERIALIZER.serialize(machineId);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.zSetCommands().zRem(LAST_SEEN_KEY, raw);
+                connection.zSetCommands().zRem(IDS_KEY, raw);
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Error removing machine {} from the registry: {}", machineId, e.getMessage(), e);
+            throw new RedisException("Failed to remove machine from the registry: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Removes machines not seen for longer than {@code solar.redis.registry.retention}.
+     *
+     * <p>Runs every {@code solar.redis.registry.cleanup-interval} on each instance, removing at most
+     * {@value #REMOVE_BATCH_SIZE} machines per script call. A removed machine is registered again by its next
+     * sample.
+     *
+     * @return the number of machines removed
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${solar.redis.registry.cleanup-interval:PT5M}",
+            initialDelayString = "${solar.redis.registry.cleanup-interval:PT5M}")
+    public int removeStaleMachines() {
+        if (!enabled) {
+            return 0;
+        }
+
+        String cutoff = String.valueOf(System.currentTimeMillis() - retention.toMillis());
+        int total = 0;
+        try {
+            Long removed;
+            do {
+                removed = redisTemplate.execute(registryPruneScript, STRING_SERIALIZER, LONG_SERIALIZER, KEYS,
+                        cutoff, String.valueOf(REMOVE_BATCH_SIZE));
+                total += removed == null ? 0 : removed.intValue();
+            } while (removed != null && removed == REMOVE_BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("Could not remove stale machines from the registry: {}", e.getMessage());
+        }
+
+        if (total > 0) {
+            log.info("Removed {} machines not seen for {} from the registry", total, retention);
+        }
+        return total;
+    }
+
+    /**
+     * Reads the whole of {@code {machines}:last-seen} with one {@code ZREVRANGE}, in O(log N + N).
+     *
+     * @return all registered machines, most recently seen first
+     * @throws RedisException if the read fails
+     */
+    @Override
+    public List<MachineRegistryEntryDto> getMachines() {
+        try {
+            return toEntries(redisTemplate.execute((RedisCallback<Set<Tuple>>) connection ->
+                    connection.zSetCommands().zRevRangeWithScores(LAST_SEEN_KEY, 0, -1)));
+        } catch (Exception e) {
+            log.error("Error retrieving registered machines: {}", e.getMessage(), e);
+            throw new RedisException("Failed to retrieve registered machines: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a page of {@code {machines}:ids} with {@code ZRANGEBYLEX} starting after the cursor and the last-seen
+     * times of the page with {@code ZMSCORE}, in O(log N + limit).
+     *
+     * <p>The cursor is the last machineId of the previous page, so pages stay consistent while machines are
+     * added or removed concurrently.
+     *
+     * @param after the machineId the previous page ended with, or null for the first page
+     * @param limit the maximum number of machines to return
+     * @return the page and the cursor of the next one
+     * @throws RedisException if the read fails
+     */
+    @Override
+    public MachinePageDto getMachines(String after, int limit) {
+        if (limit <= 0) {
+            return MachinePageDto.builder().machines(Collections.emptyList()).build();
+        }
+
+        Range<byte[]> range = after == null || after.isEmpty()
+                ? Range.unbounded()
+                : Range.rightUnbounded(Range.Bound.exclusive(STRING_SERIALIZER.serialize(after)));
+        try {
+            // one extra id tells whether another page follows
+            List<MachineRegistryEntryDto> page = redisTemplate.execute((RedisCallback<List<MachineRegistryEntryDto>>)
+                    connection -> {
+                        Set<byte[]> ids = connection.zSetCommands().zRangeByLex(IDS_KEY, range,
+                                Limit.limit().count(limit + 1));
+                        return ids == null || ids.isEmpty() ? new ArrayList<>() : withLastSeen(connection, ids);
+                    });
+
+            String nextCursor = null;
+            if (page.size() > limit) {
+                page = page.subList(0, limit);
+                nextCursor = page.get(limit - 1).getMachineId();
+            }
+            return MachinePageDto.builder()
+                    .machines(page)
+                    .nextCursor(nextCursor)
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Error retrieving registered machines after {}: {}", after, e.getMessage(), e);
+            throw new RedisException("Failed to retrieve registered machines: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the head of {@code {machines}:last-seen} up to the silence cutoff with {@code ZRANGEBYSCORE ... LIMIT},
+     * in O(log N + limit).
+     *
+     * @param silentFor how long a machine must have been silent
+     * @param limit     the maximum number of machines to return
+     * @return up to {@code limit} silent machines, longest silent first
+     * @throws RedisException if the read fails
+     */
+    @Override
+    public List<MachineRegistryEntryDto> getSilentMachines(Duration silentFor, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Range<Double> range = Range.leftUnbounded(
+                Range.Bound.inclusive((double) (System.currentTimeMillis() - silentFor.toMillis())));
+        try {
+            return toEntries(redisTemplate.execute((RedisCallback<Set<Tuple>>) connection ->
+                    connection.zSetCommands().zRangeByScoreWithScores(LAST_SEEN_KEY, range,
+                            Limit.limit().count(limit))));
+        } catch (Exception e) {
+            log.error("Error retrieving machines silent for {}: {}", silentFor, e.getMessage(), e);
+            throw new RedisException("Failed to retrieve silent machines: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Counts the registered machines with {@code ZCARD}, in O(1).
+     *
+     * @return the number of registered machines
+     * @throws RedisException if the read fails
+     */
+    @Override
+    public long countMachines() {
+        try {
+            Long count = redisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.zSetCommands().zCard(IDS_KEY));
+            return count == null ? 0 : count;
+        } catch (Exception e) {
+            log.error("Error counting registered machines: {}", e.getMessage(), e);
+            throw new RedisException("Failed to count registered machines: " + e.getMessage(), e);
+        }
+    }
+
+    private static List<MachineRegistryEntryDto> withLastSeen(RedisConnection connection, Collection<byte[]> ids) {
+        byte[][] raw = ids.toArray(NO_IDS);
+        List<Double> scores = connection.zSetCommands().zMScore(LAST_SEEN_KEY, raw);
+
+        List<MachineRegistryEntryDto> entries = new ArrayList<>(raw.length);
+        for (int i = 0; i < raw.length; i++) {
+            Double score = scores == null ? null : scores.get(i);
+            entries.add(MachineRegistryEntryDto.builder()
+                    .machineId(STRING_SERIALIZER.deserialize(raw[i]))
+                    .lastSeen(score == null ? null : EpochMillisUtil.toLocalDateTime(score.longValue()))
+                    .build());
+        }
+        return entries;
+    }
+
+    private static List<MachineRegistryEntryDto> toEntries(Set<Tuple> tuples) {
+        if (tuples == null) {
+            return Collections.emptyList();
+        }
+        List<MachineRegistryEntryDto> entries = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            entries.add(MachineRegistryEntryDto.builder()
+                    .machineId(STRING_SERIALIZER.deserialize(tuple.getValue()))
+                    .lastSeen(EpochMillisUtil.toLocalDateTime(tuple.getScore().longValue()))
+                    .build());
+        }
+        return entries;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+}
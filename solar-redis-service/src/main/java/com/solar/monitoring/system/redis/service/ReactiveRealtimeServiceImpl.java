@@ -0,0 +1,202 @@
+package com.solar.monitoring.system.redis.service;
+
+import com.solar.monitoring.system.redis.cache.RealtimeNearCache;
+import com.solar.monitoring.system.redis.dto.BatchItemResultDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.exception.RedisException;
+import com.solar.monitoring.system.redis.metrics.RedisOperation;
+import com.solar.monitoring.system.redis.metrics.RedisOperationMetrics;
+import com.solar.monitoring.system.redis.model.RealtimeMetrics;
+import com.solar.monitoring.system.redis.util.RedisKeyUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "solar.redis.reactive.enabled", havingValue = "true")
+public class ReactiveRealtimeServiceImpl implements IReactiveRealtimeService {
+
+    protected final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+    protected final RealtimeServiceImpl realtimeService;
+    protected final RealtimeNearCache nearCache;
+    protected final RedisOperationMetrics operationMetrics;
+
+    private final InFlightLimiter limiter;
+
+    /**
+     * Constructs a ReactiveRealtimeServiceImpl.
+     *
+     * <p>Reads go through the reactive template and never block a thread. Writes are delegated to the
+     * blocking service on the bounded elastic scheduler, so both paths store exactly the same keys and
+     * honour the same write mode, codec and time-series settings.
+     *
+     * @param reactiveRedisTemplate template sharing the serializers of the blocking template
+     * @param realtimeService       the blocking service, used for writes and hash mapping
+     * @param nearCache             in-process cache consulted before reading realtime hashes
+     * @param operationMetrics      latency and error meters of the Redis operations, shared with the blocking service
+     * @param maxInFlight           maximum number of hash reads sent to Redis at the same time; further
+     *                              reads wait, without a thread, for one to finish
+     */
+    public ReactiveRealtimeServiceImpl(ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
+                                       RealtimeServiceImpl realtimeService, RealtimeNearCache nearCache,
+                                       RedisOperationMetrics operationMetrics,
+                                       @Value("${solar.redis.reactive.max-in-flight:256}") int maxInFlight) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.realtimeService = realtimeService;
+        this.nearCache = nearCache;
+        this.operationMetrics = operationMetrics;
+        this.limiter = new InFlightLimiter(maxInFlight);
+    }
+
+    /**
+     * Saves the metrics with the blocking service on the bounded elastic scheduler.
+     *
+     * @param machineId non-null unique identifier of the machine whose metrics are being saved
+     * @param metrics   the realtime metrics payload to persist
+     * @return a Mono completing once the metrics are written, or failing with a RedisException
+     */
+    @Override
+    public Mono<Void> saveMetrics(String machineId, RealtimeDataDto metrics) {
+        return Mono.fromRunnable(() -> realtimeService.saveMetrics(machineId, metrics))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    /**
+     * Saves the batch with the blocking service's pipelined batch write on the bounded elastic scheduler.
+     *
+     * @param batch the realtime metrics payloads to persist
+     * @return a Mono emitting one result per input item, in input order
+     */
+    @Override
+    public Mono<List<BatchItemResultDto>> saveMetricsBatch(List<RealtimeDataDto> batch) {
+        return Mono.fromCallable(() -> realtimeService.saveMetricsBatch(batch))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Retrieve realtime metrics for a given machine.
+     *
+     * Behaves like the blocking service: if no stored data is found the Mono emits a RealtimeDataDto with
+     * only the machineId and a current lastUpdated timestamp.
+     *
+     * @param machineId the identifier of the machine whose realtime metrics are requested
+     * @return a Mono emitting the RealtimeDataDto, or failing with a RedisException
+     */
+    @Override
+    public Mono<RealtimeDataDto> getRealtimeMetrics(String machineId) {
+        log.debug("Executing reactive getRealtimeMetrics operation for machine: {}", machineId);
+
+        return getRealtimeData(machineId)
+                .map(realtimeService::toDto)
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    log.warn("No realtime data found for machine: {}", machineId);
+                    return RealtimeDataDto.builder()
+                            .machineId(machineId)
+                            .lastUpdated(LocalDateTime.now())
+                            .build();
+                }))
+                .onErrorMap(e -> !(e instanceof RedisException), e -> {
+                    log.error("Error retrieving realtime metrics for machine {}: {}", machineId, e.getMessage(), e);
+                    return new RedisException("Failed to retrieve realtime data: " + e.getMessage(), e);
+                });
+    }
+
+    /**
+     * Retrieve the realtime metrics of many machines.
+     *
+     * Near-cache misses are read with concurrent {@code HGETALL}s on the shared connection, which Lettuce writes
+     * back to back like a pipeline, within the {@code solar.redis.reactive.max-in-flight} cap.
+     *
+     * @param machineIds the identifiers of the machines whose realtime metrics are requested
+     * @return the realtime metrics found, in the iteration order of {@code machineIds}
+     */
+    @Override
+    public Flux<RealtimeDataDto> getRealtimeMetrics(Collection<String> machineIds) {
+        log.debug("Executing reactive getRealtimeMetrics operation for {} machines", machineIds.size());
+
+        return Flux.fromIterable(machineIds)
+                .flatMapSequential(this::getRealtimeData)
+                .map(realtimeService::toDto)
+                .onErrorMap(e -> !(e instanceof RedisException), e -> {
+                    log.error("Error retrieving realtime metrics for {} machines: {}",
+                            machineIds.size(), e.getMessage(), e);
+                    return new RedisException("Failed to retrieve realtime data: " + e.getMessage(), e);
+                });
+    }
+
+    /**
+     * Deletes the machine with the blocking service on the bounded elastic scheduler, so it is also taken out of
+     * the fleet aggregates, the machine registry and the alert state like a blocking delete.
+     *
+     * @param machineId the unique identifier of the machine whose realtime data should be deleted
+     * @return a Mono completing once the machine's data is deleted, or failing with the delete's exception
+     */
+    @Override
+    public Mono<Void> deleteMetrics(String machineId) {
+        return Mono.fromRunnable(() -> realtimeService.deleteMetrics(machineId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    /**
+     * Checks whether realtime metrics exist in Redis for the given machine.
+     *
+     * @param machineId the unique identifier of the machine
+     * @return a Mono emitting true if the machine's realtime hash exists; false if it is absent or the check fails
+     */
+    @Override
+    public Mono<Boolean> exists(String machineId) {
+        log.debug("Executing reactive Redis exists operation for machine: {}", machineId);
+
+        return operationMetrics.time(RedisOperation.EXISTS,
+                        reactiveRedisTemplate.hasKey(RedisKeyUtil.getRealtimeDataKey(machineId)))
+                .onErrorResume(e -> {
+                    log.error("Error checking existence for machine {}: {}", machineId, e.getMessage(), e);
+                    return Mono.just(false);
+                });
+    }
+
+    /**
+     * Returns a machine's metrics from the near cache, reading the Redis hash on a miss.
+     *
+     * @param machineId the machine identifier
+     * @return a Mono emitting the machine's metrics, or empty if it has none
+     */
+    private Mono<RealtimeMetrics> getRealtimeData(String machineId) {
+        RealtimeMetrics cached = nearCache.getIfPresent(machineId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return loadRealtimeData(machineId)
+                .doOnNext(metrics -> nearCache.put(machineId, metrics));
+    }
+
+    /**
+     * Reads a machine's realtime hash with a non-blocking {@code HGETALL}, queued behind the in-flight cap.
+     *
+     * @param machineId the machine identifier
+     * @return a Mono emitting the machine's metrics, or empty if no hash is stored
+     */
+    private Mono<RealtimeMetrics> loadRealtimeData(String machineId) {
+        Mono<Map<Object, Object>> hash = reactiveRedisTemplate.<Object, Object>opsForHash()
+                .entries(RedisKeyUtil.getRealtimeDataKey(machineId))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+
+        // timed inside the in-flight cap, so the latency excludes the wait for a free slot
+        return limiter.limit(operationMetrics.time(RedisOperation.GET, hash))
+                .filter(data -> !data.isEmpty())
+                .map(realtimeService::toRealtimeMetrics);
+    }
+}
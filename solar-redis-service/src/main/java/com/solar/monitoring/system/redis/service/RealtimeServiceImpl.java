@@ -1,30 +1,186 @@
 package com.solar.monitoring.system.redis.service;
 
+import com.solar.monitoring.system.redis.alert.AlertEngine;
+import com.solar.monitoring.system.redis.alert.AlertTransitions;
+import com.solar.monitoring.system.redis.cache.RealtimeNearCache;
+import com.solar.monitoring.system.redis.config.HashCodec;
+import com.solar.monitoring.system.redis.config.TimestampFormat;
+import com.solar.monitoring.system.redis.config.WriteMode;
+import com.solar.monitoring.system.redis.dto.BatchItemResultDto;
 import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
 import com.solar.monitoring.system.redis.exception.RedisException;
+import com.solar.monitoring.system.redis.metrics.RedisOperation;
+import com.solar.monitoring.system.redis.metrics.RedisOperationMetrics;
 import com.solar.monitoring.system.redis.model.RealtimeMetrics;
+import com.solar.monitoring.system.redis.subscription.RealtimeUpdateCodec;
+import com.solar.monitoring.system.redis.util.EpochMillisUtil;
 import com.solar.monitoring.system.redis.util.RedisKeyUtil;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 @Slf4j
 @Service
-public class RealtimeServiceImpl implements IRealtimeService {
+public class RealtimeServiceImpl implements IRealtimeService, SmartLifecycle {
+
+    private static final long REALTIME_TTL_SECONDS = TimeUnit.HOURS.toSeconds(1);
+    // stop after the web server has drained its requests but before the Redis connection factory (phase 0)
+    private static final int COALESCER_PHASE = 1024;
+    private static final byte[] UPDATES_CHANNEL =
+            RedisKeyUtil.getRealtimeUpdatesChannel().getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EMPTY_ARG = new byte[0];
+    private static final byte[] TTL_ARG = String.valueOf(REALTIME_TTL_SECONDS).getBytes(StandardCharsets.UTF_8);
 
     protected final RedisTemplate<String, Object> redisTemplate;
+    protected final RedisTemplate<String, Object> readTemplate;
+    protected final RedisScript<Long> saveMetricsScript;
+    protected final RedisScript<Long> upsertMetricsScript;
+    protected final RealtimeNearCache nearCache;
+    protected final ITimeSeriesService timeSeriesService;
+    protected final IFleetAggregateService fleetAggregateService;
+    protected final IMachineRegistryService machineRegistryService;
+    protected final AlertEngine alertEngine;
+    protected final List<RedisScript<?>> scripts;
+    protected final RedisOperationMetrics operationMetrics;
+    private final MeterRegistry meterRegistry;
+    private final Counter upsertsApplied;
+    private final Counter upsertsRejected;
+    private final Counter replicaFallbacks;
+
+    private volatile WriteCoalescer coalescer;
+    private volatile boolean running;
+
+    @Value("${solar.redis.updates.enabled:true}")
+    private boolean publishUpdates;
+
+    @Value("${solar.redis.write-mode:PIPELINED}")
+    private WriteMode writeMode;
+
+    @Value("${solar.redis.hash-codec:JSON}")
+    private HashCodec hashCodec;
+
+    @Value("${solar.redis.timestamp-format:ISO}")
+    private TimestampFormat timestampFormat;
+
+    @Value("${solar.redis.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${solar.redis.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+
+    @Value("${solar.redis.coalescing.flush-interval:1s}")
+    private Duration coalescingFlushInterval;
 
     /**
      * Constructs a RealtimeServiceImpl backed by the provided RedisTemplate for Redis operations.
+     *
+     * @param redisTemplate     template used for all Redis commands except realtime reads on replicas
+     * @param replicaRedisTemplate template routing realtime reads to replicas when {@code solar.redis.replica.enabled}
+     *                          is set; realtime reads use {@code redisTemplate} otherwise
+     * @param saveMetricsScript script used when {@code solar.redis.write-mode} is {@link WriteMode#SCRIPT}
+     * @param upsertMetricsScript script used when {@code solar.redis.write-mode} is {@link WriteMode#UPSERT}
+     * @param nearCache         in-process cache consulted before reading realtime hashes
+     * @param timeSeriesService rolling window every saved sample is appended to
+     * @param fleetAggregateService fleet totals and rankings every saved sample is applied to
+     * @param machineRegistryService registry of known machines every saved sample is recorded in
+     * @param alertEngine       threshold alert rules every saved sample is checked against
+     * @param scripts           every Lua script, loaded into Redis when a pipelined {@code EVALSHA} misses
+     * @param operationMetrics  latency, error and payload meters of the Redis operations
+     * @param meterRegistry     registry the upsert and write coalescing meters are bound to
      */
-    public RealtimeServiceImpl(RedisTemplate<String, Object> redisTemplate) {
+    public RealtimeServiceImpl(RedisTemplate<String, Object> redisTemplate,
+                               @Qualifier("replicaRedisTemplate")
+                               Optional<RedisTemplate<String, Object>> replicaRedisTemplate,
+                               RedisScript<Long> saveMetricsScript,
+                               RedisScript<Long> upsertMetricsScript, RealtimeNearCache nearCache, ITimeSeriesService timeSeriesService,
+                               IFleetAggregateService fleetAggregateService,
+                               IMachineRegistryService machineRegistryService, AlertEngine alertEngine,
+                               List<RedisScript<?>> scripts, RedisOperationMetrics operationMetrics,
+                               MeterRegistry meterRegistry) {
         this.redisTemplate = redisTemplate;
+        this.readTemplate = replicaRedisTemplate.orElse(redisTemplate);
+        this.saveMetricsScript = saveMetricsScript;
+        this.upsertMetricsScript = upsertMetricsScript;
+        this.nearCache = nearCache;
+        this.timeSeriesService = timeSeriesService;
+        this.fleetAggregateService = fleetAggregateService;
+        this.machineRegistryService = machineRegistryService;
+        this.alertEngine = alertEngine;
+        this.scripts = scripts;
+        this.operationMetrics = operationMetrics;
+        this.meterRegistry = meterRegistry;
+        this.upsertsApplied = Counter.builder("realtime.upsert.applied")
+                .description("Samples written by the upsert script because they were newer than the stored one")
+                .register(meterRegistry);
+        this.upsertsRejected = Counter.builder("realtime.upsert.rejected")
+                .description("Samples discarded by the upsert script because the stored one was as new or newer")
+                .register(meterRegistry);
+        this.replicaFallbacks = Counter.builder("redis.replica.fallbacks")
+                .description("Realtime reads retried on the master because the replica read failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the write coalescing buffer when {@code solar.redis.coalescing.enabled} is set.
+     */
+    @Override
+    public void start() {
+        if (coalescingEnabled) {
+            coalescer = new WriteCoalescer(coalescingFlushInterval, this::saveMetricsBatch, meterRegistry);
+            log.info("Coalescing realtime writes every {}", coalescingFlushInterval);
+        }
+        running = true;
+    }
+
+    /**
+     * Writes the samples still held by the coalescing buffer; later saves are written through.
+     */
+    @Override
+    public void stop() {
+        WriteCoalescer buffered = coalescer;
+        coalescer = null;
+        if (buffered != null) {
+            buffered.close();
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return COALESCER_PHASE;
     }
 
     /**
@@ -42,7 +198,12 @@ public class RealtimeServiceImpl implements IRealtimeService {
          *
          * Stores the metrics as a Redis hash (fields: machineId, timestamp, powerOutput,
          * voltage, current, temperature, efficiency, lastUpdated) and sets the key to
-         * expire after 1 hour.
+         * expire after 1 hour, appends the sample to the machine's rolling time series and publishes it
+         * to realtime subscribers.
+         * How the commands reach Redis is chosen by {@code solar.redis.write-mode} (see {@link WriteMode}).
+         *
+         * With {@code solar.redis.coalescing.enabled} the sample is buffered instead and only the newest sample
+         * of each machine is written, in a pipelined batch, every {@code solar.redis.coalescing.flush-interval}.
          *
          * Note: the implementation uses metrics.getMachineId() to derive the Redis key;
          * that value should match the supplied `machineId`.
@@ -56,28 +217,391 @@ public class RealtimeServiceImpl implements IRealtimeService {
     public void saveMetrics(String machineId, RealtimeDataDto metrics) {
         logRepositoryOperation("save", metrics.getMachineId());
 
+        WriteCoalescer buffer = coalescer;
+        if (buffer != null && validate(metrics) == null) {
+            buffer.offer(metrics);
+            return;
+        }
+
+        long start = operationMetrics.start();
         try {
-            String key = getRealtimeKey(metrics.getMachineId());
+            if (writeMode == WriteMode.PER_FIELD) {
+                savePerField(getRealtimeKey(metrics.getMachineId()), metrics);
+            } else {
+                PreparedSample sample = prepare(0, metrics);
+                countUpserts(executeWritePipeline((connection, transitions) ->
+                        writeSamples(connection, List.of(sample), transitions)), 1);
+                operationMetrics.payload(RedisOperation.SAVE, sample.payloadBytes());
+            }
+            nearCache.invalidate(metrics.getMachineId());
+            operationMetrics.success(RedisOperation.SAVE, start);
+
+        } catch (Exception e) {
+            operationMetrics.failure(RedisOperation.SAVE, start, e);
+            log.error("Error saving realtime data for machine {}: {}", metrics.getMachineId(), e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Persist realtime metrics for many machines through Lettuce pipelines.
+     *
+     * <p>The batch is split into chunks of {@code solar.redis.batch.chunk-size} samples and each chunk is
+     * written in one pipeline, so a chunk costs a single round trip regardless of its size. Items that fail
+     * validation are reported without being sent. If Redis rejects a command in the pipeline, the chunk's
+     * items are rewritten one by one to find the failing ones; a connection-level failure marks every item
+     * of that chunk as failed.
+     *
+     * @param batch the realtime metrics payloads to persist, keyed by their own machineId
+     * @return one result per input item, in input order
+     */
+    @Override
+    public List<BatchItemResultDto> saveMetricsBatch(List<RealtimeDataDto> batch) {
+        log.debug("Executing Redis save batch operation for {} machines", batch.size());
+
+        List<BatchItemResultDto> results = new ArrayList<>(batch.size());
+        for (int from = 0; from < batch.size(); from += batchChunkSize) {
+            results.addAll(saveChunk(batch.subList(from, Math.min(from + batchChunkSize, batch.size()))));
+        }
+        return results;
+    }
 
-            redisTemplate.opsForHash().put(key, "machineId", metrics.getMachineId());
-            redisTemplate.opsForHash().put(key, "timestamp", metrics.getTimestamp().toString());
-            redisTemplate.opsForHash().put(key, "powerOutput", metrics.getPowerOutput());
-            redisTemplate.opsForHash().put(key, "voltage", metrics.getVoltage());
-            redisTemplate.opsForHash().put(key, "current", metrics.getCurrent());
-            redisTemplate.opsForHash().put(key, "temperature", metrics.getTemperature());
-            redisTemplate.opsForHash().put(key, "efficiency", metrics.getEfficiency());
-            redisTemplate.opsForHash().put(key, "lastUpdated", LocalDateTime.now().toString());
+    /**
+     * Writes one chunk of a batch in a single pipeline and reports the outcome of each item.
+     *
+     * @param chunk the samples to write
+     * @return one result per sample, in chunk order
+     */
+    private List<BatchItemResultDto> saveChunk(List<RealtimeDataDto> chunk) {
+        BatchItemResultDto[] results = new BatchItemResultDto[chunk.size()];
+        List<PreparedSample> prepared = new ArrayList<>(chunk.size());
 
-            // Set expiration to 1 hour
-            redisTemplate.expire(key, 1, TimeUnit.HOURS);
+        for (int i = 0; i < chunk.size(); i++) {
+            RealtimeDataDto metrics = chunk.get(i);
+            String invalid = validate(metrics);
+            if (invalid != null) {
+                results[i] = BatchItemResultDto.failure(metrics == null ? null : metrics.getMachineId(), invalid);
+                continue;
+            }
+            prepared.add(prepare(i, metrics));
+        }
 
+        if (prepared.isEmpty()) {
+            return Arrays.asList(results);
+        }
 
+        long start = operationMetrics.start();
+        try {
+            countUpserts(executeWritePipeline((connection, transitions) ->
+                    writeSamples(connection, prepared, transitions)), prepared.size());
+            operationMetrics.success(RedisOperation.SAVE_BATCH, start);
+            operationMetrics.payload(RedisOperation.SAVE_BATCH,
+                    prepared.stream().mapToLong(PreparedSample::payloadBytes).sum());
+            prepared.forEach(sample -> nearCache.invalidate(sample.machineId()));
+            prepared.forEach(sample -> results[sample.index()] = BatchItemResultDto.success(sample.machineId()));
+        } catch (RedisPipelineException e) {
+            operationMetrics.failure(RedisOperation.SAVE_BATCH, start, e);
+            // Lettuce does not report which command failed, so isolate the failing items one sample at a time
+            log.warn("Pipeline for {} machines reported failures, retrying items individually: {}",
+                    prepared.size(), e.getMessage());
+            prepared.forEach(sample -> results[sample.index()] = saveIsolated(sample));
         } catch (Exception e) {
-            log.error("Error saving realtime data for machine {}: {}", metrics.getMachineId(), e.getMessage(), e);
+            operationMetrics.failure(RedisOperation.SAVE_BATCH, start, e);
+            log.error("Error saving realtime batch chunk of {} machines: {}", prepared.size(), e.getMessage(), e);
+            prepared.forEach(sample ->
+                    results[sample.index()] = BatchItemResultDto.failure(sample.machineId(), e.getMessage()));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Writes a single batch item in its own pipeline so its outcome can be reported on its own.
+     *
+     * @param sample the serialized batch item
+     * @return the outcome of the write
+     */
+    private BatchItemResultDto saveIsolated(PreparedSample sample) {
+        long start = operationMetrics.start();
+        try {
+            countUpserts(executeWritePipeline((connection, transitions) ->
+                        writeSamples(connection, List.of(sample), transitions)), 1);
+            operationMetrics.success(RedisOperation.SAVE, start);
+            operationMetrics.payload(RedisOperation.SAVE, sample.payloadBytes());
+            nearCache.invalidate(sample.machineId());
+            return BatchItemResultDto.success(sample.machineId());
+        } catch (Exception e) {
+            operationMetrics.failure(RedisOperation.SAVE, start, e);
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.error("Error saving realtime data for machine {} in batch: {}", sample.machineId(), cause);
+            return BatchItemResultDto.failure(sample.machineId(), cause);
+        }
+    }
+
+    /**
+     * Checks that a batch item carries the fields needed to build its key and hash.
+     *
+     * @param metrics the batch item (may be null)
+     * @return a description of the problem, or null if the item can be written
+     */
+    private String validate(RealtimeDataDto metrics) {
+        if (metrics == null) return "metrics are required";
+        if (metrics.getMachineId() == null || metrics.getMachineId().isBlank()) return "machineId is required";
+        if (metrics.getTimestamp() == null) return "timestamp is required";
+        return null;
+    }
+
+    /**
+     * Writes each hash field with its own {@code HSET} and then sets the expiry, costing one round trip per command.
+     *
+     * @param key     the realtime hash key of the machine
+     * @param metrics the realtime metrics payload to persist
+     */
+    private void savePerField(String key, RealtimeDataDto metrics) {
+        toHash(metrics).forEach((field, value) -> redisTemplate.opsForHash().put(key, field, value));
+
+        // Set expiration to 1 hour
+        redisTemplate.expire(key, REALTIME_TTL_SECONDS, TimeUnit.SECONDS);
+
+        executeWritePipeline((connection, transitions) ->
+                writeDerived(connection, metrics, publishUpdates, transitions));
+    }
+
+    /**
+     * Serializes a sample for the write pipeline.
+     *
+     * @param index   position of the sample in its batch (0 for single saves)
+     * @param metrics the realtime metrics payload to persist
+     * @return the serialized sample
+     */
+    private PreparedSample prepare(int index, RealtimeDataDto metrics) {
+        return new PreparedSample(index, metrics.getMachineId(), rawKey(getRealtimeKey(metrics.getMachineId())),
+                rawHash(toHash(metrics)), metrics);
+    }
+
+    /**
+     * Queues every command that stores the given samples on a pipelined connection.
+     *
+     * <p>Each realtime hash is written with a single {@code HSET} plus {@code EXPIRE}, with {@code EVALSHA} of
+     * {@code save-metrics.lua} in {@link WriteMode#SCRIPT} mode, or with {@code EVALSHA} of
+     * {@code upsert-metrics.lua} in {@link WriteMode#UPSERT} mode. The hash writes of all samples are queued
+     * before any derived write, so the first results of the pipeline are those of the hash writes, in order.
+     *
+     * @param connection  the pipelined connection the commands are queued on
+     * @param samples     the serialized samples
+     * @param transitions collects the alert transitions of the pipeline
+     */
+    private void writeSamples(RedisConnection connection, List<PreparedSample> samples,
+                              AlertTransitions transitions) {
+        samples.forEach(sample -> writeHash(connection, sample));
+        // the upsert script publishes the update itself, and only when the sample is written
+        boolean publish = publishUpdates && writeMode != WriteMode.UPSERT;
+        samples.forEach(sample -> writeDerived(connection, sample.metrics(), publish, transitions));
+    }
+
+    /**
+     * Queues the commands that write one sample's realtime hash and its TTL.
+     *
+     * @param connection the pipelined connection the commands are queued on
+     * @param sample     the serialized sample
+     */
+    private void writeHash(RedisConnection connection, PreparedSample sample) {
+        switch (writeMode) {
+            case SCRIPT -> connection.scriptingCommands().evalSha(saveMetricsScript.getSha1(), ReturnType.INTEGER,
+                    1, scriptArgs(sample, TTL_ARG));
+            case UPSERT -> connection.scriptingCommands().evalSha(upsertMetricsScript.getSha1(), ReturnType.INTEGER,
+                    1, scriptArgs(sample, TTL_ARG,
+                            String.valueOf(EpochMillisUtil.toEpochMillis(sample.metrics().getTimestamp()))
+                                    .getBytes(StandardCharsets.UTF_8),
+                            publishUpdates ? UPDATES_CHANNEL : EMPTY_ARG,
+                            publishUpdates ? RealtimeUpdateCodec.encode(sample.metrics()) : EMPTY_ARG));
+            default -> {
+                connection.hashCommands().hMSet(sample.rawKey(), sample.rawHash());
+                connection.keyCommands().expire(sample.rawKey(), REALTIME_TTL_SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Builds the {@code EVALSHA} keys and arguments of a hash-writing script: the hash key, the leading
+     * arguments and then the field/value pairs.
+     *
+     * @param sample  the serialized sample
+     * @param leading the script arguments that precede the field/value pairs
+     * @return the key followed by the arguments
+     */
+    private byte[][] scriptArgs(PreparedSample sample, byte[]... leading) {
+        byte[][] keysAndArgs = new byte[1 + leading.length + sample.rawHash().size() * 2][];
+        int i = 0;
+        keysAndArgs[i++] = sample.rawKey();
+        for (byte[] arg : leading) {
+            keysAndArgs[i++] = arg;
+        }
+        for (Map.Entry<byte[], byte[]> field : sample.rawHash().entrySet()) {
+            keysAndArgs[i++] = field.getKey();
+            keysAndArgs[i++] = field.getValue();
+        }
+        return keysAndArgs;
+    }
+
+    /**
+     * Queues the commands that follow every realtime hash write: the time-series append, the fleet aggregate
+     * update, the machine registry update, the alert evaluation and, if requested, the publish of the sample on {@code realtime:updates}.
+     *
+     * <p>A stale sample is still appended to the time series, where it is ordered by its own timestamp; the
+     * fleet update script ignores it.
+     *
+     * @param connection  the pipelined connection the commands are queued on
+     * @param metrics     the saved sample
+     * @param publish     whether to publish the sample to realtime subscribers
+     * @param transitions collects the alert transitions of the pipeline
+     */
+    private void writeDerived(RedisConnection connection, RealtimeDataDto metrics, boolean publish,
+                              AlertTransitions transitions) {
+        timeSeriesService.appendSample(connection, metrics);
+        fleetAggregateService.applySample(connection, metrics);
+        machineRegistryService.recordSample(connection, metrics);
+        alertEngine.evaluate(connection, metrics, transitions);
+        if (publish) {
+            connection.publish(UPDATES_CHANNEL, RealtimeUpdateCodec.encode(metrics));
+        }
+    }
+
+    /**
+     * Counts the outcome of the upsert script calls at the head of a write pipeline's results.
+     *
+     * @param results the pipeline results, the hash writes first
+     * @param samples the number of samples written by the pipeline
+     */
+    private void countUpserts(List<Object> results, int samples) {
+        if (writeMode != WriteMode.UPSERT) {
+            return;
+        }
+        for (int i = 0; i < samples && i < results.size(); i++) {
+            if (Long.valueOf(1L).equals(results.get(i))) {
+                upsertsApplied.increment();
+            } else {
+                upsertsRejected.increment();
+            }
+        }
+    }
+
+    /**
+     * Runs write commands in one pipeline, so they cost a single round trip.
+     *
+     * <p>If the server does not know a script yet (first use, restart or {@code SCRIPT FLUSH}), the scripts are
+     * loaded and the pipeline replayed once. Every queued write is idempotent; a replayed update publish is
+     * absorbed by the subscribers' conflation.
+     *
+     * <p>The alert transitions the commands queue are rolled back when the pipeline fails, so the write retried
+     * by the caller, the replay or {@code @Retry} queues them again.
+     *
+     * @param commands queues the write commands on the pipelined connection, recording alert transitions
+     * @return the results of the pipelined commands
+     */
+    private List<Object> executeWritePipeline(BiConsumer<RedisConnection, AlertTransitions> commands) {
+        try {
+            return executeWritePipelineOnce(commands);
+        } catch (RedisPipelineException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (cause == null || !cause.startsWith("NOSCRIPT")) {
+                throw e;
+            }
+            log.info("Loading {} scripts into Redis", scripts.size());
+            // not pipelined: in cluster mode SCRIPT LOAD is broadcast to every master, which a pipeline cannot carry
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                scripts.forEach(script -> connection.scriptingCommands()
+                        .scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8)));
+                return null;
+            });
+            return executeWritePipelineOnce(commands);
+        }
+    }
+
+    /**
+     * Runs write commands in one pipeline, committing their alert transitions if it succeeds and rolling them
+     * back if it fails.
+     *
+     * @param commands queues the write commands on the pipelined connection, recording alert transitions
+     * @return the results of the pipelined commands
+     */
+    private List<Object> executeWritePipelineOnce(BiConsumer<RedisConnection, AlertTransitions> commands) {
+        AlertTransitions transitions = new AlertTransitions();
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                commands.accept(connection, transitions);
+                return null;
+            });
+            transitions.commit();
+            return results;
+        } catch (RuntimeException e) {
+            transitions.rollback();
             throw e;
         }
     }
 
+    /**
+     * Builds the realtime hash fields for a metrics payload, in the order they are stored.
+     *
+     * @param metrics the realtime metrics payload
+     * @return field name to value, with timestamps in the representation of the configured {@link TimestampFormat}
+     *         and {@link HashCodec}
+     */
+    protected Map<String, Object> toHash(RealtimeDataDto metrics) {
+        Map<String, Object> hash = new LinkedHashMap<>();
+        hash.put("machineId", metrics.getMachineId());
+        hash.put("timestamp", toHashTimestamp(metrics.getTimestamp()));
+        hash.put("powerOutput", metrics.getPowerOutput());
+        hash.put("voltage", metrics.getVoltage());
+        hash.put("current", metrics.getCurrent());
+        hash.put("temperature", metrics.getTemperature());
+        hash.put("efficiency", metrics.getEfficiency());
+        hash.put("lastUpdated", toHashTimestamp(LocalDateTime.now()));
+        return hash;
+    }
+
+    /**
+     * Converts a timestamp to the value stored in the hash.
+     *
+     * @param timestamp the timestamp to store
+     * @return the LocalDateTime itself for {@link HashCodec#COMPACT}, which encodes it as binary epoch millis;
+     *         otherwise epoch millis for {@link TimestampFormat#EPOCH_MILLIS} and an ISO-8601 string for
+     *         {@link TimestampFormat#ISO}
+     */
+    private Object toHashTimestamp(LocalDateTime timestamp) {
+        if (hashCodec == HashCodec.COMPACT) {
+            return timestamp;
+        }
+        return timestampFormat == TimestampFormat.EPOCH_MILLIS
+                ? EpochMillisUtil.toEpochMillis(timestamp) : timestamp.toString();
+    }
+
+    /**
+     * Serializes a key with the template's key serializer.
+     *
+     * @param key the Redis key
+     * @return the raw key bytes
+     */
+    @SuppressWarnings("unchecked")
+    protected byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    /**
+     * Serializes hash fields and values with the template's hash serializers, preserving field order.
+     *
+     * @param hash field name to value
+     * @return raw field bytes to raw value bytes
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<byte[], byte[]> rawHash(Map<String, Object> hash) {
+        RedisSerializer<String> fieldSerializer = (RedisSerializer<String>) redisTemplate.getHashKeySerializer();
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+
+        Map<byte[], byte[]> raw = new LinkedHashMap<>();
+        hash.forEach((field, value) -> raw.put(fieldSerializer.serialize(field), valueSerializer.serialize(value)));
+        return raw;
+    }
+
     /**
      * Retrieve realtime metrics for a given machine.
      *
@@ -105,17 +629,7 @@ public class RealtimeServiceImpl implements IRealtimeService {
                         .build());
             }
 
-            return Optional.ofNullable(RealtimeDataDto.builder()
-                    .machineId(metrics.getMachineId())
-                    .timestamp(metrics.getTimestamp())
-                    .powerOutput(metrics.getPowerOutput())
-                    .voltage(metrics.getVoltage())
-                    .current(metrics.getCurrent())
-                    .temperature(metrics.getTemperature())
-                    .efficiency(metrics.getEfficiency())
-                    .metadata(metrics.getMetadata())
-                    .lastUpdated(metrics.getLastUpdated())
-                    .build());
+            return Optional.ofNullable(toDto(metrics));
 
         } catch (Exception e) {
             log.error("Error retrieving realtime metrics for machine {}: {}", machineId, e.getMessage(), e);
@@ -123,10 +637,57 @@ public class RealtimeServiceImpl implements IRealtimeService {
         }
     }
 
+    /**
+     * Retrieve the realtime metrics of many machines with one pipelined {@code HGETALL} per machine.
+     *
+     * All hashes are requested in a single pipeline, so the whole lookup costs one round trip. Machines
+     * without stored data are left out of the result rather than padded with placeholders.
+     *
+     * @param machineIds the identifiers of the machines whose realtime metrics are requested
+     * @return the realtime metrics found, in the iteration order of {@code machineIds}
+     * @throws RedisException if an error occurs while reading data from Redis
+     */
+    @Override
+    public List<RealtimeDataDto> getRealtimeMetrics(Collection<String> machineIds) {
+        log.debug("Executing getRealtimeMetrics operation for {} machines", machineIds.size());
+
+        try {
+            return getRealtimeData(machineIds).stream()
+                    .map(this::toDto)
+                    .toList();
+        } catch (Exception e) {
+            log.error("Error retrieving realtime metrics for {} machines: {}", machineIds.size(), e.getMessage(), e);
+            throw new RedisException("Failed to retrieve realtime data: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Maps stored realtime metrics to the DTO returned by the service.
+     *
+     * @param metrics the stored realtime metrics
+     * @return the corresponding RealtimeDataDto
+     */
+    protected RealtimeDataDto toDto(RealtimeMetrics metrics) {
+        return RealtimeDataDto.builder()
+                .machineId(metrics.getMachineId())
+                .timestamp(metrics.getTimestamp())
+                .powerOutput(metrics.getPowerOutput())
+                .voltage(metrics.getVoltage())
+                .current(metrics.getCurrent())
+                .temperature(metrics.getTemperature())
+                .efficiency(metrics.getEfficiency())
+                .metadata(metrics.getMetadata())
+                .lastUpdated(metrics.getLastUpdated())
+                .build();
+    }
+
     /**
      * Delete the stored realtime metrics for the given machine from Redis.
      *
-     * The method constructs the Redis key for the machine and removes the associated hash entry.
+     * The method constructs the Redis key for the machine, removes the associated hash entry and takes the
+     * machine out of the fleet totals, rankings and machine registry, and clears its alert state. A sample still
+     * held by the coalescing buffer is dropped first, so it cannot bring the machine back. The reactive service
+     * deletes through this method as well.
      *
      * @param machineId the unique identifier of the machine whose realtime data should be deleted
      */
@@ -134,10 +695,22 @@ public class RealtimeServiceImpl implements IRealtimeService {
     public void deleteMetrics(String machineId) {
         logRepositoryOperation("delete", machineId);
 
+        WriteCoalescer buffer = coalescer;
+        if (buffer != null) {
+            buffer.discard(machineId);
+        }
+
+        long start = operationMetrics.start();
         try {
             String key = getRealtimeKey(machineId);
             redisTemplate.delete(key);
+            fleetAggregateService.removeMachine(machineId);
+            machineRegistryService.removeMachine(machineId);
+            alertEngine.removeMachine(machineId);
+            nearCache.invalidate(machineId);
+            operationMetrics.success(RedisOperation.DELETE, start);
         } catch (Exception e) {
+            operationMetrics.failure(RedisOperation.DELETE, start, e);
             log.error("Error deleting realtime data for machine {}: {}", machineId, e.getMessage(), e);
             throw e;
         }
@@ -146,16 +719,23 @@ public class RealtimeServiceImpl implements IRealtimeService {
     /**
      * Checks whether realtime metrics exist in Redis for the given machine.
      *
+     * Like the realtime reads, the check is routed to a replica when replica reads are enabled.
+     *
      * @param machineId the unique identifier of the machine
      * @return true if a Redis key for the machine's realtime data exists; false if the key is absent or if an error occurs while checking
      */
     @Override
     public boolean exists(String machineId) {
         logRepositoryOperation("exists", machineId);
+        long start = operationMetrics.start();
         try {
-            String key = getRealtimeKey(machineId);
-            return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+            byte[] key = rawKey(getRealtimeKey(machineId));
+            boolean exists = Boolean.TRUE.equals(
+                    executeRead(connection -> connection.keyCommands().exists(key)));
+            operationMetrics.success(RedisOperation.EXISTS, start);
+            return exists;
         } catch (Exception e) {
+            operationMetrics.failure(RedisOperation.EXISTS, start, e);
             log.error("Error checking existence for machine {}: {}", machineId, e.getMessage(), e);
             return false;
         }
@@ -184,42 +764,185 @@ public class RealtimeServiceImpl implements IRealtimeService {
 
 
     /**
-     * Retrieves stored realtime metrics for a machine from Redis and maps them to a RealtimeMetrics instance.
+     * Retrieves stored realtime metrics for a machine and maps them to a RealtimeMetrics instance.
      *
-     * Reads a Redis hash keyed for the given machineId and converts stored fields (machineId, timestamp,
-     * powerOutput, voltage, current, temperature, efficiency, lastUpdated) using the class' parsing helpers.
+     * Served from the near cache when the machine was read recently; otherwise reads the Redis hash keyed
+     * for the given machineId and converts stored fields (machineId, timestamp, powerOutput, voltage,
+     * current, temperature, efficiency, lastUpdated) using the class' parsing helpers.
      *
      * @param machineId the identifier of the machine whose realtime data should be retrieved
      * @return a populated RealtimeMetrics if data exists for the machine; null if no data is found
      */
     public RealtimeMetrics getRealtimeData(String machineId) {
+        return nearCache.get(machineId, this::loadRealtimeData);
+    }
+
+    /**
+     * Retrieves the stored realtime metrics of many machines, reading all near-cache misses in a single pipeline.
+     *
+     * @param machineIds the identifiers of the machines whose realtime data should be retrieved
+     * @return the RealtimeMetrics of every machine that has data, in the iteration order of {@code machineIds}
+     */
+    public List<RealtimeMetrics> getRealtimeData(Collection<String> machineIds) {
+        return nearCache.getAll(machineIds, this::loadRealtimeData);
+    }
+
+    /**
+     * Reads a machine's realtime hash from Redis.
+     *
+     * @param machineId the identifier of the machine whose realtime data should be read
+     * @return a populated RealtimeMetrics if data exists for the machine; null if no data is found
+     */
+    private RealtimeMetrics loadRealtimeData(String machineId) {
         logRepositoryOperation("get", machineId);
 
+        long start = operationMetrics.start();
         try {
-            String key = getRealtimeKey(machineId);
-            Map<Object, Object> data = redisTemplate.opsForHash().entries(key);
+            byte[] key = rawKey(getRealtimeKey(machineId));
+            Map<byte[], byte[]> raw = executeRead(connection -> connection.hashCommands().hGetAll(key));
 
-            if (data.isEmpty()) {
+            if (raw == null || raw.isEmpty()) {
+                operationMetrics.success(RedisOperation.GET, start);
                 return null;
             }
 
-            return RealtimeMetrics.builder()
-                    .machineId((String) data.get("machineId"))
-                    .timestamp(parseLocalDateTime(data.get("timestamp")))
-                    .powerOutput(parseDouble(data.get("powerOutput")))
-                    .voltage(parseDouble(data.get("voltage")))
-                    .current(parseDouble(data.get("current")))
-                    .temperature(parseDouble(data.get("temperature")))
-                    .efficiency(parseDouble(data.get("efficiency")))
-                    .lastUpdated(parseLocalDateTime(data.get("lastUpdated")))
-                    .build();
+            RealtimeMetrics metrics = toRealtimeMetrics(deserializeHash(raw));
+            operationMetrics.success(RedisOperation.GET, start);
+            operationMetrics.payload(RedisOperation.GET, payloadBytes(key, raw));
+            return metrics;
 
         } catch (Exception e) {
+            operationMetrics.failure(RedisOperation.GET, start, e);
             log.error("Error retrieving realtime data for machine {}: {}", machineId, e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * Reads the realtime hashes of many machines from Redis with one pipelined {@code HGETALL} each.
+     *
+     * @param machineIds the identifiers of the machines whose realtime data should be read
+     * @return the RealtimeMetrics of every machine that has data, keyed by machineId
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, RealtimeMetrics> loadRealtimeData(Collection<String> machineIds) {
+        log.debug("Executing Redis pipelined get operation for {} machines", machineIds.size());
+
+        List<byte[]> keys = new ArrayList<>(machineIds.size());
+        machineIds.forEach(machineId -> keys.add(rawKey(getRealtimeKey(machineId))));
+        List<String> ids = new ArrayList<>(machineIds);
+
+        // the pipeline is closed on the connection itself, so the replies stay raw and can be measured
+        long start = operationMetrics.start();
+        List<Object> hashes;
+        try {
+            hashes = executeRead(connection -> {
+                connection.openPipeline();
+                keys.forEach(key -> connection.hashCommands().hGetAll(key));
+                return connection.closePipeline();
+            });
+            operationMetrics.success(RedisOperation.GET_MULTI, start);
+        } catch (Exception e) {
+            operationMetrics.failure(RedisOperation.GET_MULTI, start, e);
+            throw e;
+        }
+
+        Map<String, RealtimeMetrics> metrics = new HashMap<>(hashes.size() * 2);
+        long payload = 0;
+        for (int i = 0; i < hashes.size(); i++) {
+            if (hashes.get(i) instanceof Map<?, ?> data && !data.isEmpty()) {
+                Map<byte[], byte[]> raw = (Map<byte[], byte[]>) data;
+                payload += payloadBytes(keys.get(i), raw);
+                metrics.put(ids.get(i), toRealtimeMetrics(deserializeHash(raw)));
+            }
+        }
+        operationMetrics.payload(RedisOperation.GET_MULTI, payload);
+        return metrics;
+    }
+
+    /**
+     * Runs a realtime read on the read template, and again on the master if it fails on a replica.
+     *
+     * <p>With {@code solar.redis.replica.enabled} the read template routes reads to replicas within
+     * {@code solar.redis.replica.max-lag} and to the master when none is, so a read may miss a write acknowledged
+     * up to that long ago; entries it loads into the near cache are stale by at most that plus the cache TTL.
+     *
+     * @param read the read to run
+     * @param <T>  the result type
+     * @return the result of the read
+     */
+    private <T> T executeRead(RedisCallback<T> read) {
+        if (readTemplate == redisTemplate) {
+            return redisTemplate.execute(read);
+        }
+        try {
+            return readTemplate.execute(read);
+        } catch (DataAccessException e) {
+            replicaFallbacks.increment();
+            log.warn("Realtime read failed on a replica, retrying on the master: {}", e.getMessage());
+            return redisTemplate.execute(read);
+        }
+    }
+
+    /**
+     * Deserializes raw hash fields and values with the template's hash serializers.
+     *
+     * <p>Timestamps stored as epoch millis JSON numbers are decoded straight from their digits into a
+     * LocalDateTime, bypassing the JSON parser.
+     *
+     * @param raw raw field bytes to raw value bytes
+     * @return field name to value
+     */
+    protected Map<Object, Object> deserializeHash(Map<byte[], byte[]> raw) {
+        RedisSerializer<?> fieldSerializer = redisTemplate.getHashKeySerializer();
+        RedisSerializer<?> valueSerializer = redisTemplate.getHashValueSerializer();
+
+        Map<Object, Object> hash = new LinkedHashMap<>();
+        raw.forEach((rawField, value) -> {
+            Object field = fieldSerializer.deserialize(rawField);
+            long epochMillis = "timestamp".equals(field) || "lastUpdated".equals(field)
+                    ? EpochMillisUtil.parse(value) : EpochMillisUtil.NOT_EPOCH_MILLIS;
+            hash.put(field, epochMillis != EpochMillisUtil.NOT_EPOCH_MILLIS
+                    ? EpochMillisUtil.toLocalDateTime(epochMillis) : valueSerializer.deserialize(value));
+        });
+        return hash;
+    }
+
+    /**
+     * Counts the bytes of a realtime hash as they travel to or from Redis.
+     *
+     * @param key the raw hash key
+     * @param raw raw field bytes to raw value bytes
+     * @return the length of the key plus every field and value
+     */
+    private static long payloadBytes(byte[] key, Map<byte[], byte[]> raw) {
+        long bytes = key.length;
+        for (Map.Entry<byte[], byte[]> field : raw.entrySet()) {
+            bytes += field.getKey().length + (field.getValue() == null ? 0 : field.getValue().length);
+        }
+        return bytes;
+    }
+
+    /**
+     * Converts the stored fields of a realtime hash using the class' parsing helpers.
+     *
+     * @param data the deserialized hash fields (machineId, timestamp, powerOutput, voltage, current,
+     *             temperature, efficiency, lastUpdated)
+     * @return the populated RealtimeMetrics
+     */
+    protected RealtimeMetrics toRealtimeMetrics(Map<Object, Object> data) {
+        return RealtimeMetrics.builder()
+                .machineId((String) data.get("machineId"))
+                .timestamp(parseLocalDateTime(data.get("timestamp")))
+                .powerOutput(parseDouble(data.get("powerOutput")))
+                .voltage(parseDouble(data.get("voltage")))
+                .current(parseDouble(data.get("current")))
+                .temperature(parseDouble(data.get("temperature")))
+                .efficiency(parseDouble(data.get("efficiency")))
+                .lastUpdated(parseLocalDateTime(data.get("lastUpdated")))
+                .build();
+    }
+
     /**
      * Converts various object types to a Double.
      *
@@ -249,14 +972,17 @@ public class RealtimeServiceImpl implements IRealtimeService {
     /**
      * Parses an Object into a LocalDateTime.
      *
-     * Converts a String value using LocalDateTime.parse and returns null for null input,
-     * non-String types, or when parsing fails.
+     * Returns a LocalDateTime decoded by the compact codec as-is, converts a Number from UTC epoch millis,
+     * converts a String value using LocalDateTime.parse and returns null for null input, other types, or when
+     * parsing fails.
      *
-     * @param value the value to parse (expected to be a ISO-8601 datetime String)
-     * @return the parsed LocalDateTime, or null if input is null, not a String, or cannot be parsed
+     * @param value the value to parse (a LocalDateTime, epoch millis or an ISO-8601 datetime String)
+     * @return the parsed LocalDateTime, or null if input is null, of another type, or cannot be parsed
      */
     private LocalDateTime parseLocalDateTime(Object value) {
         if (value == null) return null;
+        if (value instanceof LocalDateTime) return (LocalDateTime) value;
+        if (value instanceof Number) return EpochMillisUtil.toLocalDateTime(((Number) value).longValue());
         if (value instanceof String) {
             try {
                 return LocalDateTime.parse((String) value);
@@ -266,4 +992,15 @@ public class RealtimeServiceImpl implements IRealtimeService {
         }
         return null;
     }
+
+    /**
+     * A sample serialized for the write pipeline, remembering its position in the batch.
+     */
+    private record PreparedSample(int index, String machineId, byte[] rawKey, Map<byte[], byte[]> rawHash,
+                                  RealtimeDataDto metrics) {
+
+        long payloadBytes() {
+            return RealtimeServiceImpl.payloadBytes(rawKey, rawHash);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.solar.monitoring.system.redis.service;
+
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.dto.TimeSeriesBucketDto;
+import com.solar.monitoring.system.redis.exception.RedisException;
+import com.solar.monitoring.system.redis.model.TimeSeriesMetric;
+import com.solar.monitoring.system.redis.util.EpochMillisUtil;
+import com.solar.monitoring.system.redis.util.RedisKeyUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Slf4j
+@Service
+public class TimeSeriesServiceImpl implements ITimeSeriesService {
+
+    private static final StringRedisSerializer STRING_SERIALIZER = StringRedisSerializer.UTF_8;
+
+    /** The script returns a list; its elements are deserialized one by one with this serializer. */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisSerializer<List> RESULT_SERIALIZER = (RedisSerializer) STRING_SERIALIZER;
+
+    protected final RedisTemplate<String, Object> redisTemplate;
+    protected final RedisScript<List> downsampleScript;
+
+    @Value("${solar.redis.timeseries.enabled:true}")
+    private boolean enabled;
+
+    @Value("${solar.redis.timeseries.window:1h}")
+    private Duration window;
+
+    @Value("${solar.redis.timeseries.max-samples:3600}")
+    private long maxSamples;
+
+    /**
+     * Constructs a TimeSeriesServiceImpl backed by the provided RedisTemplate.
+     *
+     * @param redisTemplate    template used for queries
+     * @param downsampleScript the {@code timeseries-downsample.lua} script
+     */
+    public TimeSeriesServiceImpl(RedisTemplate<String, Object> redisTemplate, RedisScript<List> downsampleScript) {
+        this.redisTemplate = redisTemplate;
+        this.downsampleScript = downsampleScript;
+    }
+
+    /**
+     * Queues the commands that append a sample to the machine's sorted set and keep it bounded.
+     *
+     * <p>The member is the plain-text record {@code epochMillis|powerOutput|voltage|current|temperature|efficiency}
+     * scored by the sample's epoch millis, so a redelivered sample replaces itself instead of adding a
+     * duplicate. Entries older than {@code solar.redis.timeseries.window} before the sample are trimmed, the
+     * set is capped at {@code solar.redis.timeseries.max-samples} newest entries, and the key expires one
+     * window after the last write.
+     *
+     * @param connection the (pipelined) connection to queue the commands on
+     * @param metrics    the sample to append
+     */
+    @Override
+    public void appendSample(RedisConnection connection, RealtimeDataDto metrics) {
+        if (!enabled) {
+            return;
+        }
+
+        long epochMillis = EpochMillisUtil.toEpochMillis(metrics.getTimestamp());
+        byte[] key = STRING_SERIALIZER.serialize(RedisKeyUtil.getTimeSeriesKey(metrics.getMachineId()));
+        String member = epochMillis
+                + "|" + format(metrics.getPowerOutput())
+                + "|" + format(metrics.getVoltage())
+                + "|" + format(metrics.getCurrent())
+                + "|" + format(metrics.getTemperature())
+                + "|" + format(metrics.getEfficiency());
+
+        connection.zSetCommands().zAdd(key, epochMillis, member.getBytes(StandardCharsets.UTF_8));
+        connection.zSetCommands().zRemRangeByScore(key,
+                Range.leftUnbounded(Range.Bound.exclusive((double) (epochMillis - window.toMillis()))));
+        connection.zSetCommands().zRemRange(key, 0, -(maxSamples + 1));
+        connection.keyCommands().pExpire(key, window.toMillis());
+    }
+
+    /**
+     * Downsamples the machine's window with the {@code timeseries-downsample.lua} script, so only one row per
+     * bucket crosses the wire however many samples the range holds.
+     *
+     * @param machineId  the machine identifier
+     * @param metric     the metric to aggregate
+     * @param from       start of the range (inclusive), or null for the start of the window
+     * @param to         end of the range (inclusive), or null for the end of the window
+     * @param resolution bucket size
+     * @return the non-empty buckets in the range, oldest first
+     * @throws RedisException if the script fails
+     */
+    @Override
+    public List<TimeSeriesBucketDto> getDownsampled(String machineId, TimeSeriesMetric metric,
+                                                    LocalDateTime from, LocalDateTime to, Duration resolution) {
+        log.debug("Executing Redis downsample operation for machine: {}", machineId);
+
+        if (resolution.toMillis() <= 0) {
+            throw new IllegalArgumentException("resolution must be at least one millisecond");
+        }
+
+        try {
+            List<?> flat = redisTemplate.execute(downsampleScript, STRING_SERIALIZER, RESULT_SERIALIZER,
+                    Collections.singletonList(RedisKeyUtil.getTimeSeriesKey(machineId)),
+                    from == null ? "-inf" : String.valueOf(EpochMillisUtil.toEpochMillis(from)),
+                    to == null ? "+inf" : String.valueOf(EpochMillisUtil.toEpochMillis(to)),
+                    String.valueOf(resolution.toMillis()), String.valueOf(metric.getPosition()));
+
+            if (flat == null) {
+                return Collections.emptyList();
+            }
+
+            List<TimeSeriesBucketDto> buckets = new ArrayList<>(flat.size() / 5);
+            for (int i = 0; i + 4 < flat.size(); i += 5) {
+                buckets.add(TimeSeriesBucketDto.builder()
+                        .bucketStart(EpochMillisUtil.toLocalDateTime(Long.parseLong((String) flat.get(i))))
+                        .count(Long.parseLong((String) flat.get(i + 1)))
+                        .min(Double.parseDouble((String) flat.get(i + 2)))
+                        .max(Double.parseDouble((String) flat.get(i + 3)))
+                        .avg(Double.parseDouble((String) flat.get(i + 4)))
+                        .build());
+            }
+            return buckets;
+
+        } catch (Exception e) {
+            log.error("Error downsampling time series for machine {}: {}", machineId, e.getMessage(), e);
+            throw new RedisException("Failed to downsample time series: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Renders a metric value for a time-series member; missing values become an empty field.
+     *
+     * @param value the metric value (may be null)
+     * @return the decimal representation, or an empty string
+     */
+    private static String format(Double value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Converts a sample timestamp to epoch millis, reading it as UTC like the compact hash codec does.
+     *
+     * @param timestamp the timestamp
+     * @return milliseconds since the epoch
+     */
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Converts UTC epoch millis back to a LocalDateTime.
+     *
+     * @param epochMillis milliseconds since the epoch
+     * @return the corresponding LocalDateTime
+     */
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+}
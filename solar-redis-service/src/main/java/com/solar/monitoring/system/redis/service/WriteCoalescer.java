@@ -0,0 +1,184 @@
+package com.solar.monitoring.system.redis.service;
+
+import com.solar.monitoring.system.redis.dto.BatchItemResultDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Write-behind buffer keeping only the latest pending sample of each machine.
+ *
+ * <p>Samples are merged into a concurrent map keyed by machineId; the newer sample by {@code timestamp} wins, and
+ * the other is dropped. A single thread flushes the map every interval through a batch writer, so a machine
+ * reporting many times per interval costs one write per interval. Samples the writer rejects, or the whole batch
+ * if the writer throws, are merged back and retried with the next flush, never overwriting a newer sample that
+ * arrived meanwhile.
+ */
+@Slf4j
+final class WriteCoalescer implements AutoCloseable {
+
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Function<List<RealtimeDataDto>, List<BatchItemResultDto>> writer;
+    private final ScheduledExecutorService flusher;
+
+    private final Counter dropped;
+    private final Counter flushed;
+    private final Counter failed;
+    private final Timer lag;
+
+    /**
+     * Creates the buffer and starts flushing it every {@code interval}.
+     *
+     * @param interval      time between flushes
+     * @param writer        writes a batch and reports a result per sample, in order
+     * @param meterRegistry registry the {@code realtime.coalescing.*} meters are bound to
+     */
+    WriteCoalescer(Duration interval, Function<List<RealtimeDataDto>, List<BatchItemResultDto>> writer,
+                   MeterRegistry meterRegistry) {
+        this.writer = writer;
+
+        this.dropped = Counter.builder("realtime.coalescing.dropped")
+                .description("Samples superseded by a newer sample of the same machine before being written")
+                .register(meterRegistry);
+        this.flushed = Counter.builder("realtime.coalescing.flushed")
+                .description("Samples written by the coalescing buffer")
+                .register(meterRegistry);
+        this.failed = Counter.builder("realtime.coalescing.failed")
+                .description("Sample writes that failed and were kept for the next flush")
+                .register(meterRegistry);
+        this.lag = Timer.builder("realtime.coalescing.flush.lag")
+                .description("Time from a machine's oldest unwritten sample being buffered to its flush")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("realtime.coalescing.pending", pending, ConcurrentHashMap::size)
+                .description("Machines with a sample waiting to be written")
+                .register(meterRegistry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "realtime-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffers a sample, replacing the machine's pending sample if this one is at least as new.
+     *
+     * @param metrics the sample; must carry a machineId and timestamp
+     */
+    void offer(RealtimeDataDto metrics) {
+        merge(new Pending(metrics, System.nanoTime()));
+    }
+
+    /**
+     * Drops the machine's pending sample, if any, without writing it.
+     *
+     * @param machineId the machine whose sample is dropped
+     */
+    void discard(String machineId) {
+        pending.remove(machineId);
+    }
+
+    /**
+     * Writes every buffered sample now.
+     */
+    void flush() {
+        List<Pending> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<String, Pending> slot : pending.entrySet()) {
+            // a sample merged in since the iterator read the slot stays buffered for the next flush
+            if (pending.remove(slot.getKey(), slot.getValue())) {
+                batch.add(slot.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<RealtimeDataDto> samples = new ArrayList<>(batch.size());
+        batch.forEach(entry -> samples.add(entry.metrics()));
+        List<BatchItemResultDto> results;
+        try {
+            results = writer.apply(samples);
+        } catch (RuntimeException e) {
+            batch.forEach(this::merge);
+            failed.increment(batch.size());
+            throw e;
+        }
+
+        long now = System.nanoTime();
+        int failures = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Pending entry = batch.get(i);
+            if (results.get(i).isSuccess()) {
+                lag.record(now - entry.bufferedAt(), TimeUnit.NANOSECONDS);
+            } else {
+                failures++;
+                merge(entry);
+            }
+        }
+        flushed.increment(batch.size() - failures);
+        if (failures > 0) {
+            failed.increment(failures);
+            log.warn("Coalesced flush failed for {} of {} machines, retrying with the next flush",
+                    failures, batch.size());
+        }
+    }
+
+    /**
+     * Stops the periodic flush and writes what is still buffered.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Coalescing flush did not finish within 10s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("{} coalesced samples could not be written on shutdown", pending.size());
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Coalescing flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Merges an entry into the map by sample timestamp, keeping the earliest buffering time of the slot so the
+     * lag reflects the oldest unwritten sample.
+     */
+    private void merge(Pending entry) {
+        pending.merge(entry.metrics().getMachineId(), entry, (current, incoming) -> {
+            dropped.increment();
+            boolean newer = !incoming.metrics().getTimestamp().isBefore(current.metrics().getTimestamp());
+            long bufferedAt = Math.min(current.bufferedAt(), incoming.bufferedAt());
+            return new Pending(newer ? incoming.metrics() : current.metrics(), bufferedAt);
+        });
+    }
+
+    private record Pending(RealtimeDataDto metrics, long bufferedAt) {
+    }
+}
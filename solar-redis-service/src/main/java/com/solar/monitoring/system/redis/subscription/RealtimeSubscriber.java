@@ -0,0 +1,146 @@
+package com.solar.monitoring.system.redis.subscription;
+
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One SSE client and its conflating buffer.
+ *
+ * <p>The buffer holds at most one pending update per subscribed machine: a newer update replaces the
+ * pending one, so a slow client skips intermediate values instead of growing a queue. Updates are written
+ * by a task on the shared sender pool, at most one per client at a time, so the broadcaster never waits on
+ * a client's socket.
+ */
+@Slf4j
+final class RealtimeSubscriber {
+
+    private final SseEmitter emitter;
+    private final Set<String> machineIds;
+    private final Executor sender;
+    private final Counter delivered;
+    private final Counter conflated;
+
+    private final Map<String, RealtimeDataDto> pending = new LinkedHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    RealtimeSubscriber(SseEmitter emitter, Set<String> machineIds, Executor sender,
+                       Counter delivered, Counter conflated) {
+        this.emitter = emitter;
+        this.machineIds = machineIds;
+        this.sender = sender;
+        this.delivered = delivered;
+        this.conflated = conflated;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    Set<String> getMachineIds() {
+        return machineIds;
+    }
+
+    /**
+     * Buffers an update for sending, replacing an older pending update of the same machine.
+     *
+     * An update older than the pending one is discarded, so updates published out of order never
+     * overwrite newer values.
+     *
+     * @param update the update; must carry a machineId and timestamp
+     */
+    void offer(RealtimeDataDto update) {
+        if (closed) {
+            return;
+        }
+
+        synchronized (pending) {
+            RealtimeDataDto previous = pending.get(update.getMachineId());
+            if (previous != null) {
+                conflated.increment();
+                if (isOlder(update, previous)) {
+                    return;
+                }
+            }
+            pending.put(update.getMachineId(), update);
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Stops accepting updates; the buffered ones are dropped.
+     */
+    void close() {
+        closed = true;
+        synchronized (pending) {
+            pending.clear();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+        }
+    }
+
+    /**
+     * Writes buffered updates until the buffer is empty, then re-checks for updates offered meanwhile.
+     */
+    private void drain() {
+        try {
+            while (!closed) {
+                List<RealtimeDataDto> batch;
+                synchronized (pending) {
+                    if (pending.isEmpty()) {
+                        break;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                }
+                for (RealtimeDataDto update : batch) {
+                    emitter.send(SseEmitter.event()
+                            .name("update")
+                            .data(update, MediaType.APPLICATION_JSON));
+                    delivered.increment();
+                }
+            }
+        } catch (Exception e) {
+            // the client went away; the emitter's completion callback unsubscribes it
+            log.debug("Closing realtime subscription after failed send: {}", e.getMessage());
+            close();
+            emitter.completeWithError(e);
+        } finally {
+            draining.set(false);
+        }
+
+        boolean more;
+        synchronized (pending) {
+            more = !pending.isEmpty();
+        }
+        if (more && !closed) {
+            scheduleDrain();
+        }
+    }
+
+    private static boolean isOlder(RealtimeDataDto update, RealtimeDataDto previous) {
+        return update.getTimestamp() != null && previous.getTimestamp() != null
+                && update.getTimestamp().isBefore(previous.getTimestamp());
+    }
+}
@@ -0,0 +1,182 @@
+package com.solar.monitoring.system.redis.subscription;
+
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.util.RedisKeyUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class RealtimeUpdateBroadcaster implements MessageListener, DisposableBean {
+
+    private final boolean enabled;
+    private final Duration timeout;
+    private final int maxMachines;
+    private final ExecutorService sender;
+
+    private final Set<RealtimeSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Set<RealtimeSubscriber>> subscribersByMachine = new ConcurrentHashMap<>();
+
+    private final Counter received;
+    private final Counter delivered;
+    private final Counter conflated;
+
+    /**
+     * Fans realtime updates published by any service instance out to this node's SSE clients.
+     *
+     * <p>The node holds a single subscription to {@code realtime:updates} on the shared listener container,
+     * however many clients are connected. Each message is routed only to the clients subscribed to its
+     * machine and buffered per client; the {@code solar.redis.updates.sender-threads} pool writes the
+     * buffers to the clients, so a slow client never delays the broadcast to the others.
+     *
+     * @param listenerContainer the shared Redis pub/sub container
+     * @param meterRegistry     registry the {@code realtime.updates.*} meters are bound to
+     * @param enabled           whether updates are published and subscriptions accepted
+     * @param senderThreads     number of threads writing to clients
+     * @param timeout           how long a subscription stays open before the client has to reconnect
+     * @param maxMachines       maximum number of machines a single subscription may name
+     */
+    public RealtimeUpdateBroadcaster(RedisMessageListenerContainer listenerContainer,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${solar.redis.updates.enabled:true}") boolean enabled,
+                                     @Value("${solar.redis.updates.sender-threads:4}") int senderThreads,
+                                     @Value("${solar.redis.updates.timeout:30m}") Duration timeout,
+                                     @Value("${solar.redis.updates.max-machines:1000}") int maxMachines) {
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.maxMachines = maxMachines;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "realtime-sse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.received = Counter.builder("realtime.updates.received")
+                .description("Realtime update messages received from Redis")
+                .register(meterRegistry);
+        this.delivered = Counter.builder("realtime.updates.delivered")
+                .description("Realtime updates written to SSE clients")
+                .register(meterRegistry);
+        this.conflated = Counter.builder("realtime.updates.conflated")
+                .description("Realtime updates replaced by a newer one before a slow client received them")
+                .register(meterRegistry);
+        Gauge.builder("realtime.updates.subscribers", subscribers, Set::size)
+                .description("Open SSE subscriptions on this node")
+                .register(meterRegistry);
+
+        if (enabled) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(RedisKeyUtil.getRealtimeUpdatesChannel()));
+        }
+    }
+
+    /**
+     * Returns whether subscriptions are accepted.
+     *
+     * @return true if realtime updates are enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens an SSE subscription to the given machines.
+     *
+     * The subscription is registered before {@code snapshot} is buffered, so an update published while the
+     * snapshot was read is not lost; the newer of the two is sent.
+     *
+     * @param machineIds the machines to receive updates of
+     * @param snapshot   current values sent first, e.g. read from Redis by the caller
+     * @return the emitter streaming {@code update} events, each carrying a RealtimeDataDto as JSON
+     * @throws IllegalArgumentException if no machine or more than {@code solar.redis.updates.max-machines} are named
+     */
+    public SseEmitter subscribe(Collection<String> machineIds, Collection<RealtimeDataDto> snapshot) {
+        Set<String> ids = Collections.unmodifiableSet(new LinkedHashSet<>(machineIds));
+        if (ids.isEmpty() || ids.size() > maxMachines) {
+            throw new IllegalArgumentException("A subscription must name between 1 and " + maxMachines + " machines");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        RealtimeSubscriber subscriber = new RealtimeSubscriber(emitter, ids, sender, delivered, conflated);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        subscribers.add(subscriber);
+        for (String machineId : ids) {
+            subscribersByMachine.computeIfAbsent(machineId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        log.info("Opened realtime subscription for {} machines ({} open)", ids.size(), subscribers.size());
+
+        snapshot.forEach(subscriber::offer);
+        return emitter;
+    }
+
+    /**
+     * Routes a realtime update message to the subscribers of its machine.
+     *
+     * Runs on the listener container's dispatch thread and never blocks: it only buffers the update.
+     *
+     * @param message the message published by a save
+     * @param pattern unused, the listener is bound to a channel
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        received.increment();
+
+        RealtimeDataDto update = RealtimeUpdateCodec.decode(message.getBody());
+        if (update == null) {
+            log.warn("Ignoring malformed realtime update message");
+            return;
+        }
+
+        Set<RealtimeSubscriber> targets = subscribersByMachine.get(update.getMachineId());
+        if (targets != null) {
+            targets.forEach(subscriber -> subscriber.offer(update));
+        }
+    }
+
+    /**
+     * Completes every open subscription and stops the sender pool.
+     */
+    @Override
+    public void destroy() {
+        subscribers.forEach(subscriber -> subscriber.getEmitter().complete());
+        sender.shutdownNow();
+    }
+
+    private void unsubscribe(RealtimeSubscriber subscriber) {
+        subscriber.close();
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (String machineId : subscriber.getMachineIds()) {
+            subscribersByMachine.computeIfPresent(machineId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        log.debug("Closed realtime subscription ({} open)", subscribers.size());
+    }
+}
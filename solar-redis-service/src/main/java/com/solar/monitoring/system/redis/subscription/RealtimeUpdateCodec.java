@@ -0,0 +1,75 @@
+package com.solar.monitoring.system.redis.subscription;
+
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import com.solar.monitoring.system.redis.util.EpochMillisUtil;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Encodes the realtime update messages published on {@code realtime:updates}.
+ *
+ * <p>A message carries only the fields a save writes, as plain text:
+ * {@code epochMillis|powerOutput|voltage|current|temperature|efficiency|machineId}, with an empty field for a
+ * missing value. The machineId comes last so it may itself contain {@code |}. Timestamps are read as UTC,
+ * like the compact hash codec and the time-series window.
+ */
+@UtilityClass
+public class RealtimeUpdateCodec {
+
+    private static final int FIELD_COUNT = 7;
+
+    /**
+     * Encodes a saved sample as an update message.
+     *
+     * @param metrics the saved sample; must carry a machineId and timestamp
+     * @return the UTF-8 message body
+     */
+    public static byte[] encode(RealtimeDataDto metrics) {
+        String message = EpochMillisUtil.toEpochMillis(metrics.getTimestamp())
+                + "|" + format(metrics.getPowerOutput())
+                + "|" + format(metrics.getVoltage())
+                + "|" + format(metrics.getCurrent())
+                + "|" + format(metrics.getTemperature())
+                + "|" + format(metrics.getEfficiency())
+                + "|" + metrics.getMachineId();
+        return message.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes an update message.
+     *
+     * @param body the UTF-8 message body
+     * @return the sample, or null if the message is malformed
+     */
+    public static RealtimeDataDto decode(byte[] body) {
+        String[] fields = new String(body, StandardCharsets.UTF_8).split("\\|", FIELD_COUNT);
+        if (fields.length != FIELD_COUNT || fields[6].isEmpty()) {
+            return null;
+        }
+
+        try {
+            long epochMillis = Long.parseLong(fields[0]);
+            return RealtimeDataDto.builder()
+                    .machineId(fields[6])
+                    .timestamp(EpochMillisUtil.toLocalDateTime(epochMillis))
+                    .powerOutput(parse(fields[1]))
+                    .voltage(parse(fields[2]))
+                    .current(parse(fields[3]))
+                    .temperature(parse(fields[4]))
+                    .efficiency(parse(fields[5]))
+                    .build();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String format(Double value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static Double parse(String value) {
+        return value.isEmpty() ? null : Double.valueOf(value);
+    }
+}
@@ -0,0 +1,66 @@
+package com.solar.monitoring.system.redis.util;
+import lombok.experimental.UtilityClass;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@UtilityClass
+public class EpochMillisUtil {
+
+    /**
+     * Returned by {@link #parse(byte[])} for input that is not an epoch millis value.
+     */
+    public static final long NOT_EPOCH_MILLIS = Long.MIN_VALUE;
+
+    // 18 digits cannot overflow a long
+    private static final int MAX_DIGITS = 18;
+
+    /**
+     * Converts a LocalDateTime, taken as UTC, to epoch millis.
+     *
+     * @param timestamp the timestamp to convert
+     * @return milliseconds since the epoch
+     */
+    public static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1000L + timestamp.getNano() / 1_000_000;
+    }
+
+    /**
+     * Converts UTC epoch millis to a LocalDateTime.
+     *
+     * @param epochMillis milliseconds since the epoch
+     * @return the corresponding LocalDateTime in UTC
+     */
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Parses epoch millis written as ASCII digits, such as a JSON number, without allocating or throwing.
+     *
+     * @param bytes the stored bytes (may be null)
+     * @return the parsed value, or {@link #NOT_EPOCH_MILLIS} if the bytes are not an optional minus sign followed
+     *         by 1 to 18 digits
+     */
+    public static long parse(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return NOT_EPOCH_MILLIS;
+        }
+        boolean negative = bytes[0] == '-';
+        int start = negative ? 1 : 0;
+        if (bytes.length == start || bytes.length - start > MAX_DIGITS) {
+            return NOT_EPOCH_MILLIS;
+        }
+
+        long value = 0;
+        for (int i = start; i < bytes.length; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_EPOCH_MILLIS;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+}
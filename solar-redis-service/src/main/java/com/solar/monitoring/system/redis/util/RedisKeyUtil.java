@@ -1,58 +1,181 @@
 package com.solar.monitoring.system.redis.util;
 import lombok.experimental.UtilityClass;
 
+/**
+ * Redis key and channel names.
+ *
+ * <p>Keys carry Redis Cluster hash tags, so the keys a single command or script touches share a slot: every
+ * per-machine key is tagged with its machineId (its realtime, status, alert and time-series keys co-locate), the
+ * fleet aggregate keys with {@code fleet} and the machine registry keys with {@code machines}.
+ */
 @UtilityClass
 public class RedisKeyUtil {
 
     private static final String REALTIME_DATA_PREFIX = "realtime:machine:";
     private static final String MACHINE_STATUS_PREFIX = "status:machine:";
     private static final String ALERT_PREFIX = "alert:machine:";
+    private static final String TIME_SERIES_PREFIX = "timeseries:machine:";
+    private static final String REALTIME_UPDATES_CHANNEL = "realtime:updates";
+    private static final String ALERT_EVENTS_CHANNEL = "alerts:events";
+    private static final String FLEET_STATE_KEY = "{fleet}:state";
+    private static final String FLEET_LAST_WRITE_KEY = "{fleet}:last-write";
+    private static final String FLEET_TOTALS_KEY = "{fleet}:totals";
+    private static final String FLEET_INDEX_PREFIX = "{fleet}:index:";
+    private static final String MACHINE_LAST_SEEN_KEY = "{machines}:last-seen";
+    private static final String MACHINE_IDS_KEY = "{machines}:ids";
 
     /**
      * Build the Redis key for a machine's realtime data.
      *
-     * @param machineId the machine identifier to append to the realtime data prefix
+     * @param machineId the machine identifier to append, as a hash tag, to the realtime data prefix
      * @return the Redis key, formatted as {@code realtime:machine:{machineId}}
      */
     public static String getRealtimeDataKey(String machineId) {
-        return REALTIME_DATA_PREFIX + machineId;
+        return REALTIME_DATA_PREFIX + hashTag(machineId);
+    }
+
+    /**
+     * Returns the prefix shared by every realtime data key, for key patterns and {@link #getMachineIdFromKey}.
+     *
+     * @return the prefix, {@code realtime:machine:}
+     */
+    public static String getRealtimeDataKeyPrefix() {
+        return REALTIME_DATA_PREFIX;
     }
 
     /**
      * Builds the Redis key for a machine's status by prefixing the configured status namespace.
      *
-     * @param machineId the machine identifier to append to the status key prefix
-     * @return the Redis key for the given machine's status (prefix + machineId)
+     * @param machineId the machine identifier to append, as a hash tag, to the status key prefix
+     * @return the Redis key for the given machine's status, formatted as {@code status:machine:{machineId}}
      */
     public static String getMachineStatusKey(String machineId) {
-        return MACHINE_STATUS_PREFIX + machineId;
+        return MACHINE_STATUS_PREFIX + hashTag(machineId);
     }
 
     /**
      * Builds the Redis key used to store alerts for a specific machine.
      *
-     * The key is the alert prefix followed by the provided machine identifier,
+     * The key is the alert prefix followed by the provided machine identifier as a hash tag,
      * e.g. "alert:machine:{machineId}".
      *
      * @param machineId the machine identifier to append to the alert key prefix
      * @return the Redis alert key for the given machine
      */
     public static String getAlertKey(String machineId) {
-        return ALERT_PREFIX + machineId;
+        return ALERT_PREFIX + hashTag(machineId);
+    }
+
+    /**
+     * Builds the Redis key of the sorted set holding a machine's rolling window of samples.
+     *
+     * @param machineId the machine identifier to append, as a hash tag, to the time-series key prefix
+     * @return the Redis key, formatted as {@code timeseries:machine:{machineId}}
+     */
+    public static String getTimeSeriesKey(String machineId) {
+        return TIME_SERIES_PREFIX + hashTag(machineId);
+    }
+
+    /**
+     * Returns the pub/sub channel every saved sample is published on.
+     *
+     * @return the channel name, {@code realtime:updates}
+     */
+    public static String getRealtimeUpdatesChannel() {
+        return REALTIME_UPDATES_CHANNEL;
+    }
+
+    /**
+     * Returns the pub/sub channel alert raise and clear events are published on.
+     *
+     * @return the channel name, {@code alerts:events}
+     */
+    public static String getAlertEventsChannel() {
+        return ALERT_EVENTS_CHANNEL;
+    }
+
+    /**
+     * Returns the key of the hash holding the last sample applied to the fleet aggregates, per machine.
+     *
+     * @return the Redis key, {@code {fleet}:state}
+     */
+    public static String getFleetStateKey() {
+        return FLEET_STATE_KEY;
+    }
+
+    /**
+     * Returns the key of the sorted set recording when each machine's last sample was applied.
+     *
+     * @return the Redis key, {@code {fleet}:last-write}
+     */
+    public static String getFleetLastWriteKey() {
+        return FLEET_LAST_WRITE_KEY;
+    }
+
+    /**
+     * Returns the key of the hash holding the running fleet totals.
+     *
+     * @return the Redis key, {@code {fleet}:totals}
+     */
+    public static String getFleetTotalsKey() {
+        return FLEET_TOTALS_KEY;
+    }
+
+    /**
+     * Builds the key of the sorted set ranking machines by a metric.
+     *
+     * @param field the realtime hash field the index is scored by, e.g. {@code powerOutput}
+     * @return the Redis key, formatted as {@code {fleet}:index:<field>}
+     */
+    public static String getFleetIndexKey(String field) {
+        return FLEET_INDEX_PREFIX + field;
+    }
+
+    /**
+     * Returns the key of the sorted set recording the timestamp of each known machine's newest sample.
+     *
+     * @return the Redis key, {@code {machines}:last-seen}
+     */
+    public static String getMachineLastSeenKey() {
+        return MACHINE_LAST_SEEN_KEY;
+    }
+
+    /**
+     * Returns the key of the sorted set holding every known machineId with score 0, ordered lexicographically.
+     *
+     * @return the Redis key, {@code {machines}:ids}
+     */
+    public static String getMachineIdsKey() {
+        return MACHINE_IDS_KEY;
     }
 
     /**
      * Extracts the machineId from a Redis key if the key begins with the given prefix.
      *
-     * @param key the Redis key to parse (e.g. "realtime:machine:123")
+     * @param key the Redis key to parse (e.g. "realtime:machine:{123}")
      * @param prefix the expected prefix to strip from the key (e.g. "realtime:machine:")
-     * @return the substring after the prefix (the machineId) when `key` starts with `prefix`, or {@code null} otherwise
+     * @return the substring after the prefix without its hash tag braces (the machineId) when `key` starts with
+     *         `prefix`, or {@code null} otherwise
      */
     public static String getMachineIdFromKey(String key, String prefix) {
-        if (key.startsWith(prefix)) {
-            return key.substring(prefix.length());
+        if (!key.startsWith(prefix)) {
+            return null;
+        }
+        String machineId = key.substring(prefix.length());
+        if (machineId.length() >= 2 && machineId.charAt(0) == '{' && machineId.endsWith("}")) {
+            return machineId.substring(1, machineId.length() - 1);
         }
-        return null;
+        return machineId;
+    }
+
+    /**
+     * Wraps a key part in a Redis Cluster hash tag, so that only this part decides the key's slot.
+     *
+     * @param value the part of the key that selects the slot
+     * @return the value in braces
+     */
+    private static String hashTag(String value) {
+        return "{" + value + "}";
     }
 
 }
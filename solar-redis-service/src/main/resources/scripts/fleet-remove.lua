@@ -0,0 +1,48 @@
+-- Removes machines from the fleet aggregates, subtracting their last applied sample.
+-- KEYS     same as fleet-update.lua
+-- ARGV[1]  maximum age in millis: only machines whose last sample was applied at least this long ago (server
+--          time) are removed; -1 removes unconditionally
+-- ARGV[2]  maximum number of machines to remove when no ids are given
+-- ARGV[3..] machineIds to remove; when absent, the oldest stale machines are selected
+-- Returns the number of machines removed.
+local maxAge = tonumber(ARGV[1])
+local time = redis.call('TIME')
+local cutoff = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) - maxAge
+
+local ids
+if #ARGV > 2 then
+    ids = {}
+    for i = 3, #ARGV do
+        ids[#ids + 1] = ARGV[i]
+    end
+else
+    ids = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', cutoff, 'LIMIT', 0, tonumber(ARGV[2]))
+end
+
+local fields = { 'powerOutput', 'efficiency', 'temperature' }
+local removed = 0
+for _, id in ipairs(ids) do
+    local lastWrite = tonumber(redis.call('ZSCORE', KEYS[2], id))
+    local previous = redis.call('HGET', KEYS[1], id)
+    if previous and (maxAge < 0 or (lastWrite ~= nil and lastWrite <= cutoff)) then
+        local _, p, e, t = string.match(previous, '^([^|]*)|([^|]*)|([^|]*)|([^|]*)$')
+        local old = { tonumber(p), tonumber(e), tonumber(t) }
+        for i = 1, 3 do
+            if old[i] ~= nil then
+                redis.call('HINCRBYFLOAT', KEYS[3], fields[i], string.format('%.17g', -old[i]))
+                redis.call('HINCRBY', KEYS[3], fields[i] .. 'Count', -1)
+            end
+            redis.call('ZREM', KEYS[i + 3], id)
+        end
+        redis.call('HDEL', KEYS[1], id)
+        redis.call('ZREM', KEYS[2], id)
+        removed = removed + 1
+        -- an empty fleet resets the sums, discarding accumulated floating-point error
+        if redis.call('HINCRBY', KEYS[3], 'machines', -1) <= 0 then
+            redis.call('DEL', KEYS[3])
+        end
+    elseif not previous then
+        redis.call('ZREM', KEYS[2], id)
+    end
+end
+return removed
@@ -0,0 +1,48 @@
+-- Applies one saved sample to the fleet aggregates, from the difference to the machine's previous sample.
+-- KEYS[1]  fleet state hash (field = machineId, value = "ts|powerOutput|efficiency|temperature")
+-- KEYS[2]  last-write sorted set (member = machineId, score = server time of the last applied sample, millis)
+-- KEYS[3]  fleet totals hash (machines, <metric> sums and <metric>Count reporting machines)
+-- KEYS[4]  powerOutput index, KEYS[5] efficiency index, KEYS[6] temperature index (score = current value)
+-- ARGV[1]  machineId
+-- ARGV[2]  sample timestamp, epoch millis
+-- ARGV[3]  powerOutput, ARGV[4] efficiency, ARGV[5] temperature ('' when missing)
+-- Returns 1 if the sample was applied, 0 if it is older than the one already applied.
+local id = ARGV[1]
+local ts = tonumber(ARGV[2])
+
+local previous = redis.call('HGET', KEYS[1], id)
+local old = {}
+if previous then
+    local pts, p, e, t = string.match(previous, '^([^|]*)|([^|]*)|([^|]*)|([^|]*)$')
+    if tonumber(pts) ~= nil and ts < tonumber(pts) then
+        return 0
+    end
+    old = { tonumber(p), tonumber(e), tonumber(t) }
+end
+
+local time = redis.call('TIME')
+redis.call('ZADD', KEYS[2], tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000), id)
+redis.call('HSET', KEYS[1], id, ARGV[2] .. '|' .. ARGV[3] .. '|' .. ARGV[4] .. '|' .. ARGV[5])
+if not previous then
+    redis.call('HINCRBY', KEYS[3], 'machines', 1)
+end
+
+local fields = { 'powerOutput', 'efficiency', 'temperature' }
+for i = 1, 3 do
+    local before, after = old[i], tonumber(ARGV[i + 2])
+    local delta = (after or 0) - (before or 0)
+    if delta ~= 0 then
+        redis.call('HINCRBYFLOAT', KEYS[3], fields[i], string.format('%.17g', delta))
+    end
+    if before == nil and after ~= nil then
+        redis.call('HINCRBY', KEYS[3], fields[i] .. 'Count', 1)
+    elseif before ~= nil and after == nil then
+        redis.call('HINCRBY', KEYS[3], fields[i] .. 'Count', -1)
+    end
+    if after ~= nil then
+        redis.call('ZADD', KEYS[i + 3], after, id)
+    elseif before ~= nil then
+        redis.call('ZREM', KEYS[i + 3], id)
+    end
+end
+return 1
@@ -0,0 +1,14 @@
+-- Removes machines that have not reported for longer than the retention from the machine registry.
+-- KEYS[1]  {machines}:last-seen sorted set (score = epoch millis the newest sample was written at)
+-- KEYS[2]  {machines}:ids sorted set
+-- ARGV[1]  cutoff, epoch millis: machines last seen at or before it are removed
+-- ARGV[2]  maximum number of machines to remove
+-- Returns the number of machines removed.
+local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+if #ids == 0 then
+    return 0
+end
+
+redis.call('ZREM', KEYS[1], unpack(ids))
+redis.call('ZREM', KEYS[2], unpack(ids))
+return #ids
@@ -0,0 +1,7 @@
+-- Writes a machine's realtime hash and refreshes its TTL atomically.
+-- KEYS[1]  realtime hash key
+-- ARGV[1]  TTL in seconds
+-- ARGV[2..] field/value pairs, already encoded with the template's hash serializers
+local fields = redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+redis.call('EXPIRE', KEYS[1], ARGV[1])
+return fields
@@ -0,0 +1,46 @@
+-- Downsamples a machine's rolling window into fixed-size buckets on the server.
+-- KEYS[1]  time-series sorted set (score = epoch millis, member = "ts|power|voltage|current|temperature|efficiency")
+-- ARGV[1]  from, epoch millis (inclusive)
+-- ARGV[2]  to, epoch millis (inclusive)
+-- ARGV[3]  bucket size in millis
+-- ARGV[4]  1-based position of the metric in the member
+-- Returns a flat array of bucketStart, count, min, max, avg per non-empty bucket, numbers as strings.
+local members = redis.call('ZRANGEBYSCORE', KEYS[1], ARGV[1], ARGV[2])
+local bucketSize = tonumber(ARGV[3])
+local position = tonumber(ARGV[4])
+
+-- one anchored match per member: capture the timestamp and the field at the requested position
+local pattern = '^([^|]*)' .. string.rep('|[^|]*', position - 2) .. '|([^|]*)'
+
+local result = {}
+local bucket, count, min, max, sum
+
+local function flush()
+    if count ~= nil and count > 0 then
+        result[#result + 1] = string.format('%d', bucket)
+        result[#result + 1] = tostring(count)
+        result[#result + 1] = string.format('%.17g', min)
+        result[#result + 1] = string.format('%.17g', max)
+        result[#result + 1] = string.format('%.17g', sum / count)
+    end
+end
+
+for _, member in ipairs(members) do
+    local ts, value = string.match(member, pattern)
+    ts, value = tonumber(ts), tonumber(value)
+
+    if ts ~= nil and value ~= nil then
+        local start = ts - (ts % bucketSize)
+        if start ~= bucket then
+            flush()
+            bucket, count, min, max, sum = start, 0, value, value, 0
+        end
+        count = count + 1
+        sum = sum + value
+        if value < min then min = value end
+        if value > max then max = value end
+    end
+end
+flush()
+
+return result
@@ -0,0 +1,20 @@
+-- Writes a machine's realtime hash only if the sample is newer than the stored one, refreshing its TTL and
+-- publishing the update in the same atomic call.
+-- KEYS[1]  realtime hash key
+-- ARGV[1]  TTL in seconds
+-- ARGV[2]  sample timestamp, epoch millis; kept in the hash as the hidden field _ts
+-- ARGV[3]  channel the update is published on when the sample is written, or '' to not publish
+-- ARGV[4]  update message
+-- ARGV[5..] field/value pairs, already encoded with the template's hash serializers
+-- Returns 1 if the sample was written, 0 if the stored sample is as new or newer.
+local stored = tonumber(redis.call('HGET', KEYS[1], '_ts'))
+if stored ~= nil and stored >= tonumber(ARGV[2]) then
+    return 0
+end
+
+redis.call('HSET', KEYS[1], '_ts', ARGV[2], unpack(ARGV, 5))
+redis.call('EXPIRE', KEYS[1], ARGV[1])
+if ARGV[3] ~= '' then
+    redis.call('PUBLISH', ARGV[3], ARGV[4])
+end
+return 1
@@ -0,0 +1,157 @@
+package com.solar.monitoring.system.redis.service;
+
+import com.solar.monitoring.system.redis.dto.BatchItemResultDto;
+import com.solar.monitoring.system.redis.dto.RealtimeDataDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@code UPSERT} write mode against a real Redis: whatever order samples arrive in, and however many
+ * writers race, each machine's hash ends up holding its newest sample.
+ */
+@SpringBootTest(properties = {
+        "solar.redis.write-mode=UPSERT",
+        "spring.data.redis.password="
+})
+@Testcontainers(disabledWithoutDocker = true)
+class RealtimeServiceUpsertTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Container
+    static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
+    }
+
+    @Autowired
+    private IRealtimeService realtimeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentWritersKeepTheNewestSampleOfEachMachine() throws Exception {
+        int machines = 4;
+        int samplesPerMachine = 250;
+        int writers = 8;
+        String prefix = "upsert-" + UUID.randomUUID() + "-";
+
+        List<RealtimeDataDto> samples = new ArrayList<>(machines * samplesPerMachine);
+        for (int m = 0; m < machines; m++) {
+            for (int k = 0; k < samplesPerMachine; k++) {
+                samples.add(sample(prefix + m, k));
+            }
+        }
+        Collections.shuffle(samples, new Random(42));
+
+        double appliedBefore = counter("realtime.upsert.applied");
+        double rejectedBefore = counter("realtime.upsert.rejected");
+
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> running = new ArrayList<>(writers);
+        try {
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                running.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = writer; i < samples.size(); i += writers) {
+                        RealtimeDataDto sample = samples.get(i);
+                        realtimeService.saveMetrics(sample.getMachineId(), sample);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : running) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int m = 0; m < machines; m++) {
+            RealtimeDataDto stored = realtimeService.getRealtimeMetrics(prefix + m).orElseThrow();
+            assertThat(stored.getTimestamp()).isEqualTo(BASE.plusSeconds(samplesPerMachine - 1));
+            // every field comes from the same sample as the timestamp
+            assertThat(stored.getPowerOutput()).isEqualTo(samplesPerMachine - 1.0);
+        }
+        double applied = counter("realtime.upsert.applied") - appliedBefore;
+        double rejected = counter("realtime.upsert.rejected") - rejectedBefore;
+        assertThat(applied + rejected).isEqualTo(samples.size());
+        assertThat(applied).isGreaterThanOrEqualTo(machines);
+        assertThat(rejected).isGreaterThan(0);
+    }
+
+    @Test
+    void olderSampleAfterNewerOneIsRejected() {
+        String machineId = "upsert-" + UUID.randomUUID();
+
+        realtimeService.saveMetrics(machineId, sample(machineId, 10));
+        realtimeService.saveMetrics(machineId, sample(machineId, 5));
+        // as new as the stored sample: also rejected
+        RealtimeDataDto tie = sample(machineId, 10);
+        tie.setPowerOutput(-1.0);
+        realtimeService.saveMetrics(machineId, tie);
+
+        RealtimeDataDto stored = realtimeService.getRealtimeMetrics(machineId).orElseThrow();
+        assertThat(stored.getTimestamp()).isEqualTo(BASE.plusSeconds(10));
+        assertThat(stored.getPowerOutput()).isEqualTo(10.0);
+    }
+
+    @Test
+    void outOfOrderSamplesWithinOneBatchKeepTheNewest() {
+        String machineId = "upsert-" + UUID.randomUUID();
+
+        List<BatchItemResultDto> results = realtimeService.saveMetricsBatch(List.of(
+                sample(machineId, 3), sample(machineId, 7), sample(machineId, 1), sample(machineId, 6)));
+
+        assertThat(results).allMatch(BatchItemResultDto::isSuccess);
+        RealtimeDataDto stored = realtimeService.getRealtimeMetrics(machineId).orElseThrow();
+        assertThat(stored.getTimestamp()).isEqualTo(BASE.plusSeconds(7));
+        assertThat(stored.getPowerOutput()).isEqualTo(7.0);
+    }
+
+    private RealtimeDataDto sample(String machineId, int second) {
+        return RealtimeDataDto.builder()
+                .machineId(machineId)
+                .timestamp(BASE.plusSeconds(second))
+                .powerOutput((double) second)
+                .voltage(230.0)
+                .current(second / 230.0)
+                .temperature(40.0)
+                .efficiency(0.2)
+                .build();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}